@@ -0,0 +1,190 @@
+package com.stevencl.callcentersim;
+
+import java.util.LinkedHashSet;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks HashSet against java.util.HashSet and java.util.LinkedHashSet. Each set holds
+ * size distinct keys; lookups are drawn from a fixed mix of keys in and out of the set, so
+ * that hitRate percent of them are found. Keys are boxed once during setup, so only the
+ * sets themselves show up in the allocation rate reported by the GC profiler.
+ *
+ * @author      Steven Leighton
+ * @version     2018-12-06
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class HashSetBenchmark {
+    /** Number of lookups in the mix, which must be a power of two */
+    private static final int    LOOKUPS = 1 << 12;
+
+    /** Number of keys in each set */
+    @Param({"16", "1024", "65536"})
+    private int                         size;
+    /** Percentage of lookups which find their key */
+    @Param({"0", "50", "100"})
+    private int                         hitRate;
+
+    /** Keys in the sets */
+    private Integer[]                   keys;
+    /** Keys not in the sets, one per key in the sets */
+    private Integer[]                   misses;
+    /** Keys to be looked up, in order */
+    private Integer[]                   lookups;
+    /** Set under test */
+    private HashSet<Integer>            set;
+    /** java.util.HashSet with the same keys */
+    private java.util.HashSet<Integer>  jdkSet;
+    /** java.util.LinkedHashSet with the same keys */
+    private LinkedHashSet<Integer>      linkedSet;
+    /** Position in the lookup mix */
+    private int                         next;
+
+
+    /**
+     * Creates the keys and fills each set with them
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        java.util.HashSet<Integer> seen = new java.util.HashSet<>();
+        keys = new Integer[size];
+        misses = new Integer[size];
+        for (int i = 0; i < 2 * size; i++) {
+            Integer key;
+            do {
+                key = random.nextInt();
+            } while (!seen.add(key));
+            if (i < size) {
+                keys[i] = key;
+            } else {
+                misses[i - size] = key;
+            }
+        }
+
+        lookups = new Integer[LOOKUPS];
+        for (int i = 0; i < LOOKUPS; i++) {
+            Integer[] source = random.nextInt(100) < hitRate ? keys : misses;
+            lookups[i] = source[random.nextInt(size)];
+        }
+
+        set = new HashSet<>();
+        jdkSet = new java.util.HashSet<>();
+        linkedSet = new LinkedHashSet<>();
+        for (Integer key : keys) {
+            set.add(key);
+            jdkSet.add(key);
+            linkedSet.add(key);
+        }
+        next = 0;
+    }
+
+    /**
+     * Returns the next key of the lookup mix
+     *
+     * @return      the next key to be looked up
+     */
+    private Integer nextLookup() {
+        next = (next + 1) & (LOOKUPS - 1);
+        return lookups[next];
+    }
+
+
+    @Benchmark
+    public boolean containsHashSet() {
+        return set.contains(nextLookup());
+    }
+
+    @Benchmark
+    public boolean containsJdkHashSet() {
+        return jdkSet.contains(nextLookup());
+    }
+
+    @Benchmark
+    public boolean containsLinkedHashSet() {
+        return linkedSet.contains(nextLookup());
+    }
+
+    /**
+     * Adds a key and removes it again, so that the set stays the same size. A key in the
+     * set is left where it is; a key not in the set is inserted and then removed, which
+     * with linear probing also shifts later entries back.
+     */
+    @Benchmark
+    public boolean addRemoveHashSet() {
+        Integer key = nextLookup();
+        boolean added = set.add(key);
+        if (added) {
+            set.remove(key);
+        }
+        return added;
+    }
+
+    @Benchmark
+    public boolean addRemoveJdkHashSet() {
+        Integer key = nextLookup();
+        boolean added = jdkSet.add(key);
+        if (added) {
+            jdkSet.remove(key);
+        }
+        return added;
+    }
+
+    @Benchmark
+    public boolean addRemoveLinkedHashSet() {
+        Integer key = nextLookup();
+        boolean added = linkedSet.add(key);
+        if (added) {
+            linkedSet.remove(key);
+        }
+        return added;
+    }
+
+    /**
+     * Fills an empty set with every key, growing the table from its initial size
+     */
+    @Benchmark
+    public void fillHashSet(Blackhole blackhole) {
+        HashSet<Integer> filled = new HashSet<>();
+        for (Integer key : keys) {
+            filled.add(key);
+        }
+        blackhole.consume(filled);
+    }
+
+    @Benchmark
+    public void fillJdkHashSet(Blackhole blackhole) {
+        java.util.HashSet<Integer> filled = new java.util.HashSet<>();
+        for (Integer key : keys) {
+            filled.add(key);
+        }
+        blackhole.consume(filled);
+    }
+
+    @Benchmark
+    public void fillLinkedHashSet(Blackhole blackhole) {
+        LinkedHashSet<Integer> filled = new LinkedHashSet<>();
+        for (Integer key : keys) {
+            filled.add(key);
+        }
+        blackhole.consume(filled);
+    }
+}
@@ -0,0 +1,155 @@
+package com.stevencl.callcentersim;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the add and remove cycle of HashSetQueue, as the simulation uses it for the
+ * customer and tech queues, against the java.util structures it could be replaced with: an
+ * ArrayDeque guarded by a java.util.HashSet, and a LinkedHashSet used as a queue. A plain
+ * ArrayDeque, which does not keep values unique, is included as a lower bound.
+ *
+ * <p>Each queue holds size values. Every operation either offers a value already in the
+ * queue, which must be rejected, or moves the front value to the back; duplicateRate
+ * percent of the operations are rejected offers.
+ *
+ * @author      Steven Leighton
+ * @version     2018-12-06
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class HashSetQueueBenchmark {
+    /** Number of operations in the mix, which must be a power of two */
+    private static final int    OPERATIONS = 1 << 12;
+
+    /** Number of values in each queue */
+    @Param({"16", "1024", "65536"})
+    private int                         size;
+    /** Percentage of operations which offer a value already in the queue */
+    @Param({"0", "50"})
+    private int                         duplicateRate;
+
+    /** Value offered by each operation, or null to move the front value to the back */
+    private Integer[]                   offers;
+    /** Queue under test */
+    private HashSetQueue<Integer>       queue;
+    /** ArrayDeque holding the same values as guard */
+    private ArrayDeque<Integer>         deque;
+    /** Set of the values in deque */
+    private java.util.HashSet<Integer>  guard;
+    /** LinkedHashSet used as a queue */
+    private LinkedHashSet<Integer>      linkedSet;
+    /** ArrayDeque which does not keep values unique */
+    private ArrayDeque<Integer>         plainDeque;
+    /** Position in the operation mix */
+    private int                         next;
+
+
+    /**
+     * Fills each queue with the same values and draws the operation mix
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        Integer[] values = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            values[i] = i * 7919;
+        }
+
+        // every value stays in every queue, so any of them is a duplicate at any time
+        SplittableRandom random = new SplittableRandom(42);
+        offers = new Integer[OPERATIONS];
+        for (int i = 0; i < OPERATIONS; i++) {
+            if (random.nextInt(100) < duplicateRate) {
+                offers[i] = values[random.nextInt(size)];
+            }
+        }
+
+        queue = new HashSetQueue<>();
+        deque = new ArrayDeque<>();
+        guard = new java.util.HashSet<>();
+        linkedSet = new LinkedHashSet<>();
+        plainDeque = new ArrayDeque<>();
+        for (Integer value : values) {
+            queue.add(value);
+            deque.add(value);
+            guard.add(value);
+            linkedSet.add(value);
+            plainDeque.add(value);
+        }
+        next = 0;
+    }
+
+    /**
+     * Returns the value offered by the next operation
+     *
+     * @return      the value to be offered, or null to move the front value to the back
+     */
+    private Integer nextOffer() {
+        next = (next + 1) & (OPERATIONS - 1);
+        return offers[next];
+    }
+
+
+    @Benchmark
+    public boolean cycleHashSetQueue() {
+        Integer offer = nextOffer();
+        if (offer != null) {
+            return queue.add(offer);
+        }
+        return queue.add(queue.remove());
+    }
+
+    @Benchmark
+    public boolean cycleGuardedArrayDeque() {
+        Integer offer = nextOffer();
+        if (offer != null) {
+            return guard.add(offer) && deque.add(offer);
+        }
+        Integer front = deque.remove();
+        guard.remove(front);
+        return guard.add(front) && deque.add(front);
+    }
+
+    @Benchmark
+    public boolean cycleLinkedHashSet() {
+        Integer offer = nextOffer();
+        if (offer != null) {
+            return linkedSet.add(offer);
+        }
+        Iterator<Integer> iterator = linkedSet.iterator();
+        Integer front = iterator.next();
+        iterator.remove();
+        return linkedSet.add(front);
+    }
+
+    /**
+     * Moves the front value to the back, and ignores offers, as a plain ArrayDeque could
+     * only reject them with a linear search
+     */
+    @Benchmark
+    public boolean cyclePlainArrayDeque() {
+        if (nextOffer() != null) {
+            return false;
+        }
+        return plainDeque.add(plainDeque.remove());
+    }
+}
@@ -0,0 +1,368 @@
+package com.stevencl.callcentersim;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Runs whole simulations on synthetic data and reports how fast the engine processes
+ * events: simulated events per second, bytes allocated per event and the 99th percentile
+ * of the time taken by one event. Results can be saved as JSON, and checked against a
+ * saved baseline, in which case the process exits with status 1 if any scenario allocates
+ * more than the tolerance allows. Allocation per event does not depend on the machine, so
+ * it is always checked. Throughput and event time depend on the machine the baseline was
+ * recorded on, so they are only checked when asked for, against a baseline recorded on the
+ * same host.
+ *
+ * <p>Options, each of the form --name=value:
+ * <ul>
+ * <li>scenarios: comma separated scenarios to run, from small, medium and huge; default all
+ * <li>warmups: runs of each scenario before measuring; default 3
+ * <li>runs: measured runs of each scenario; default 5
+ * <li>save: file to write the results to, as JSON
+ * <li>baseline: JSON file of earlier results to check against
+ * <li>tolerance: largest fraction by which throughput may fall or allocation rise; default
+ *     0.25
+ * <li>checkTiming: true to also check throughput and the 99th percentile event time against
+ *     the baseline; default false
+ * <li>latencyTolerance: largest fraction by which the 99th percentile event time may rise;
+ *     default 1, as it is much noisier than throughput
+ * </ul>
+ *
+ * @author      Steven Leighton
+ * @version     2018-12-06
+ */
+public class SimulationBenchmark {
+    /** Allocation slack, in bytes per event, so that near-zero baselines are not flaky */
+    private static final double     BYTES_PER_EVENT_SLACK = 8;
+    /** Seed of every run, so that each run processes the same events */
+    private static final long       SEED = 42;
+
+    /** Every scenario, in order of size */
+    private static final Case[]     CASES = {
+        new Case("small", 1000, 40, 20, 100000, 1000, 8000),
+        new Case("medium", 50000, 800, 1000, 500000, 100, 18000),
+        new Case("huge", 1000000, 8000, 20000, 2000000, 10, 18000)
+    };
+
+
+    /**
+     * Runs the benchmarks
+     *
+     * @param       args        options, each of the form --name=value
+     * @throws      IOException if data or a results file cannot be read or written
+     */
+    public static void main(String[] args) throws IOException {
+        Map<String, String> options = new LinkedHashMap<>();
+        options.put("scenarios", "small,medium,huge");
+        options.put("warmups", "3");
+        options.put("runs", "5");
+        options.put("tolerance", "0.25");
+        options.put("checkTiming", "false");
+        options.put("latencyTolerance", "1");
+        for (String arg : args) {
+            int equals = arg.indexOf('=');
+            if (!arg.startsWith("--") || equals < 0) {
+                throw new IllegalArgumentException("Expected --name=value: " + arg);
+            }
+            options.put(arg.substring(2, equals), arg.substring(equals + 1));
+        }
+
+        int warmups = Integer.parseInt(options.get("warmups"));
+        int runs = Integer.parseInt(options.get("runs"));
+        Map<String, Result> results = new LinkedHashMap<>();
+        for (String name : options.get("scenarios").split(",")) {
+            Case scenario = findCase(name.trim());
+            Result result = scenario.measure(warmups, runs);
+            results.put(scenario.name, result);
+            System.out.println(scenario.name + ": " + result);
+        }
+
+        if (options.containsKey("save")) {
+            Files.write(Paths.get(options.get("save")),
+                        toJson(results).getBytes(StandardCharsets.UTF_8));
+        }
+        if (options.containsKey("baseline")) {
+            String json = new String(Files.readAllBytes(Paths.get(options.get("baseline"))),
+                                     StandardCharsets.UTF_8);
+            ArrayList<String> regressions = compare(results, fromJson(json),
+                                                    Double.parseDouble(options.get("tolerance")),
+                                                    Boolean.parseBoolean(
+                                                        options.get("checkTiming")),
+                                                    Double.parseDouble(
+                                                        options.get("latencyTolerance")));
+            for (String regression : regressions) {
+                System.out.println("REGRESSION " + regression);
+            }
+            if (!regressions.isEmpty()) {
+                System.exit(1);
+            }
+            System.out.println("No regressions against " + options.get("baseline"));
+        }
+    }
+
+    /**
+     * Returns the scenario with the given name
+     *
+     * @param       name        name of the scenario
+     * @return      the scenario
+     * @throws      IllegalArgumentException    if there is no such scenario
+     */
+    private static Case findCase(String name) {
+        for (Case scenario : CASES) {
+            if (scenario.name.equals(name)) {
+                return scenario;
+            }
+        }
+        throw new IllegalArgumentException("Unknown scenario: " + name);
+    }
+
+    /**
+     * Compares results with a baseline. Scenarios missing from either are skipped.
+     *
+     * @param       results             results of this run, by scenario
+     * @param       baseline            baseline results, by scenario
+     * @param       tolerance           largest fraction by which throughput may fall or
+     *                                  allocation rise
+     * @param       checkTiming         whether or not to check throughput and event time,
+     *                                  which are only comparable on the same host
+     * @param       latencyTolerance    largest fraction by which the 99th percentile event
+     *                                  time may rise
+     * @return      a description of each regression
+     */
+    static ArrayList<String> compare(Map<String, Result> results, Map<String, Result> baseline,
+                                     double tolerance, boolean checkTiming,
+                                     double latencyTolerance) {
+        ArrayList<String> regressions = new ArrayList<>();
+        for (Map.Entry<String, Result> entry : results.entrySet()) {
+            Result now = entry.getValue();
+            Result then = baseline.get(entry.getKey());
+            if (then == null) {
+                continue;
+            }
+            if (checkTiming && now.eventsPerSecond < then.eventsPerSecond * (1 - tolerance)) {
+                regressions.add(String.format(Locale.ROOT, "%s: %.0f events/sec, baseline %.0f",
+                                              entry.getKey(), now.eventsPerSecond,
+                                              then.eventsPerSecond));
+            }
+            if (now.bytesPerEvent > then.bytesPerEvent * (1 + tolerance)
+                                    + BYTES_PER_EVENT_SLACK) {
+                regressions.add(String.format(Locale.ROOT, "%s: %.1f bytes/event, baseline "
+                                              + "%.1f", entry.getKey(), now.bytesPerEvent,
+                                              then.bytesPerEvent));
+            }
+            if (checkTiming && now.p99EventNanos > then.p99EventNanos * (1 + latencyTolerance)) {
+                regressions.add(String.format(Locale.ROOT, "%s: p99 %d ns/event, baseline %d",
+                                              entry.getKey(), now.p99EventNanos,
+                                              then.p99EventNanos));
+            }
+        }
+        return regressions;
+    }
+
+    /**
+     * Returns results as JSON
+     *
+     * @param       results     results, by scenario
+     * @return      the results as a JSON object
+     */
+    static String toJson(Map<String, Result> results) {
+        StringBuilder json = new StringBuilder("{\n");
+        int i = 0;
+        for (Map.Entry<String, Result> entry : results.entrySet()) {
+            Result result = entry.getValue();
+            json.append(String.format(Locale.ROOT, "  \"%s\": {\"events\": %d, "
+                                      + "\"eventsPerSecond\": %.0f, \"bytesPerEvent\": %.2f, "
+                                      + "\"p99EventNanos\": %d}", entry.getKey(),
+                                      result.events, result.eventsPerSecond,
+                                      result.bytesPerEvent, result.p99EventNanos));
+            json.append(++i < results.size() ? ",\n" : "\n");
+        }
+        return json.append("}\n").toString();
+    }
+
+    /**
+     * Reads results written by toJson
+     *
+     * @param       json        results as a JSON object
+     * @return      the results, by scenario
+     * @throws      IllegalArgumentException    if a scenario lacks a value
+     */
+    static Map<String, Result> fromJson(String json) {
+        Map<String, Result> results = new LinkedHashMap<>();
+        Matcher scenario = Pattern.compile("\"(\\w+)\"\\s*:\\s*\\{([^}]*)\\}").matcher(json);
+        while (scenario.find()) {
+            Map<String, String> values = new LinkedHashMap<>();
+            Matcher value = Pattern.compile("\"(\\w+)\"\\s*:\\s*([-+0-9.eE]+)")
+                                   .matcher(scenario.group(2));
+            while (value.find()) {
+                values.put(value.group(1), value.group(2));
+            }
+            try {
+                results.put(scenario.group(1),
+                            new Result(Long.parseLong(values.get("events")),
+                                       Double.parseDouble(values.get("eventsPerSecond")),
+                                       Double.parseDouble(values.get("bytesPerEvent")),
+                                       Long.parseLong(values.get("p99EventNanos"))));
+            } catch (NullPointerException e) {
+                throw new IllegalArgumentException("Incomplete scenario: " + scenario.group(1));
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Returns the number of bytes allocated so far by the current thread
+     *
+     * @return      the number of bytes allocated, or -1 if the JVM does not count them
+     */
+    private static long allocatedBytes() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean)bean)
+                   .getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+
+
+    /**
+     * A scenario of the benchmark, with the size of its synthetic data
+     */
+    private static class Case {
+        /** Name of the scenario */
+        private String      name;
+        /** Number of customers in the data */
+        private int         customers;
+        /** Number of techs in the data, of which a quarter work each shift */
+        private int         techs;
+        /** Initial customers in queue */
+        private int         custCount;
+        /** Number of calls to simulate */
+        private int         callCount;
+        /** Mean time between incoming calls, in milliseconds */
+        private double      meanArrival;
+        /** Mean call length, in milliseconds */
+        private double      meanLength;
+
+
+        /**
+         * Creates a scenario
+         *
+         * @param       name            name of the scenario
+         * @param       customers       number of customers in the data
+         * @param       techs           number of techs in the data
+         * @param       custCount       initial customers in queue
+         * @param       callCount       number of calls to simulate
+         * @param       meanArrival     mean time between incoming calls, in milliseconds
+         * @param       meanLength      mean call length, in milliseconds
+         */
+        private Case(String name, int customers, int techs, int custCount, int callCount,
+                     double meanArrival, double meanLength) {
+            this.name = name;
+            this.customers = customers;
+            this.techs = techs;
+            this.custCount = custCount;
+            this.callCount = callCount;
+            this.meanArrival = meanArrival;
+            this.meanLength = meanLength;
+        }
+
+
+        /**
+         * Runs the scenario on its synthetic data. Throughput and allocation are the
+         * median and total over the measured runs, which do not time events; one more run
+         * times each event, for the 99th percentile.
+         *
+         * @param       warmups     runs before measuring
+         * @param       runs        measured runs
+         * @return      the result
+         * @throws      IOException if the data cannot be written or read
+         */
+        private Result measure(int warmups, int runs) throws IOException {
+            Simulation simulation = new Simulation(SyntheticData.create(customers, techs));
+            simulation.setSeed(SEED);
+            Scenario scenario = new Scenario(custCount, callCount, 1, 1, Day.MON, 1);
+            scenario.setArrivalTimes(Distributions.exponential(meanArrival));
+            scenario.setCallLengths(Distributions.logNormal(meanLength, meanLength / 2));
+
+            for (int i = 0; i < warmups; i++) {
+                scenario.runOn(simulation);
+            }
+
+            double[] rates = new double[runs];
+            long events = 0;
+            long startBytes = allocatedBytes();
+            for (int i = 0; i < runs; i++) {
+                long start = System.nanoTime();
+                RunStats stats = scenario.runOn(simulation);
+                long elapsed = System.nanoTime() - start;
+                events = stats.getEventCount();
+                rates[i] = events * 1e9 / elapsed;
+            }
+            long allocated = allocatedBytes() - startBytes;
+            Arrays.sort(rates);
+
+            simulation.setTimingEvents(true);
+            RunStats timed = scenario.runOn(simulation);
+            simulation.setTimingEvents(false);
+
+            return new Result(events, rates[runs / 2],
+                              startBytes < 0 ? 0 : (double)allocated / (events * runs),
+                              timed.getEventLatencies().getValueAtPercentile(99));
+        }
+    }
+
+    /**
+     * The result of one scenario
+     */
+    static class Result {
+        /** Number of events in one run */
+        private long        events;
+        /** Simulated events processed per wall-clock second */
+        private double      eventsPerSecond;
+        /** Bytes allocated per event */
+        private double      bytesPerEvent;
+        /** 99th percentile of the time taken by one event, in nanoseconds */
+        private long        p99EventNanos;
+
+
+        /**
+         * Creates a result
+         *
+         * @param       events              number of events in one run
+         * @param       eventsPerSecond     simulated events processed per second
+         * @param       bytesPerEvent       bytes allocated per event
+         * @param       p99EventNanos       99th percentile of the time taken by one event,
+         *                                  in nanoseconds
+         */
+        Result(long events, double eventsPerSecond, double bytesPerEvent, long p99EventNanos) {
+            this.events = events;
+            this.eventsPerSecond = eventsPerSecond;
+            this.bytesPerEvent = bytesPerEvent;
+            this.p99EventNanos = p99EventNanos;
+        }
+
+
+        /**
+         * Returns a one-line summary of the result
+         *
+         * @return      a summary of the result
+         */
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "%d events, %.0f events/sec, %.2f bytes/event, "
+                                 + "p99 %d ns/event", events, eventsPerSecond, bytesPerEvent,
+                                 p99EventNanos);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.stevencl.callcentersim;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+/**
+ * Writes customer and tech files of any size, in the same format as customers.csv and
+ * techs.csv, for benchmarks which need more data than the files shipped with the simulator.
+ * Techs are given the four schedules in turn, so a quarter of them work any one shift.
+ *
+ * @author      Steven Leighton
+ * @version     2018-12-06
+ */
+public class SyntheticData {
+    /** Tech schedules, given in turn */
+    private static final String[]   SCHEDULES = {"SMTWT1", "SMTWT2", "TWTFS1", "TWTFS2"};
+
+
+    /**
+     * Writes customer and tech files of the given sizes to a new temporary directory, and
+     * loads them. The files are deleted when the JVM exits.
+     *
+     * @param       customers       number of customers
+     * @param       techs           number of techs
+     * @return      the loaded data
+     * @throws      IOException     if a file cannot be written or read
+     */
+    public static SimulationData create(int customers, int techs) throws IOException {
+        File dir = Files.createTempDirectory("callcentersim").toFile();
+        dir.deleteOnExit();
+        File custFile = new File(dir, "customers.csv");
+        File techFile = new File(dir, "techs.csv");
+        custFile.deleteOnExit();
+        techFile.deleteOnExit();
+        writeCustomers(custFile, customers);
+        writeTechs(techFile, techs);
+        return new SimulationData(custFile.getPath(), techFile.getPath(), false, 0);
+    }
+
+    /**
+     * Writes a customer file with the given number of customers
+     *
+     * @param       file            file to be written
+     * @param       customers       number of customers
+     * @throws      IOException     if the file cannot be written
+     */
+    public static void writeCustomers(File file, int customers) throws IOException {
+        try (BufferedWriter out = Files.newBufferedWriter(file.toPath(),
+                                                          StandardCharsets.UTF_8)) {
+            out.write("id,first_name,last_name,email,phone\n");
+            for (int i = 1; i <= customers; i++) {
+                out.write(String.format("%d,First%d,Last%d,customer%d@example.com,"
+                                        + "555-%03d-%04d\n", i, i, i, i, i / 10000 % 1000,
+                                        i % 10000));
+            }
+        }
+    }
+
+    /**
+     * Writes a tech file with the given number of techs
+     *
+     * @param       file            file to be written
+     * @param       techs           number of techs
+     * @throws      IOException     if the file cannot be written
+     */
+    public static void writeTechs(File file, int techs) throws IOException {
+        try (BufferedWriter out = Files.newBufferedWriter(file.toPath(),
+                                                          StandardCharsets.UTF_8)) {
+            out.write("id,first_name,last_name,username,schedule\n");
+            for (int i = 1; i <= techs; i++) {
+                out.write(String.format("%d,First%d,Last%d,tech%d,%s\n", i, i, i, i,
+                                        SCHEDULES[(i - 1) % SCHEDULES.length]));
+            }
+        }
+    }
+}
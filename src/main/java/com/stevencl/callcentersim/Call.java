@@ -10,12 +10,26 @@ import java.util.TimerTask;
  * @version     2018-12-06
  */
 public class Call {
-    /** The customer assigned to this call */
+    /** Source of the customer assigned to this call, or null if given directly */
+    private CustomerSource  customers;
+    /** The customer assigned to this call, or null until first looked up */
     private Customer    customer;
     /** The support tech assigned to this call */
     private Tech        tech;
     /** Call length, in milliseconds */
     private int         length;
+    /** Handle of the customer assigned to this call */
+    private int         customerHandle;
+    /** Handle of the support tech assigned to this call */
+    private int         techHandle;
+    /** Slot in the open call table, or -1 if not open */
+    private int         slot;
+    /** Simulated time the customer joined the queue, in milliseconds */
+    private long        queuedAt;
+    /** Simulated time the call started, in milliseconds */
+    private long        startedAt;
+    /** Simulated time the call ended, in milliseconds, or -1 if still open */
+    private long        endedAt;
     
     
     /**
@@ -26,9 +40,30 @@ public class Call {
      * @param       length          call length, in milliseconds
      */
     public Call(Customer customer, Tech tech, int length) {
+        this(null, tech, IdIndex.NO_HANDLE, IdIndex.NO_HANDLE, length);
         this.customer = customer;
+    }
+    
+    /**
+     * Creates a Call with the given customer handle, tech, tech handle, and call length.
+     * The customer is only looked up in the source when first needed, so running a
+     * simulation does not read every customer.
+     * 
+     * @param       customers       source of the customer assigned to this call
+     * @param       tech            the tech assigned to this call
+     * @param       customerHandle  handle of the customer assigned to this call
+     * @param       techHandle      handle of the tech assigned to this call
+     * @param       length          call length, in milliseconds
+     */
+    public Call(CustomerSource customers, Tech tech, int customerHandle, int techHandle, 
+                int length) {
+        this.customers = customers;
         this.tech = tech;
+        this.customerHandle = customerHandle;
+        this.techHandle = techHandle;
         this.length = length;
+        this.slot = -1;
+        this.endedAt = -1;
     }
     
     
@@ -38,6 +73,9 @@ public class Call {
      * @return      customer
      */
     public Customer getCustomer() {
+        if (customer == null && customers != null) {
+            customer = customers.get(customerHandle);
+        }
         return customer;
     }
     
@@ -50,6 +88,24 @@ public class Call {
         return tech;
     }
     
+    /**
+     * Returns the handle of the customer, or IdIndex.NO_HANDLE if not known
+     * 
+     * @return      the handle of the customer
+     */
+    public int getCustomerHandle() {
+        return customerHandle;
+    }
+    
+    /**
+     * Returns the handle of the support tech, or IdIndex.NO_HANDLE if not known
+     * 
+     * @return      the handle of the support tech
+     */
+    public int getTechHandle() {
+        return techHandle;
+    }
+    
     /**
      * Returns call length, in milliseconds
      * 
@@ -59,11 +115,85 @@ public class Call {
         return length;
     }
     
+    /**
+     * Returns the simulated time the customer joined the queue
+     * 
+     * @return      the time the customer was queued, in milliseconds
+     */
+    public long getQueuedAt() {
+        return queuedAt;
+    }
+    
+    /**
+     * Returns the simulated time the call started
+     * 
+     * @return      the time the call started, in milliseconds
+     */
+    public long getStartedAt() {
+        return startedAt;
+    }
+    
+    /**
+     * Returns the simulated time the call ended
+     * 
+     * @return      the time the call ended, in milliseconds, or -1 if still open
+     */
+    public long getEndedAt() {
+        return endedAt;
+    }
+    
+    /**
+     * Returns how long the customer waited in queue before the call started
+     * 
+     * @return      the wait, in milliseconds
+     */
+    public long getWait() {
+        return startedAt - queuedAt;
+    }
+    
+    /**
+     * Sets the simulated times the customer joined the queue and the call started
+     * 
+     * @param       queuedAt        the time the customer was queued, in milliseconds
+     * @param       startedAt       the time the call started, in milliseconds
+     */
+    void setStarted(long queuedAt, long startedAt) {
+        this.queuedAt = queuedAt;
+        this.startedAt = startedAt;
+    }
+    
+    /**
+     * Sets the simulated time the call ended
+     * 
+     * @param       endedAt         the time the call ended, in milliseconds
+     */
+    void setEnded(long endedAt) {
+        this.endedAt = endedAt;
+    }
+    
+    /**
+     * Returns the slot of this call in its open call table
+     * 
+     * @return      the slot of this call, or -1 if not open
+     */
+    int getSlot() {
+        return slot;
+    }
+    
+    /**
+     * Sets the slot of this call in its open call table
+     * 
+     * @param       slot        the slot of this call, or -1 if not open
+     */
+    void setSlot(int slot) {
+        this.slot = slot;
+    }
+    
     /**
      * Returns a string representation of this Call
      */
     @Override
     public String toString() {
-        return "Cust: " + customer.toString() + "\nTech: " + tech.toString();
+        return "Cust: " + getCustomer().toString() + "\nTech: " + tech.toString();
     }
 }
@@ -0,0 +1,167 @@
+package com.stevencl.callcentersim;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * A table of open calls in which each call remembers its own slot. Calls are kept packed
+ * at the front of the table, and removing a call moves the last call into its slot, so
+ * both adding and removing take constant time.
+ *
+ * @author      Steven Leighton
+ * @version     2018-12-06
+ */
+public class CallTable implements Iterable<Call> {
+    /** Initial capacity of the table */
+    private static final int INITIAL_SIZE = 16;
+
+    /** Open calls, packed at the front of the array */
+    private Call[]      calls;
+    /** Number of open calls */
+    private int         size;
+
+
+    /**
+     * Creates an empty CallTable
+     */
+    public CallTable() {
+        calls = new Call[INITIAL_SIZE];
+        size = 0;
+    }
+
+
+    /**
+     * Returns the number of open calls
+     *
+     * @return      the number of open calls
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Checks whether or not the table is empty
+     *
+     * @return      true if there are no open calls, otherwise false
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns the call in the given slot
+     *
+     * @param       slot        slot to be read, from 0 to size() - 1
+     * @return      the call in the given slot
+     * @throws      IndexOutOfBoundsException   if the slot is not in use
+     */
+    public Call get(int slot) {
+        if (slot < 0 || slot >= size) {
+            throw new IndexOutOfBoundsException("Invalid slot: " + slot);
+        }
+        return calls[slot];
+    }
+
+    /**
+     * Checks whether or not the given call is in the table
+     *
+     * @param       call        the call to be checked
+     * @return      true if the call is in the table, otherwise false
+     */
+    public boolean contains(Call call) {
+        int slot = call.getSlot();
+        return slot >= 0 && slot < size && calls[slot] == call;
+    }
+
+    /**
+     * Returns an iterator over the open calls, in slot order. The calls are not copied, so
+     * the table must not be changed while iterating.
+     *
+     * @return      an iterator over the open calls
+     */
+    @Override
+    public Iterator<Call> iterator() {
+        return new CallIterator();
+    }
+
+    /**
+     * Returns a copy of the open calls, in slot order
+     *
+     * @return      a copy of the open calls
+     */
+    public Call[] toArray() {
+        return Arrays.copyOf(calls, size);
+    }
+
+
+    /**
+     * Adds the given call to the next free slot
+     *
+     * @param       call        the call to be added
+     * @throws      IllegalArgumentException    if the call is already in the table
+     */
+    public void add(Call call) {
+        if (contains(call)) {
+            throw new IllegalArgumentException("The call is already open");
+        }
+        if (size == calls.length) {
+            calls = Arrays.copyOf(calls, 2 * calls.length);
+        }
+        call.setSlot(size);
+        calls[size] = call;
+        size++;
+    }
+
+    /**
+     * Removes the given call, moving the call in the last slot into its place
+     *
+     * @param       call        the call to be removed
+     * @return      true if the call was removed, false if it was not in the table
+     */
+    public boolean remove(Call call) {
+        if (!contains(call)) {
+            return false;
+        }
+
+        int slot = call.getSlot();
+        size--;
+        Call last = calls[size];
+        calls[slot] = last;
+        last.setSlot(slot);
+        calls[size] = null;
+        call.setSlot(-1);
+        return true;
+    }
+
+    /**
+     * Removes all calls from the table
+     */
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            calls[i].setSlot(-1);
+            calls[i] = null;
+        }
+        size = 0;
+    }
+
+
+    /**
+     * Iterates over the open calls in slot order
+     */
+    private class CallIterator implements Iterator<Call> {
+        /** Next slot to be returned */
+        private int     next = 0;
+
+        public boolean hasNext() {
+            return next < size;
+        }
+
+        public Call next() {
+            if (next >= size) {
+                throw new NoSuchElementException("No more open calls");
+            }
+            return calls[next++];
+        }
+    }
+}
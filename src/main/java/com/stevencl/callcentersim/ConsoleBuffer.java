@@ -0,0 +1,110 @@
+package com.stevencl.callcentersim;
+
+/**
+ * A fixed-capacity ring buffer of console lines. Once full, each new line replaces the
+ * oldest one, so the buffer never holds more than its capacity however many lines are
+ * added. Every line added is given a sequence number, which stays the same while the line
+ * is in the buffer.
+ *
+ * @author      Steven Leighton
+ * @version     2018-12-06
+ */
+public class ConsoleBuffer {
+    /** Lines, in a circular array */
+    private String[]        lines;
+    /** Sequence number of the oldest line */
+    private long            first;
+    /** Sequence number of the next line to be added */
+    private long            next;
+
+
+    /**
+     * Creates an empty ConsoleBuffer
+     *
+     * @param       capacity    maximum number of lines kept
+     * @throws      IllegalArgumentException    if the capacity is not positive
+     */
+    public ConsoleBuffer(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        this.lines = new String[capacity];
+        this.first = 0;
+        this.next = 0;
+    }
+
+
+    /**
+     * Returns the maximum number of lines kept
+     *
+     * @return      the capacity of the buffer
+     */
+    public int capacity() {
+        return lines.length;
+    }
+
+    /**
+     * Returns the number of lines in the buffer
+     *
+     * @return      the number of lines in the buffer
+     */
+    public int size() {
+        return (int)(next - first);
+    }
+
+    /**
+     * Returns the sequence number of the oldest line in the buffer
+     *
+     * @return      the sequence number of the oldest line
+     */
+    public long getFirst() {
+        return first;
+    }
+
+    /**
+     * Returns the sequence number the next line will be given
+     *
+     * @return      the sequence number of the next line
+     */
+    public long getNext() {
+        return next;
+    }
+
+    /**
+     * Returns the line with the given sequence number
+     *
+     * @param       sequence    sequence number of the line
+     * @return      the line
+     * @throws      IndexOutOfBoundsException   if the line is not in the buffer
+     */
+    public String get(long sequence) {
+        if (sequence < first || sequence >= next) {
+            throw new IndexOutOfBoundsException("Line not in buffer: " + sequence);
+        }
+        return lines[(int)(sequence % lines.length)];
+    }
+
+    /**
+     * Adds a line, replacing the oldest line if the buffer is full
+     *
+     * @param       line        the line to be added
+     * @return      the sequence number of the line
+     */
+    public long add(String line) {
+        if (size() == lines.length) {
+            first++;
+        }
+        lines[(int)(next % lines.length)] = line;
+        return next++;
+    }
+
+    /**
+     * Removes every line. Sequence numbers carry on from where they were.
+     */
+    public void clear() {
+        for (int i = 0; i < lines.length; i++) {
+            lines[i] = null;
+        }
+        first = next;
+    }
+}
@@ -4,6 +4,8 @@ import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.awt.event.AdjustmentEvent;
 import java.awt.event.AdjustmentListener;
+import javax.swing.event.ChangeEvent;
+import javax.swing.event.ChangeListener;
 
 /**
  * Initializes Simulation using user input provided by the View
@@ -12,6 +14,9 @@ import java.awt.event.AdjustmentListener;
  * @version     2018-12-06
  */
 public class Controller implements Observer {
+    /** Maximum number of status updates shown per second */
+    private static final int STATUS_RATE = 30;
+    
     /** The active simulation */
     private Simulation      simulation;
     /** The view for the simulation */
@@ -26,9 +31,12 @@ public class Controller implements Observer {
      */
     public Controller(Simulation simulation, View view) {
         this.simulation = simulation;
-        this.simulation.addObserver(this);
+        this.simulation.addObserver(new StatusPublisher(this, STATUS_RATE));
         this.view = view;
         this.view.addStartListener(new StartEndListener());
+        this.view.addSettingsListener(new SettingsListener());
+        this.view.addDisplayText(simulation.getLoadReport());
+        updateEstimate();
     }
     
     
@@ -56,6 +64,23 @@ public class Controller implements Observer {
         simulation.start(custCount, callCount, callInterval, callLength, day, shift);
     }
     
+    /**
+     * Shows the analytic estimate for the options selected in View
+     */
+    private void updateEstimate() {
+        Scenario scenario = new Scenario(view.getCustCount(), view.getCallCount(), 
+                                         view.getCallInterval(), view.getCallLength(), 
+                                         view.getDay(), view.getShift());
+        scenario.setArrivalTimes(simulation.getArrivalTimes());
+        scenario.setCallLengths(simulation.getCallLengths());
+        scenario.setTechCount(simulation.getTechCount());
+        try {
+            view.setEstimateText(ErlangC.forScenario(scenario, simulation.getData()).toString());
+        } catch (IllegalArgumentException e) {
+            view.setEstimateText("Estimate: " + e.getMessage());
+        }
+    }
+    
     /**
      * Ends the active Simulation, if one exists
      */
@@ -95,6 +120,15 @@ public class Controller implements Observer {
     }
     
     
+    /**
+     * Listener for changes to the simulation options
+     */
+    public class SettingsListener implements ChangeListener {
+        public void stateChanged(ChangeEvent event) {
+            updateEstimate();
+        }
+    }
+    
     /**
      * Listener for start/end button action
      */
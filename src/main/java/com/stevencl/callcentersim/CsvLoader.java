@@ -0,0 +1,388 @@
+package com.stevencl.callcentersim;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Streams the rows of a comma-separated file to a handler, parsing fields straight from the
+ * file bytes. Small files are read into memory in one go and large files are memory-mapped
+ * one chunk at a time. Fields are located by scanning for separators, without regular
+ * expressions or per-field strings, and are only decoded when the handler asks for them.
+ *
+ * <p>An optional first line holding only a row count, as written by older versions of the
+ * data files, is ignored, and the line after it is skipped as the column header. Quoted
+ * fields are not supported.
+ *
+ * @author      Steven Leighton
+ * @version     2018-12-06
+ */
+public class CsvLoader {
+    /** Default size of a memory-mapped chunk, in bytes; smaller files are read in full */
+    private static final int    DEFAULT_CHUNK_SIZE = 64 * 1024 * 1024;
+    /** Initial number of fields per row */
+    private static final int    INITIAL_FIELDS = 8;
+
+    /** File to be loaded */
+    private String      fileName;
+    /** Size of a memory-mapped chunk, in bytes */
+    private int         chunkSize;
+    /** Number of data rows passed to the handler by the last load */
+    private long        rowCount;
+    /** Duration of the last load, in nanoseconds */
+    private long        elapsedNanos;
+
+
+    /**
+     * Creates a CsvLoader for the given file
+     *
+     * @param       fileName        path of the file to be loaded
+     */
+    public CsvLoader(String fileName) {
+        this(fileName, DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Creates a CsvLoader for the given file which maps the file in chunks of the given
+     * size
+     *
+     * @param       fileName        path of the file to be loaded
+     * @param       chunkSize       size of a memory-mapped chunk, in bytes
+     */
+    CsvLoader(String fileName, int chunkSize) {
+        this.fileName = fileName;
+        this.chunkSize = chunkSize;
+    }
+
+
+    /**
+     * Returns the number of data rows passed to the handler by the last load
+     *
+     * @return      the number of data rows read by the last load
+     */
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Returns the throughput of the last load
+     *
+     * @return      rows loaded per second
+     */
+    public double getRowsPerSecond() {
+        return elapsedNanos == 0 ? 0 : rowCount * 1e9 / elapsedNanos;
+    }
+
+    /**
+     * Passes every data row of the file to the given handler, in file order
+     *
+     * @param       handler         receives each data row
+     * @return      the number of data rows
+     * @throws      IOException     if the file cannot be read
+     */
+    public long load(RowHandler handler) throws IOException {
+        long startNanos = System.nanoTime();
+        rowCount = 0;
+
+        try (FileChannel channel = FileChannel.open(Paths.get(fileName),
+                                                    StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            Row row = new Row();
+            int skipLines = -1; // not yet known whether the file starts with a row count
+            long position = 0;
+
+            while (position < fileSize) {
+                ByteBuffer buffer = read(channel, position, fileSize);
+                boolean isLastChunk = position + buffer.limit() == fileSize;
+                row.buffer = buffer;
+
+                int lineStart = 0;
+                while (lineStart < buffer.limit()) {
+                    int lineEnd = row.split(lineStart, isLastChunk);
+                    if (lineEnd < 0) {
+                        break; // the line continues in the next chunk
+                    }
+
+                    if (row.fieldCount > 0) {
+                        if (skipLines < 0) {
+                            skipLines = row.isRowCount() ? 1 : 0;
+                        } else if (skipLines > 0) {
+                            skipLines--;
+                        } else {
+                            row.offset = position + lineStart;
+                            handler.row(row);
+                            rowCount++;
+                        }
+                    }
+                    lineStart = lineEnd;
+                }
+
+                if (lineStart == 0 && buffer.limit() > 0) {
+                    throw new IOException("Line longer than " + chunkSize + " bytes in "
+                                          + fileName);
+                }
+                position += lineStart;
+            }
+        }
+
+        elapsedNanos = System.nanoTime() - startNanos;
+        return rowCount;
+    }
+
+
+    /**
+     * Reads the part of the file starting at the given position, reading small files into
+     * memory and mapping large ones
+     *
+     * @param       channel         channel for the file
+     * @param       position        first byte to be read
+     * @param       fileSize        size of the file
+     * @return      a buffer holding the bytes from the given position
+     * @throws      IOException     if the file cannot be read
+     */
+    private ByteBuffer read(FileChannel channel, long position, long fileSize)
+            throws IOException {
+        int length = (int)Math.min(chunkSize, fileSize - position);
+        if (fileSize > chunkSize) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of " + fileName);
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+
+    /**
+     * Receives rows from a CsvLoader
+     */
+    public interface RowHandler {
+        /**
+         * Handles one data row. The row is only valid until this method returns.
+         *
+         * @param       row             the row to be handled
+         */
+        public void row(Row row);
+    }
+
+    /**
+     * A row of a comma-separated file, with its fields located in the underlying bytes
+     */
+    public static class Row {
+        /** Bytes holding the row */
+        private ByteBuffer  buffer;
+        /** Position of the first byte of each field */
+        private int[]       starts = new int[INITIAL_FIELDS];
+        /** Position after the last byte of each field */
+        private int[]       ends = new int[INITIAL_FIELDS];
+        /** Number of fields in the row */
+        private int         fieldCount;
+        /** Position of the row in the file */
+        private long        offset;
+        /** Scratch space for decoding fields */
+        private byte[]      scratch = new byte[64];
+
+        /**
+         * Returns the number of fields in the row
+         *
+         * @return      the number of fields in the row
+         */
+        public int getFieldCount() {
+            return fieldCount;
+        }
+
+        /**
+         * Returns the position of the first byte of the row in the file
+         *
+         * @return      the position of the row in the file
+         */
+        public long getOffset() {
+            return offset;
+        }
+
+        /**
+         * Returns the length of the given field
+         *
+         * @param       field       index of the field
+         * @return      the length of the field, in bytes
+         */
+        public int getLength(int field) {
+            checkField(field);
+            return ends[field] - starts[field];
+        }
+
+        /**
+         * Returns the given field as a string
+         *
+         * @param       field       index of the field
+         * @return      the field, decoded as UTF-8
+         */
+        public String getString(int field) {
+            int length = getBytes(field, scratch(getLength(field)), 0);
+            return new String(scratch, 0, length, StandardCharsets.UTF_8);
+        }
+
+        /**
+         * Returns the given field as an integer, parsed directly from its digits
+         *
+         * @param       field       index of the field
+         * @return      the value of the field
+         * @throws      NumberFormatException   if the field is not a valid integer
+         */
+        public int getInt(int field) {
+            checkField(field);
+            int index = starts[field];
+            int end = ends[field];
+            boolean negative = index < end && buffer.get(index) == '-';
+            if (negative) {
+                index++;
+            }
+            if (index == end) {
+                throw new NumberFormatException("Empty number in field " + field);
+            }
+
+            long value = 0;
+            while (index < end) {
+                int digit = buffer.get(index) - '0';
+                if (digit < 0 || digit > 9) {
+                    throw new NumberFormatException("Invalid number in field " + field);
+                }
+                value = value * 10 + digit;
+                if (value > Integer.MAX_VALUE + 1L) {
+                    throw new NumberFormatException("Number too large in field " + field);
+                }
+                index++;
+            }
+            value = negative ? -value : value;
+            if (value > Integer.MAX_VALUE) {
+                throw new NumberFormatException("Number too large in field " + field);
+            }
+            return (int)value;
+        }
+
+        /**
+         * Copies the bytes of the given field into an array
+         *
+         * @param       field       index of the field
+         * @param       dest        array to copy into
+         * @param       destOffset  first index of the array to be written
+         * @return      the number of bytes copied
+         */
+        public int getBytes(int field, byte[] dest, int destOffset) {
+            int length = getLength(field);
+            int start = starts[field];
+            if (buffer.hasArray()) {
+                System.arraycopy(buffer.array(), buffer.arrayOffset() + start, dest, destOffset,
+                                 length);
+            } else {
+                for (int i = 0; i < length; i++) {
+                    dest[destOffset + i] = buffer.get(start + i);
+                }
+            }
+            return length;
+        }
+
+        /**
+         * Locates the fields of the line starting at the given position
+         *
+         * @param       lineStart   position of the first byte of the line
+         * @param       isLast      whether or not the buffer ends at the end of the file
+         * @return      the position after the end of the line, or -1 if the line does not
+         *              end in the buffer
+         */
+        private int split(int lineStart, boolean isLast) {
+            int limit = buffer.limit();
+            int index = lineStart;
+            fieldCount = 0;
+            int fieldStart = lineStart;
+            while (true) {
+                if (index == limit && !isLast) {
+                    return -1;
+                }
+                byte b = index < limit ? buffer.get(index) : (byte)'\n';
+                if (b == ',' || b == '\n') {
+                    int fieldEnd = index;
+                    if (b == '\n' && fieldEnd > fieldStart && buffer.get(fieldEnd - 1) == '\r') {
+                        fieldEnd--;
+                    }
+                    addField(fieldStart, fieldEnd);
+                    fieldStart = index + 1;
+                    if (b == '\n') {
+                        if (fieldCount == 1 && starts[0] == ends[0]) {
+                            fieldCount = 0; // blank line
+                        }
+                        return Math.min(index + 1, limit);
+                    }
+                }
+                index++;
+            }
+        }
+
+        /**
+         * Checks whether or not this row holds only a row count
+         *
+         * @return      true if this row is a single field of digits, otherwise false
+         */
+        private boolean isRowCount() {
+            if (fieldCount != 1 || starts[0] == ends[0]) {
+                return false;
+            }
+            for (int i = starts[0]; i < ends[0]; i++) {
+                byte b = buffer.get(i);
+                if (b < '0' || b > '9') {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Records the bounds of the next field
+         *
+         * @param       start       position of the first byte of the field
+         * @param       end         position after the last byte of the field
+         */
+        private void addField(int start, int end) {
+            if (fieldCount == starts.length) {
+                starts = Arrays.copyOf(starts, 2 * starts.length);
+                ends = Arrays.copyOf(ends, 2 * ends.length);
+            }
+            starts[fieldCount] = start;
+            ends[fieldCount] = end;
+            fieldCount++;
+        }
+
+        /**
+         * Returns the scratch array, grown to at least the given length
+         *
+         * @param       length      required length
+         * @return      the scratch array
+         */
+        private byte[] scratch(int length) {
+            if (scratch.length < length) {
+                scratch = new byte[Math.max(length, 2 * scratch.length)];
+            }
+            return scratch;
+        }
+
+        /**
+         * Throws an exception if the given field does not exist
+         *
+         * @param       field       index of the field
+         */
+        private void checkField(int field) {
+            if (field < 0 || field >= fieldCount) {
+                throw new IndexOutOfBoundsException("Row has no field " + field);
+            }
+        }
+    }
+}
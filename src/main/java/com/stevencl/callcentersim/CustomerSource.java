@@ -0,0 +1,32 @@
+package com.stevencl.callcentersim;
+
+/**
+ * A read-only source of customers, addressed by dense int handles
+ *
+ * @author      Steven Leighton
+ * @version     2018-12-06
+ */
+public interface CustomerSource {
+    /**
+     * Returns the number of customers
+     *
+     * @return      the number of customers
+     */
+    public int size();
+
+    /**
+     * Returns the id of the given customer
+     *
+     * @param       handle      index of the customer
+     * @return      the customer id
+     */
+    public int getId(int handle);
+
+    /**
+     * Returns the given customer
+     *
+     * @param       handle      index of the customer
+     * @return      the customer
+     */
+    public Customer get(int handle);
+}
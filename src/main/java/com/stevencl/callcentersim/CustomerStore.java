@@ -0,0 +1,155 @@
+package com.stevencl.callcentersim;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * A columnar store of customers. Ids are kept in an int array, and each text field is kept
+ * in a shared byte arena with an array of end offsets, so a customer costs a few array
+ * slots rather than six objects. Customer objects are only created, as views of a row, when
+ * something asks for one.
+ *
+ * @author      Steven Leighton
+ * @version     2018-12-06
+ */
+public class CustomerStore implements CustomerSource {
+    /** Number of text fields: first name, last name, email and phone */
+    private static final int    TEXT_FIELDS = 4;
+    /** Initial number of rows */
+    private static final int    INITIAL_SIZE = 1024;
+    /** Initial size of each text arena, in bytes */
+    private static final int    INITIAL_ARENA_SIZE = 16 * 1024;
+
+    /** Customer ids */
+    private int[]       ids;
+    /** Bytes of each text field, for all rows one after another */
+    private byte[][]    arenas;
+    /** End offset of each row's value in each text arena */
+    private int[][]     ends;
+    /** Number of bytes used in each text arena */
+    private int[]       arenaSizes;
+    /** Number of rows */
+    private int         size;
+
+
+    /**
+     * Creates an empty CustomerStore
+     */
+    public CustomerStore() {
+        ids = new int[INITIAL_SIZE];
+        arenas = new byte[TEXT_FIELDS][INITIAL_ARENA_SIZE];
+        ends = new int[TEXT_FIELDS][INITIAL_SIZE];
+        arenaSizes = new int[TEXT_FIELDS];
+        size = 0;
+    }
+
+
+    /**
+     * Returns the number of customers
+     *
+     * @return      the number of customers
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the id of the given customer
+     *
+     * @param       handle      index of the customer
+     * @return      the customer id
+     */
+    public int getId(int handle) {
+        checkHandle(handle);
+        return ids[handle];
+    }
+
+    /**
+     * Creates a Customer view of the given row
+     *
+     * @param       handle      index of the customer
+     * @return      the customer
+     */
+    public Customer get(int handle) {
+        checkHandle(handle);
+        return new Customer(Integer.toString(ids[handle]), text(0, handle), text(1, handle),
+                            text(2, handle), text(3, handle));
+    }
+
+
+    /**
+     * Appends a customer row of the form id, first name, last name, email, phone
+     *
+     * @param       row         the row to be added
+     * @return      the handle of the new customer
+     * @throws      IndexOutOfBoundsException   if the row has fewer than five fields
+     */
+    public int add(CsvLoader.Row row) {
+        if (size == ids.length) {
+            int capacity = Math.max(INITIAL_SIZE, 2 * size);
+            ids = Arrays.copyOf(ids, capacity);
+            for (int field = 0; field < TEXT_FIELDS; field++) {
+                ends[field] = Arrays.copyOf(ends[field], capacity);
+            }
+        }
+
+        ids[size] = row.getInt(0);
+        for (int field = 0; field < TEXT_FIELDS; field++) {
+            int length = row.getLength(field + 1);
+            ensureArena(field, length);
+            arenaSizes[field] += row.getBytes(field + 1, arenas[field], arenaSizes[field]);
+            ends[field][size] = arenaSizes[field];
+        }
+        return size++;
+    }
+
+    /**
+     * Shrinks every array to the number of rows actually stored
+     */
+    public void trimToSize() {
+        ids = Arrays.copyOf(ids, size);
+        for (int field = 0; field < TEXT_FIELDS; field++) {
+            ends[field] = Arrays.copyOf(ends[field], size);
+            arenas[field] = Arrays.copyOf(arenas[field], arenaSizes[field]);
+        }
+    }
+
+
+    /**
+     * Decodes one text field of one row
+     *
+     * @param       field       index of the text field
+     * @param       handle      index of the customer
+     * @return      the decoded text
+     */
+    private String text(int field, int handle) {
+        int start = handle == 0 ? 0 : ends[field][handle - 1];
+        return new String(arenas[field], start, ends[field][handle] - start,
+                          StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Grows a text arena so that it has room for the given number of bytes
+     *
+     * @param       field       index of the text field
+     * @param       length      number of bytes to be appended
+     */
+    private void ensureArena(int field, int length) {
+        int required = arenaSizes[field] + length;
+        if (required > arenas[field].length) {
+            int capacity = Math.max(required, 2 * arenas[field].length);
+            arenas[field] = Arrays.copyOf(arenas[field], capacity);
+        }
+    }
+
+    /**
+     * Throws an exception if the given handle is not a stored row
+     *
+     * @param       handle      index of the customer
+     */
+    private void checkHandle(int handle) {
+        if (handle < 0 || handle >= size) {
+            throw new IndexOutOfBoundsException("Invalid customer handle: " + handle);
+        }
+    }
+}
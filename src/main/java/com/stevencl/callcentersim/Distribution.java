@@ -0,0 +1,32 @@
+package com.stevencl.callcentersim;
+
+/**
+ * A probability distribution of non-negative durations, such as the time between incoming
+ * calls or the length of a call, in milliseconds
+ *
+ * @author      Steven Leighton
+ * @version     2018-12-06
+ */
+public interface Distribution {
+    /**
+     * Draws a value from this distribution
+     *
+     * @param       random      the stream to draw from
+     * @return      a random value, in milliseconds
+     */
+    public double sample(RandomStream random);
+
+    /**
+     * Returns the mean of this distribution
+     *
+     * @return      the mean, in milliseconds
+     */
+    public double getMean();
+
+    /**
+     * Returns the variance of this distribution
+     *
+     * @return      the variance, in milliseconds squared
+     */
+    public double getVariance();
+}
@@ -0,0 +1,419 @@
+package com.stevencl.callcentersim;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Creates the distributions used for arrivals and call lengths. Poisson arrivals are
+ * modelled by exponential times between calls.
+ *
+ * @author      Steven Leighton
+ * @version     2018-12-06
+ */
+public final class Distributions {
+
+    /**
+     * Prevents instantiation
+     */
+    private Distributions() {
+    }
+
+
+    /**
+     * Returns the default distribution of times between incoming calls, which are exactly 
+     * one interval apart
+     *
+     * @param       interval    interval between incoming calls, in seconds
+     * @return      the default distribution of times between incoming calls
+     */
+    public static Distribution defaultArrivalTimes(int interval) {
+        return constant(interval * 1000.0);
+    }
+
+    /**
+     * Returns the default distribution of call lengths, which is uniform between 100
+     * milliseconds and twice the average call length
+     *
+     * @param       length      average call length, in seconds
+     * @return      the default distribution of call lengths
+     */
+    public static Distribution defaultCallLengths(int length) {
+        return uniform(100, length * 2000.0);
+    }
+
+    /**
+     * Returns a distribution which always gives the same value
+     *
+     * @param       value       the value, in milliseconds
+     * @return      a constant distribution
+     */
+    public static Distribution constant(double value) {
+        checkNotNegative(value);
+        return new Constant(value);
+    }
+
+    /**
+     * Returns a uniform distribution over a range
+     *
+     * @param       min         minimum value, inclusive, in milliseconds
+     * @param       max         maximum value, exclusive, in milliseconds
+     * @return      a uniform distribution
+     */
+    public static Distribution uniform(double min, double max) {
+        checkNotNegative(min);
+        if (max < min) {
+            throw new IllegalArgumentException("Maximum must not be less than minimum");
+        }
+        return new Uniform(min, max);
+    }
+
+    /**
+     * Returns an exponential distribution, which gives Poisson arrivals when used for the
+     * time between calls
+     *
+     * @param       mean        mean value, in milliseconds
+     * @return      an exponential distribution
+     */
+    public static Distribution exponential(double mean) {
+        checkPositive(mean);
+        return new Exponential(mean);
+    }
+
+    /**
+     * Returns a lognormal distribution with the given mean and standard deviation
+     *
+     * @param       mean        mean value, in milliseconds
+     * @param       stdDev      standard deviation, in milliseconds
+     * @return      a lognormal distribution
+     */
+    public static Distribution logNormal(double mean, double stdDev) {
+        checkPositive(mean);
+        checkPositive(stdDev);
+        return new LogNormal(mean, stdDev);
+    }
+
+    /**
+     * Returns a gamma distribution with the given mean and standard deviation
+     *
+     * @param       mean        mean value, in milliseconds
+     * @param       stdDev      standard deviation, in milliseconds
+     * @return      a gamma distribution
+     */
+    public static Distribution gamma(double mean, double stdDev) {
+        checkPositive(mean);
+        checkPositive(stdDev);
+        return new Gamma(mean, stdDev);
+    }
+
+    /**
+     * Returns an empirical distribution which draws uniformly from observed values
+     *
+     * @param       values      observed values, in milliseconds
+     * @return      an empirical distribution
+     */
+    public static Distribution empirical(double[] values) {
+        if (values.length == 0) {
+            throw new IllegalArgumentException("At least one value is required");
+        }
+        for (double value : values) {
+            checkNotNegative(value);
+        }
+        return new Empirical(Arrays.copyOf(values, values.length));
+    }
+
+    /**
+     * Returns an empirical distribution of the values in a file, one value in milliseconds
+     * per line. Blank lines and lines which are not numbers, such as a header, are skipped.
+     *
+     * @param       fileName    path of the file
+     * @return      an empirical distribution
+     * @throws      IOException     if the file cannot be read
+     */
+    public static Distribution empirical(String fileName) throws IOException {
+        List<String> lines = Files.readAllLines(Paths.get(fileName), StandardCharsets.UTF_8);
+        double[] values = new double[lines.size()];
+        int count = 0;
+        for (String line : lines) {
+            try {
+                values[count] = Double.parseDouble(line.trim());
+                count++;
+            } catch (NumberFormatException e) {
+                // not a value
+            }
+        }
+        return empirical(Arrays.copyOf(values, count));
+    }
+
+    /**
+     * Returns a distribution by name, as used on the command line: "constant:MEAN",
+     * "uniform:MIN:MAX", "exponential:MEAN", "lognormal:MEAN:STDDEV", "gamma:MEAN:STDDEV"
+     * or "empirical:FILE", with values in milliseconds
+     *
+     * @param       spec        the distribution specification
+     * @return      the distribution
+     * @throws      IOException     if an empirical file cannot be read
+     * @throws      IllegalArgumentException    if the specification is not valid
+     */
+    public static Distribution parse(String spec) throws IOException {
+        String[] parts = spec.split(":", 2);
+        String name = parts[0].trim().toLowerCase();
+        if (name.equals("empirical") && parts.length == 2) {
+            return empirical(parts[1]);
+        }
+
+        String[] args = parts.length == 2 ? parts[1].split(":") : new String[0];
+        double[] values = new double[args.length];
+        for (int i = 0; i < args.length; i++) {
+            values[i] = Double.parseDouble(args[i].trim());
+        }
+        switch (name + "/" + values.length) {
+            case "constant/1":      return constant(values[0]);
+            case "uniform/2":       return uniform(values[0], values[1]);
+            case "exponential/1":   return exponential(values[0]);
+            case "lognormal/2":     return logNormal(values[0], values[1]);
+            case "gamma/2":         return gamma(values[0], values[1]);
+            default:                throw new IllegalArgumentException("Invalid distribution: "
+                                                                       + spec);
+        }
+    }
+
+    /**
+     * Throws an exception if a distribution of times between incoming calls has a mean
+     * below 1 millisecond. Times are rounded to whole milliseconds, so with a smaller mean
+     * calls could keep arriving without simulated time moving on; with a mean of at least
+     * 1 millisecond, the rounded times average at least half a millisecond.
+     *
+     * @param       arrivalTimes    distribution of times between incoming calls, or null
+     *                              for the default
+     * @return      the distribution
+     * @throws      IllegalArgumentException    if the mean is below 1 millisecond
+     */
+    public static Distribution checkArrivalTimes(Distribution arrivalTimes) {
+        if (arrivalTimes != null && !(arrivalTimes.getMean() >= 1)) {
+            throw new IllegalArgumentException("Time between incoming calls must average at "
+                                               + "least 1 millisecond");
+        }
+        return arrivalTimes;
+    }
+
+
+    /**
+     * Throws an exception if the given value is negative
+     *
+     * @param       value       value to be checked
+     */
+    private static void checkNotNegative(double value) {
+        if (!(value >= 0)) {
+            throw new IllegalArgumentException("Value must not be negative: " + value);
+        }
+    }
+
+    /**
+     * Throws an exception if the given value is not positive
+     *
+     * @param       value       value to be checked
+     */
+    private static void checkPositive(double value) {
+        if (!(value > 0)) {
+            throw new IllegalArgumentException("Value must be positive: " + value);
+        }
+    }
+
+
+    /**
+     * A distribution which always gives the same value
+     */
+    private static class Constant implements Distribution {
+        private double value;
+
+        public Constant(double value) {
+            this.value = value;
+        }
+
+        public double sample(RandomStream random) {
+            return value;
+        }
+
+        public double getMean() {
+            return value;
+        }
+
+        public double getVariance() {
+            return 0;
+        }
+    }
+
+    /**
+     * A uniform distribution over a range
+     */
+    private static class Uniform implements Distribution {
+        private double min;
+        private double max;
+
+        public Uniform(double min, double max) {
+            this.min = min;
+            this.max = max;
+        }
+
+        public double sample(RandomStream random) {
+            return min + (max - min) * random.nextDouble();
+        }
+
+        public double getMean() {
+            return (min + max) / 2;
+        }
+
+        public double getVariance() {
+            return (max - min) * (max - min) / 12;
+        }
+    }
+
+    /**
+     * An exponential distribution
+     */
+    private static class Exponential implements Distribution {
+        private double mean;
+
+        public Exponential(double mean) {
+            this.mean = mean;
+        }
+
+        public double sample(RandomStream random) {
+            return -mean * Math.log(1 - random.nextDouble());
+        }
+
+        public double getMean() {
+            return mean;
+        }
+
+        public double getVariance() {
+            return mean * mean;
+        }
+    }
+
+    /**
+     * A lognormal distribution, parameterized by its own mean and standard deviation
+     */
+    private static class LogNormal implements Distribution {
+        private double mean;
+        private double stdDev;
+        /** Mean of the underlying normal distribution */
+        private double mu;
+        /** Standard deviation of the underlying normal distribution */
+        private double sigma;
+
+        public LogNormal(double mean, double stdDev) {
+            this.mean = mean;
+            this.stdDev = stdDev;
+            double sigmaSquared = Math.log(1 + (stdDev * stdDev) / (mean * mean));
+            this.sigma = Math.sqrt(sigmaSquared);
+            this.mu = Math.log(mean) - sigmaSquared / 2;
+        }
+
+        public double sample(RandomStream random) {
+            return Math.exp(mu + sigma * random.nextGaussian());
+        }
+
+        public double getMean() {
+            return mean;
+        }
+
+        public double getVariance() {
+            return stdDev * stdDev;
+        }
+    }
+
+    /**
+     * A gamma distribution, sampled with the Marsaglia-Tsang method
+     */
+    private static class Gamma implements Distribution {
+        private double mean;
+        private double stdDev;
+        private double shape;
+        private double scale;
+
+        public Gamma(double mean, double stdDev) {
+            this.mean = mean;
+            this.stdDev = stdDev;
+            this.shape = (mean * mean) / (stdDev * stdDev);
+            this.scale = (stdDev * stdDev) / mean;
+        }
+
+        public double sample(RandomStream random) {
+            if (shape < 1) {
+                // boost the shape above 1, then scale back down
+                double u = random.nextDouble();
+                return sample(shape + 1, random) * Math.pow(u, 1 / shape) * scale;
+            }
+            return sample(shape, random) * scale;
+        }
+
+        /**
+         * Draws from a gamma distribution with the given shape, which must be at least 1,
+         * and scale 1
+         */
+        private double sample(double k, RandomStream random) {
+            double d = k - 1.0 / 3;
+            double c = 1 / Math.sqrt(9 * d);
+            while (true) {
+                double x = random.nextGaussian();
+                double v = 1 + c * x;
+                if (v <= 0) {
+                    continue;
+                }
+                v = v * v * v;
+                double u = random.nextDouble();
+                if (Math.log(u) < 0.5 * x * x + d - d * v + d * Math.log(v)) {
+                    return d * v;
+                }
+            }
+        }
+
+        public double getMean() {
+            return mean;
+        }
+
+        public double getVariance() {
+            return stdDev * stdDev;
+        }
+    }
+
+    /**
+     * A distribution which draws uniformly from observed values
+     */
+    private static class Empirical implements Distribution {
+        private double[] values;
+        private double mean;
+        private double variance;
+
+        public Empirical(double[] values) {
+            this.values = values;
+            double sum = 0;
+            for (double value : values) {
+                sum += value;
+            }
+            this.mean = sum / values.length;
+            double squares = 0;
+            for (double value : values) {
+                squares += (value - mean) * (value - mean);
+            }
+            this.variance = squares / values.length;
+        }
+
+        public double sample(RandomStream random) {
+            return values[random.nextInt(values.length)];
+        }
+
+        public double getMean() {
+            return mean;
+        }
+
+        public double getVariance() {
+            return variance;
+        }
+    }
+}
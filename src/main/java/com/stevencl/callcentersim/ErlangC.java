@@ -0,0 +1,203 @@
+package com.stevencl.callcentersim;
+
+import java.util.Locale;
+
+/**
+ * A closed-form estimate of the steady state of the call center, treated as a queue with
+ * one line and several techs. The Erlang C formula gives the chance that a caller waits and
+ * the mean wait when arrivals are Poisson and call lengths exponential; the Allen-Cunneen
+ * correction scales the wait by the variability of the actual times between calls and call
+ * lengths, so it also covers evenly spaced calls and other distributions.
+ *
+ * <p>A simulation only approaches this steady state over a long run, as it starts with a
+ * queue of customers and stops after a fixed number of calls.
+ *
+ * @author      Steven Leighton
+ * @version     2018-12-06
+ */
+public class ErlangC {
+    /** Default target for the service level: answered within 20 seconds */
+    public static final long    SERVICE_LEVEL_TARGET_MILLIS = 20000;
+
+    /** Number of techs */
+    private int         techs;
+    /** Mean time between incoming calls, in milliseconds */
+    private double      meanArrival;
+    /** Mean call length, in milliseconds */
+    private double      meanLength;
+    /** Offered load, in Erlangs */
+    private double      load;
+    /** Squared coefficient of variation of the times between calls */
+    private double      arrivalVariability;
+    /** Squared coefficient of variation of the call lengths */
+    private double      lengthVariability;
+    /** Chance that a caller waits, from the Erlang C formula */
+    private double      probabilityOfWait;
+
+
+    /**
+     * Creates an estimate for the given number of techs and distributions
+     *
+     * @param       techs           number of techs
+     * @param       arrivalTimes    distribution of times between incoming calls
+     * @param       callLengths     distribution of call lengths
+     * @throws      IllegalArgumentException    if there are no techs, or a mean is not
+     *                                          positive
+     */
+    public ErlangC(int techs, Distribution arrivalTimes, Distribution callLengths) {
+        if (techs <= 0) {
+            throw new IllegalArgumentException("At least one tech is required");
+        }
+        if (!(arrivalTimes.getMean() > 0) || !(callLengths.getMean() > 0)) {
+            throw new IllegalArgumentException("Means must be positive");
+        }
+        this.techs = techs;
+        this.meanArrival = arrivalTimes.getMean();
+        this.meanLength = callLengths.getMean();
+        this.load = meanLength / meanArrival;
+        this.arrivalVariability = arrivalTimes.getVariance() / (meanArrival * meanArrival);
+        this.lengthVariability = callLengths.getVariance() / (meanLength * meanLength);
+        this.probabilityOfWait = isStable() ? erlangC(techs, load) : 1;
+    }
+
+
+    /**
+     * Creates an estimate for the given scenario, with its tech count override or else the
+     * techs scheduled for its day and shift
+     *
+     * @param       scenario    the scenario
+     * @param       data        data the scenario runs on
+     * @return      the estimate
+     * @throws      IllegalArgumentException    if no techs are working
+     */
+    public static ErlangC forScenario(Scenario scenario, SimulationData data) {
+        int techs = scenario.getTechCount() != Simulation.SCHEDULED_TECHS
+                    ? scenario.getTechCount()
+                    : data.getScheduledTechCount(scenario.getDay(), scenario.getShift());
+        Distribution arrivals = scenario.getArrivalTimes() != null
+                                ? scenario.getArrivalTimes()
+                                : Distributions.defaultArrivalTimes(scenario.getInterval());
+        Distribution lengths = scenario.getCallLengths() != null
+                               ? scenario.getCallLengths()
+                               : Distributions.defaultCallLengths(scenario.getLength());
+        return new ErlangC(techs, arrivals, lengths);
+    }
+
+    /**
+     * Returns the Erlang C chance of waiting, computed from the Erlang B recurrence, which
+     * stays accurate for large numbers of techs
+     *
+     * @param       techs       number of techs
+     * @param       load        offered load, in Erlangs, which must be below techs
+     * @return      the chance that a caller waits
+     */
+    private static double erlangC(int techs, double load) {
+        double blocking = 1;
+        for (int k = 1; k <= techs; k++) {
+            blocking = load * blocking / (k + load * blocking);
+        }
+        double occupancy = load / techs;
+        return blocking / (1 - occupancy * (1 - blocking));
+    }
+
+
+    /**
+     * Returns the number of techs
+     *
+     * @return      the number of techs
+     */
+    public int getTechs() {
+        return techs;
+    }
+
+    /**
+     * Returns the offered load, the mean number of techs needed to keep up
+     *
+     * @return      the offered load, in Erlangs
+     */
+    public double getOfferedLoad() {
+        return load;
+    }
+
+    /**
+     * Checks whether or not the techs can keep up with incoming calls in the long run
+     *
+     * @return      true if the offered load is below the number of techs
+     */
+    public boolean isStable() {
+        return load < techs;
+    }
+
+    /**
+     * Returns the fraction of time the techs spend on calls
+     *
+     * @return      the occupancy, between 0 and 1
+     */
+    public double getOccupancy() {
+        return Math.min(1, load / techs);
+    }
+
+    /**
+     * Returns the chance that a caller waits for a tech
+     *
+     * @return      the chance of waiting, between 0 and 1
+     */
+    public double getProbabilityOfWait() {
+        return probabilityOfWait;
+    }
+
+    /**
+     * Returns the mean time a caller waits for a tech
+     *
+     * @return      the mean wait, in milliseconds, or infinity if not stable
+     */
+    public double getMeanWait() {
+        if (!isStable()) {
+            return Double.POSITIVE_INFINITY;
+        }
+        return probabilityOfWait * meanLength / (techs - load) * correction();
+    }
+
+    /**
+     * Returns the fraction of callers who wait no longer than the given target
+     *
+     * @param       targetMillis    longest acceptable wait, in milliseconds
+     * @return      the service level, between 0 and 1
+     */
+    public double getServiceLevel(long targetMillis) {
+        if (!isStable()) {
+            return 0;
+        }
+        double rate = (techs - load) / (meanLength * correction());
+        return Math.max(0, 1 - probabilityOfWait * Math.exp(-rate * targetMillis));
+    }
+
+    /**
+     * Returns the Allen-Cunneen correction to the wait, which is 1 for Poisson arrivals
+     * and exponential call lengths
+     *
+     * @return      the correction factor
+     */
+    private double correction() {
+        return Math.max(1e-9, (arrivalVariability + lengthVariability) / 2);
+    }
+
+    /**
+     * Returns a one-line summary of the estimate
+     *
+     * @return      a summary of the estimate
+     */
+    @Override
+    public String toString() {
+        if (!isStable()) {
+            return String.format(Locale.ROOT, "Estimate: %d techs for a load of %.1f "
+                                 + "Erlangs; the queue keeps growing", techs, load);
+        }
+        return String.format(Locale.ROOT, "Estimate: %d techs, occupancy %.1f%%, "
+                             + "P(wait) %.1f%%, mean wait %.1f s, %.1f%% answered "
+                             + "within %d s", techs, 100 * getOccupancy(),
+                             100 * probabilityOfWait, getMeanWait() / 1000,
+                             100 * getServiceLevel(SERVICE_LEVEL_TARGET_MILLIS),
+                             SERVICE_LEVEL_TARGET_MILLIS / 1000);
+    }
+}
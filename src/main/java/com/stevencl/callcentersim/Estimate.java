@@ -0,0 +1,126 @@
+package com.stevencl.callcentersim;
+
+/**
+ * The mean of a metric over several independent replications, with its standard deviation
+ * and a 95% confidence interval for the mean, based on Student's t distribution
+ *
+ * @author      Steven Leighton
+ * @version     2018-12-06
+ */
+public class Estimate {
+    /** Two-sided 95% critical values of Student's t distribution, by degrees of freedom */
+    private static final double[]   T_95 = {
+        Double.NaN, 12.706, 4.303, 3.182, 2.776, 2.571, 2.447, 2.365, 2.306, 2.262, 2.228,
+        2.201, 2.179, 2.160, 2.145, 2.131, 2.120, 2.110, 2.101, 2.093, 2.086,
+        2.080, 2.074, 2.069, 2.064, 2.060, 2.056, 2.052, 2.048, 2.045, 2.042
+    };
+    /** Critical value of the normal distribution, used beyond the table */
+    private static final double     Z_95 = 1.960;
+
+    /** Number of values */
+    private int         count;
+    /** Sample mean */
+    private double      mean;
+    /** Sample standard deviation */
+    private double      stdDev;
+    /** Half the width of the confidence interval */
+    private double      halfWidth;
+
+
+    /**
+     * Creates an Estimate of the mean of the given values
+     *
+     * @param       values      one value per replication
+     * @throws      IllegalArgumentException    if there are no values
+     */
+    public Estimate(double[] values) {
+        if (values.length == 0) {
+            throw new IllegalArgumentException("At least one value is required");
+        }
+        this.count = values.length;
+
+        double sum = 0;
+        for (double value : values) {
+            sum += value;
+        }
+        this.mean = sum / count;
+
+        if (count > 1) {
+            double squares = 0;
+            for (double value : values) {
+                squares += (value - mean) * (value - mean);
+            }
+            this.stdDev = Math.sqrt(squares / (count - 1));
+            double t = count - 1 < T_95.length ? T_95[count - 1] : Z_95;
+            this.halfWidth = t * stdDev / Math.sqrt(count);
+        } else {
+            this.stdDev = 0;
+            this.halfWidth = Double.NaN;
+        }
+    }
+
+
+    /**
+     * Returns the number of values
+     *
+     * @return      the number of values
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Returns the sample mean
+     *
+     * @return      the sample mean
+     */
+    public double getMean() {
+        return mean;
+    }
+
+    /**
+     * Returns the sample standard deviation
+     *
+     * @return      the sample standard deviation, or 0 for a single value
+     */
+    public double getStdDev() {
+        return stdDev;
+    }
+
+    /**
+     * Returns half the width of the 95% confidence interval for the mean
+     *
+     * @return      the half-width of the interval, or NaN for a single value
+     */
+    public double getHalfWidth() {
+        return halfWidth;
+    }
+
+    /**
+     * Returns the lower end of the 95% confidence interval for the mean
+     *
+     * @return      the lower end of the interval
+     */
+    public double getLower() {
+        return mean - halfWidth;
+    }
+
+    /**
+     * Returns the upper end of the 95% confidence interval for the mean
+     *
+     * @return      the upper end of the interval
+     */
+    public double getUpper() {
+        return mean + halfWidth;
+    }
+
+    /**
+     * Returns the estimate in the form mean +/- half-width
+     *
+     * @return      the estimate in the form mean +/- half-width
+     */
+    @Override
+    public String toString() {
+        return String.format("%.4f +/- %.4f", mean, halfWidth);
+    }
+}
@@ -0,0 +1,170 @@
+package com.stevencl.callcentersim;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * An append-only binary record of one simulation run: which techs were ready at the start,
+ * and every incoming call, dropped call, call start and call end, with the simulated time
+ * of each. A run in which shifts change also records each shift, and the techs joining and
+ * leaving the tech queue as it changes. The journal can be replayed by JournalReplayer.
+ *
+ * <p>The file starts with a header of HEADER_SIZE bytes, followed by records of
+ * RECORD_SIZE bytes each: a type byte, the simulated time in milliseconds as a long, then
+ * the customer handle, tech handle and call length as ints, with -1 where a value does not
+ * apply. Records are written through a memory-mapped region of the file, which is mapped
+ * CHUNK_RECORDS records at a time, so writing a record is a few stores to memory. The
+ * record count in the header is only filled in when the journal is closed; a journal which
+ * was not closed is read up to its first empty record.
+ *
+ * <p>Closing trims the file to the records written. Some platforms, such as Windows, do not
+ * allow a file to be truncated while part of it is still mapped, and Java 8 cannot unmap a
+ * region on demand. There the file keeps the zero-filled rest of the last mapped region,
+ * which readers skip, as the record count is written before the file is trimmed.
+ *
+ * @author      Steven Leighton
+ * @version     2018-12-06
+ */
+public class EventJournal implements AutoCloseable {
+    /** Identifies a journal file: "CCJ1" */
+    static final int            MAGIC = 0x43434A31;
+    /** Version of the file format */
+    static final int            VERSION = 1;
+    /** Size of the header, in bytes */
+    static final int            HEADER_SIZE = 64;
+    /** Offset of the record count in the header */
+    static final int            COUNT_OFFSET = 40;
+    /** Size of a record, in bytes */
+    static final int            RECORD_SIZE = 21;
+    /** Number of records mapped at a time */
+    static final int            CHUNK_RECORDS = 1 << 18;
+
+    /** Record type of a tech ready at the start of the run */
+    public static final byte    TECH_READY = 1;
+    /** Record type of an incoming call, with the customer who joined the queue */
+    public static final byte    ARRIVAL = 2;
+    /** Record type of an incoming call which was dropped */
+    public static final byte    DROP = 3;
+    /** Record type of a call start, with its customer, tech and length */
+    public static final byte    START = 4;
+    /** Record type of a call end, with its customer and tech */
+    public static final byte    END = 5;
+    /** Record type of the end of the run, with the number of calls remaining as length */
+    public static final byte    FINISH = 6;
+    /** Record type of a tech leaving the tech queue at the end of their shift */
+    public static final byte    TECH_LEAVE = 7;
+    /** Record type of the start of a shift, with the number of techs on duty as tech, and
+     *  the RosterIndex slot of the shift as length */
+    public static final byte    SHIFT = 8;
+
+    /** Channel of the journal file */
+    private FileChannel         channel;
+    /** Mapped region being written */
+    private MappedByteBuffer    buffer;
+    /** File offset of the mapped region */
+    private long                bufferOffset;
+    /** Number of records written */
+    private long                count;
+
+
+    /**
+     * Creates a journal file, replacing any existing file, and writes its header
+     *
+     * @param       fileName        path of the journal file
+     * @param       seed            seed of the run
+     * @param       custCount       initial customers in queue
+     * @param       callCount       number of calls to simulate
+     * @param       day             day simulated
+     * @param       shift           shift simulated
+     * @param       customers       number of customers in the data
+     * @param       techs           number of techs in the data
+     * @throws      IOException     if the file cannot be written
+     */
+    public EventJournal(String fileName, long seed, int custCount, int callCount, Day day,
+                        int shift, int customers, int techs) throws IOException {
+        channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.CREATE,
+                                   StandardOpenOption.TRUNCATE_EXISTING,
+                                   StandardOpenOption.READ, StandardOpenOption.WRITE);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC).putInt(VERSION).putLong(seed).putInt(custCount)
+              .putInt(callCount).putInt(day.ordinal()).putInt(shift).putInt(customers)
+              .putInt(techs).putLong(-1);
+        header.clear();
+        channel.write(header, 0);
+        bufferOffset = HEADER_SIZE;
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, bufferOffset,
+                             (long)CHUNK_RECORDS * RECORD_SIZE);
+    }
+
+
+    /**
+     * Appends a record
+     *
+     * @param       type            record type
+     * @param       time            simulated time, in milliseconds
+     * @param       customer        customer handle, or -1
+     * @param       tech            tech handle, or -1
+     * @param       length          call length, in milliseconds, or -1
+     * @throws      UncheckedIOException    if the next region of the file cannot be mapped
+     * @throws      IllegalStateException   if the journal is closed
+     */
+    public void write(byte type, long time, int customer, int tech, int length) {
+        if (channel == null) {
+            throw new IllegalStateException("The journal is closed");
+        }
+        if (buffer.remaining() < RECORD_SIZE) {
+            bufferOffset += buffer.position();
+            try {
+                buffer = channel.map(FileChannel.MapMode.READ_WRITE, bufferOffset,
+                                     (long)CHUNK_RECORDS * RECORD_SIZE);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        buffer.put(type).putLong(time).putInt(customer).putInt(tech).putInt(length);
+        count++;
+    }
+
+    /**
+     * Returns the number of records written
+     *
+     * @return      the number of records written
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Writes the record count, trims the file to the records written where the platform
+     * allows, and closes it. Does nothing if already closed.
+     *
+     * @throws      IOException     if the file cannot be written
+     */
+    @Override
+    public void close() throws IOException {
+        if (channel == null) {
+            return;
+        }
+        try {
+            buffer.force();
+            ByteBuffer total = ByteBuffer.allocate(Long.BYTES);
+            total.putLong(count).flip();
+            channel.write(total, COUNT_OFFSET);
+            channel.force(true);
+            try {
+                channel.truncate(HEADER_SIZE + count * RECORD_SIZE);
+            } catch (IOException e) {
+                // the last region is still mapped; the record count already marks the end
+            }
+        } finally {
+            buffer = null;
+            channel.close();
+            channel = null;
+        }
+    }
+}
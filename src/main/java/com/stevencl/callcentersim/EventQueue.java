@@ -0,0 +1,241 @@
+package com.stevencl.callcentersim;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * A time-ordered queue of simulation events, stored as a binary min-heap over parallel
+ * arrays so that scheduling an event does not allocate. Events with equal times are
+ * returned in the order in which they were added.
+ *
+ * @author      Steven Leighton
+ * @version     2018-12-06
+ */
+public class EventQueue {
+    /** Initial capacity of the heap arrays */
+    private static final int INITIAL_SIZE = 64;
+
+    /** Event times */
+    private long[]      times;
+    /** Insertion sequence numbers, used to break ties between equal times */
+    private long[]      sequences;
+    /** Event types */
+    private int[]       types;
+    /** Event payloads */
+    private Object[]    payloads;
+    /** Number of events in the queue */
+    private int         size;
+    /** Next insertion sequence number */
+    private long        nextSequence;
+
+
+    /**
+     * Creates an empty EventQueue
+     */
+    public EventQueue() {
+        times = new long[INITIAL_SIZE];
+        sequences = new long[INITIAL_SIZE];
+        types = new int[INITIAL_SIZE];
+        payloads = new Object[INITIAL_SIZE];
+        size = 0;
+        nextSequence = 0;
+    }
+
+
+    /**
+     * Returns a copy of this queue, holding the same events in the same order. Payloads are
+     * shared, not copied.
+     *
+     * @return      a copy of this queue
+     */
+    public EventQueue copy() {
+        EventQueue copy = new EventQueue();
+        copy.times = Arrays.copyOf(times, times.length);
+        copy.sequences = Arrays.copyOf(sequences, sequences.length);
+        copy.types = Arrays.copyOf(types, types.length);
+        copy.payloads = Arrays.copyOf(payloads, payloads.length);
+        copy.size = size;
+        copy.nextSequence = nextSequence;
+        return copy;
+    }
+
+
+    /**
+     * Returns the number of events in the queue
+     *
+     * @return      the number of events in the queue
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Checks whether or not the queue is empty
+     *
+     * @return      true if the queue is empty, otherwise false
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns the time of the earliest event
+     *
+     * @return      the time of the earliest event
+     */
+    public long peekTime() {
+        checkNotEmpty();
+        return times[0];
+    }
+
+    /**
+     * Returns the type of the earliest event
+     *
+     * @return      the type of the earliest event
+     */
+    public int peekType() {
+        checkNotEmpty();
+        return types[0];
+    }
+
+    /**
+     * Returns the payload of the earliest event
+     *
+     * @return      the payload of the earliest event, or null
+     */
+    public Object peekPayload() {
+        checkNotEmpty();
+        return payloads[0];
+    }
+
+
+    /**
+     * Schedules an event
+     *
+     * @param       time        time at which the event occurs
+     * @param       type        event type
+     * @param       payload     event payload, or null
+     */
+    public void add(long time, int type, Object payload) {
+        if (size == times.length) {
+            grow();
+        }
+
+        // sift the new event up from the bottom of the heap
+        long sequence = nextSequence++;
+        int index = size++;
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (!before(time, sequence, times[parent], sequences[parent])) {
+                break;
+            }
+            move(parent, index);
+            index = parent;
+        }
+        set(index, time, sequence, type, payload);
+    }
+
+    /**
+     * Removes the earliest event
+     */
+    public void remove() {
+        checkNotEmpty();
+
+        // sift the last event down from the top of the heap
+        int last = --size;
+        long time = times[last];
+        long sequence = sequences[last];
+        int type = types[last];
+        Object payload = payloads[last];
+        payloads[last] = null;
+
+        if (last > 0) {
+            int index = 0;
+            int half = last >>> 1;
+            while (index < half) {
+                int child = 2 * index + 1;
+                int right = child + 1;
+                if (right < last && before(times[right], sequences[right], times[child],
+                                           sequences[child])) {
+                    child = right;
+                }
+                if (!before(times[child], sequences[child], time, sequence)) {
+                    break;
+                }
+                move(child, index);
+                index = child;
+            }
+            set(index, time, sequence, type, payload);
+        }
+    }
+
+    /**
+     * Removes all events from the queue
+     */
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            payloads[i] = null;
+        }
+        size = 0;
+    }
+
+
+    /**
+     * Checks whether or not one event is ordered before another
+     *
+     * @param       time1       time of the first event
+     * @param       sequence1   sequence number of the first event
+     * @param       time2       time of the second event
+     * @param       sequence2   sequence number of the second event
+     * @return      true if the first event comes before the second, otherwise false
+     */
+    private static boolean before(long time1, long sequence1, long time2, long sequence2) {
+        return time1 < time2 || (time1 == time2 && sequence1 < sequence2);
+    }
+
+    /**
+     * Copies the event at one heap position to another
+     *
+     * @param       from        source position
+     * @param       to          target position
+     */
+    private void move(int from, int to) {
+        set(to, times[from], sequences[from], types[from], payloads[from]);
+    }
+
+    /**
+     * Stores an event at the given heap position
+     *
+     * @param       index       heap position
+     * @param       time        event time
+     * @param       sequence    event sequence number
+     * @param       type        event type
+     * @param       payload     event payload, or null
+     */
+    private void set(int index, long time, long sequence, int type, Object payload) {
+        times[index] = time;
+        sequences[index] = sequence;
+        types[index] = type;
+        payloads[index] = payload;
+    }
+
+    /**
+     * Doubles the capacity of the heap arrays
+     */
+    private void grow() {
+        int capacity = 2 * times.length;
+        times = Arrays.copyOf(times, capacity);
+        sequences = Arrays.copyOf(sequences, capacity);
+        types = Arrays.copyOf(types, capacity);
+        payloads = Arrays.copyOf(payloads, capacity);
+    }
+
+    /**
+     * Throws an exception if the queue is empty
+     */
+    private void checkNotEmpty() {
+        if (size == 0) {
+            throw new NoSuchElementException("The event queue is empty");
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.stevencl.callcentersim;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * A pool of handles which can be drawn at random without replacement and released back
+ * later. The available handles are kept at the front of an array, as in a partial
+ * Fisher-Yates shuffle, so taking a random handle and releasing one both cost O(1) however
+ * few handles are left.
+ *
+ * @author      Steven Leighton
+ * @version     2018-12-06
+ */
+public class HandlePool {
+    /** Position of a handle which is not in the pool */
+    private static final int    NOT_IN_POOL = -1;
+
+    /** All handles, with the available ones first */
+    private int[]       handles;
+    /** Position of each handle in the handles array, indexed by handle */
+    private int[]       positions;
+    /** Number of available handles */
+    private int         available;
+
+
+    /**
+     * Creates a pool of the given handles, all of them available
+     *
+     * @param       handles     distinct, non-negative handles
+     * @throws      IllegalArgumentException    if a handle is negative or repeated
+     */
+    public HandlePool(int[] handles) {
+        this(handles, handles.length);
+    }
+
+    /**
+     * Creates a pool of the given handles, of which only the first ones are available, in
+     * the order given by toArray
+     *
+     * @param       handles     distinct, non-negative handles, the available ones first
+     * @param       available   number of available handles
+     * @throws      IllegalArgumentException    if a handle is negative or repeated, or the
+     *                                          number available is out of range
+     */
+    public HandlePool(int[] handles, int available) {
+        if (available < 0 || available > handles.length) {
+            throw new IllegalArgumentException("Invalid number available: " + available);
+        }
+        int maxHandle = -1;
+        for (int handle : handles) {
+            if (handle < 0) {
+                throw new IllegalArgumentException("Invalid handle: " + handle);
+            }
+            maxHandle = Math.max(maxHandle, handle);
+        }
+
+        this.handles = handles.clone();
+        this.positions = new int[maxHandle + 1];
+        Arrays.fill(positions, NOT_IN_POOL);
+        for (int i = 0; i < handles.length; i++) {
+            if (positions[handles[i]] != NOT_IN_POOL) {
+                throw new IllegalArgumentException("Repeated handle: " + handles[i]);
+            }
+            positions[handles[i]] = i;
+        }
+        this.available = available;
+    }
+
+
+    /**
+     * Returns the number of handles which can be taken
+     *
+     * @return      the number of available handles
+     */
+    public int available() {
+        return available;
+    }
+
+    /**
+     * Returns every handle in the pool, the available ones first, in the order which
+     * decides which handle each random draw takes
+     *
+     * @return      a copy of the handles
+     */
+    public int[] toArray() {
+        return handles.clone();
+    }
+
+    /**
+     * Checks whether or not the given handle can be taken
+     *
+     * @param       handle      the handle to be checked
+     * @return      true if the handle is in the pool and available, otherwise false
+     */
+    public boolean isAvailable(int handle) {
+        return handle >= 0 && handle < positions.length
+               && positions[handle] != NOT_IN_POOL && positions[handle] < available;
+    }
+
+    /**
+     * Takes a random available handle out of the pool
+     *
+     * @param       random      the stream to draw from
+     * @return      the handle taken
+     * @throws      NoSuchElementException  if no handle is available
+     */
+    public int take(RandomStream random) {
+        if (available == 0) {
+            throw new NoSuchElementException();
+        }
+        int handle = handles[random.nextInt(available)];
+        swap(positions[handle], --available);
+        return handle;
+    }
+
+    /**
+     * Releases a taken handle, making it available again
+     *
+     * @param       handle      the handle to be released
+     * @return      true if the handle was taken, otherwise false
+     */
+    public boolean release(int handle) {
+        if (handle < 0 || handle >= positions.length || positions[handle] == NOT_IN_POOL
+            || positions[handle] < available) {
+            return false;
+        }
+        swap(positions[handle], available++);
+        return true;
+    }
+
+
+    /**
+     * Swaps two handles in the handles array and updates their positions
+     *
+     * @param       i           position of the first handle
+     * @param       j           position of the second handle
+     */
+    private void swap(int i, int j) {
+        int a = handles[i];
+        int b = handles[j];
+        handles[i] = b;
+        handles[j] = a;
+        positions[b] = i;
+        positions[a] = j;
+    }
+}
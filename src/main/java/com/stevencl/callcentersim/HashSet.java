@@ -1,7 +1,9 @@
 package com.stevencl.callcentersim;
 
 /**
- * An unordered Set in which elements are stored in a hash table
+ * An unordered Set in which elements are stored in an open-addressing hash table with
+ * linear probing. Adding and removing elements does not allocate, except when the table
+ * grows. Null values are not permitted.
  *
  * @author      Steven Leighton
  * @version     2018-12-06
@@ -9,11 +11,13 @@ package com.stevencl.callcentersim;
 public class HashSet<E extends Comparable<E>> {
     /** Maximum load factor of the hash table */
     private static final double MAX_LOAD_FACTOR = 0.75;
-    /** Initial size of the hash table */
-    private static final int INITIAL_SIZE = 17;
+    /** Initial size of the hash table, which must be a power of two */
+    private static final int INITIAL_SIZE = 16;
+    /** Multiplier used to spread hash codes over the table (2^32 divided by phi) */
+    private static final int HASH_MULTIPLIER = 0x9E3779B9;
     
-    /** Hash table */
-    private HashEntry<E>[] elementData;
+    /** Hash table, in which empty slots are null */
+    private Object[] elementData;
     /** Number of elements in the set */
     private int size;
     
@@ -21,9 +25,8 @@ public class HashSet<E extends Comparable<E>> {
     /**
      * Creates empty HashSet with initial size capacity
      */
-    @SuppressWarnings("unchecked") 
     public HashSet() {
-        elementData = (HashEntry<E>[])new HashEntry[INITIAL_SIZE];
+        elementData = new Object[INITIAL_SIZE];
         size = 0;
     }
     
@@ -53,15 +56,7 @@ public class HashSet<E extends Comparable<E>> {
      * @return      true if the given value is in the set, otherwise false
      */
     public boolean contains(E value) {
-        int bucket = hashFunction(value);
-        HashEntry<E> current = elementData[bucket];
-        while (current != null) {
-            if (current.data.equals(value)) {
-                return true;
-            }
-            current = current.next;
-        }
-        return false;
+        return indexOf(value) >= 0;
     }
     
     /**
@@ -75,14 +70,12 @@ public class HashSet<E extends Comparable<E>> {
         boolean first = true;
         if (!isEmpty()) {
             for (int i = 0; i < elementData.length; i++) {
-                HashEntry<E> current = elementData[i];
-                while (current != null) {
+                if (elementData[i] != null) {
                     if (!first) {
                         result += ", ";
                     }
-                    result += current.data;
+                    result += elementData[i];
                     first = false;
-                    current = current.next;
                 }
             }
         }
@@ -97,19 +90,22 @@ public class HashSet<E extends Comparable<E>> {
      * @return      true if the element was added, otherwise false
      */
     public boolean add(E value) {
-        if (contains(value)) {
-            return false;
-        } else {
-            if (loadFactor() >= MAX_LOAD_FACTOR) {
-                rehash();
+        int mask = elementData.length - 1;
+        int index = hashFunction(value);
+        while (elementData[index] != null) {
+            if (elementData[index].equals(value)) {
+                return false;
             }
-            
-            // insert at front of list
-            int bucket = hashFunction(value);
-            elementData[bucket] = new HashEntry<E>(value, elementData[bucket]);
-            size++;
-            return true;
+            index = (index + 1) & mask;
+        }
+        
+        // insert at the first free slot of the probe run
+        elementData[index] = value;
+        size++;
+        if (loadFactor() > MAX_LOAD_FACTOR) {
+            rehash();
         }
+        return true;
     }
     
     /**
@@ -118,26 +114,25 @@ public class HashSet<E extends Comparable<E>> {
      * @param       value       value to be removed
      */
     public void remove(E value) {
-        int bucket = hashFunction(value);
-        if (elementData[bucket] != null) {
-            // check front of list
-            if (elementData[bucket].data.equals(value)) {
-                elementData[bucket] = elementData[bucket].next;
-                size--;
-            } else {
-                // check rest of list
-                HashEntry<E> current = elementData[bucket];
-                while (current.next != null && !current.next.data.equals(value)) {
-                    current = current.next;
-                }
-                
-                // if the element is found, remove it
-                if (current.next != null && current.next.data.equals(value)) {
-                    current.next = current.next.next;
-                    size--;
-                }
+        int index = indexOf(value);
+        if (index < 0) {
+            return;
+        }
+        
+        // shift later entries of the probe run back, so that no tombstone is needed
+        int mask = elementData.length - 1;
+        int hole = index;
+        int next = (hole + 1) & mask;
+        while (elementData[next] != null) {
+            int preferred = hashFunction(elementData[next]);
+            if (((next - preferred) & mask) >= ((next - hole) & mask)) {
+                elementData[hole] = elementData[next];
+                hole = next;
             }
+            next = (next + 1) & mask;
         }
+        elementData[hole] = null;
+        size--;
     }
     
     /**
@@ -152,13 +147,34 @@ public class HashSet<E extends Comparable<E>> {
     
     
     /**
-     * Returns the preferred hash bucket index for the given value
+     * Returns the table index holding the given value
+     * 
+     * @param       value       value to be found
+     * @return      the table index holding the given value, or -1 if not in the set
+     */
+    private int indexOf(E value) {
+        int mask = elementData.length - 1;
+        int index = hashFunction(value);
+        while (elementData[index] != null) {
+            if (elementData[index].equals(value)) {
+                return index;
+            }
+            index = (index + 1) & mask;
+        }
+        return -1;
+    }
+    
+    /**
+     * Returns the preferred hash bucket index for the given value. The hash code is
+     * multiplied by a large odd constant and the top bits are used, so that every bit of
+     * the hash code affects the index and negative hash codes need no special treatment.
      * 
      * @param       value       value to be checked
      * @return      the preferred hash bucket index for the given value
      */
-    private int hashFunction(E value) {
-        return Math.abs(value.hashCode()) % elementData.length;
+    private int hashFunction(Object value) {
+        int shift = Integer.numberOfLeadingZeros(elementData.length) + 1;
+        return (value.hashCode() * HASH_MULTIPLIER) >>> shift;
     }
     
     /**
@@ -171,53 +187,26 @@ public class HashSet<E extends Comparable<E>> {
     }
     
     /**
-     * Resizes the hash table to twice its former size, then rehashes data
+     * Resizes the hash table to twice its former size, then rehashes data. Elements are
+     * known to be distinct, so each one is placed in the first free slot of its probe run
+     * without any equality checks.
      */
-    @SuppressWarnings("unchecked") 
     private void rehash() {
         // replace element data array with a larger empty version
-        HashEntry<E>[] oldElementData = elementData;
-        elementData = (HashEntry<E>[])new HashEntry[2 * oldElementData.length];
-        size = 0;
+        Object[] oldElementData = elementData;
+        elementData = new Object[2 * oldElementData.length];
+        int mask = elementData.length - 1;
 
         // re-add all of the old data into the new array
         for (int i = 0; i < oldElementData.length; i++) {
-            HashEntry<E> current = oldElementData[i];
-            while (current != null) {
-                add(current.data);
-                current = current.next;
+            Object current = oldElementData[i];
+            if (current != null) {
+                int index = hashFunction(current);
+                while (elementData[index] != null) {
+                    index = (index + 1) & mask;
+                }
+                elementData[index] = current;
             }
         }
     }
-    
-    
-    /**
-     * Represents a single value in a chain stored in one hash bucket
-     */
-    private class HashEntry<E> {
-        /** Stored value */
-        public E                data;
-        /** The next entry in the hash bucket */
-        public HashEntry<E>     next;
-        
-        /**
-         * Creates a HashEntry with the specified data and a reference to the next entry
-         * 
-         * @param       data        value to be stored
-         * @param       next        the next entry in the hash bucket, or null
-         */
-        public HashEntry(E data, HashEntry<E> next) {
-            this.data = data;
-            this.next = next;
-        }
-        
-        /**
-         * Creates a HashEntry with the specified data and null reference for next entry
-         * 
-         * @param       data        value to be stored
-         */
-        public HashEntry(E data) {
-            this(data, null);
-        }
-    }
 }
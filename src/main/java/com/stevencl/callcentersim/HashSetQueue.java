@@ -3,16 +3,21 @@ package com.stevencl.callcentersim;
 import java.util.NoSuchElementException;
 
 /**
- * A generic queue which uses a HashSet to ensure that all values are unique
+ * A generic queue which uses a HashSet to ensure that all values are unique. Values are
+ * stored in a growable circular array, so adding and removing values does not allocate
+ * once the queue has reached its working size.
  *
  * @author      Steven Leighton
  * @version     2018-12-06
  */
 public class HashSetQueue<E extends Comparable<E>> {
-    /** Front node */
-    private QueueNode<E>    front;
-    /** Back node */
-    private QueueNode<E>    back;
+    /** Initial capacity of the circular array, which must be a power of two */
+    private static final int INITIAL_SIZE = 16;
+    
+    /** Circular array of queued values */
+    private Object[]        elementData;
+    /** Index of the front value */
+    private int             front;
     /** Queue size */
     private int             size;
     /** Set of all values contained in the queue */
@@ -23,6 +28,8 @@ public class HashSetQueue<E extends Comparable<E>> {
      * Creates an empty queue
      */
     public HashSetQueue() {
+        this.elementData = new Object[INITIAL_SIZE];
+        this.front = 0;
         this.size = 0;
         this.values = new HashSet<E>();
     }
@@ -46,6 +53,16 @@ public class HashSetQueue<E extends Comparable<E>> {
         return size == 0;
     }
     
+    /**
+     * Checks whether or not a given value is in the queue
+     * 
+     * @param       value       the value to be checked
+     * @return      true if the given value is in the queue, otherwise false
+     */
+    public boolean contains(E value) {
+        return values.contains(value);
+    }
+    
     /**
      * Returns a comma-separated, bracketed string representation of the queue
      * 
@@ -56,11 +73,10 @@ public class HashSetQueue<E extends Comparable<E>> {
         if (size == 0) {
             return "[]";
         } else {
-            String result = "[" + front.data;
-            QueueNode<E> current = front.next;
-            while (current != null) {
-                result += ", " + current.data;
-                current = current.next;
+            String result = "[" + elementData[front];
+            int mask = elementData.length - 1;
+            for (int i = 1; i < size; i++) {
+                result += ", " + elementData[(front + i) & mask];
             }
             result += "]";
             return result;
@@ -80,14 +96,11 @@ public class HashSetQueue<E extends Comparable<E>> {
             return false;
         }
         
-        if (size == 0) {
-            front = back = new QueueNode<E>(value);
-            size++;
-        } else { // size >= 1
-            back.next = new QueueNode<E>(value);
-            back = back.next;
-            size++;
+        if (size == elementData.length) {
+            grow();
         }
+        elementData[(front + size) & (elementData.length - 1)] = value;
+        size++;
         return true;
     }
     
@@ -96,12 +109,13 @@ public class HashSetQueue<E extends Comparable<E>> {
      * 
      * @return      the first value in the queue
      */
+    @SuppressWarnings("unchecked")
     public E peek() {
         if (size == 0) {
             throw new NoSuchElementException("The queue is empty");
         }
         
-        return front.data;
+        return (E)elementData[front];
     }
     
     /**
@@ -109,13 +123,15 @@ public class HashSetQueue<E extends Comparable<E>> {
      * 
      * @return      the first value in the queue
      */
+    @SuppressWarnings("unchecked")
     public E remove() {
         if (size == 0) {
             throw new NoSuchElementException("The queue is empty");
         }
         
-        E removedData = front.data;
-        front = front.next;
+        E removedData = (E)elementData[front];
+        elementData[front] = null;
+        front = (front + 1) & (elementData.length - 1);
         size--;
         values.remove(removedData);
         return removedData;
@@ -125,39 +141,27 @@ public class HashSetQueue<E extends Comparable<E>> {
      * Empties the queue
      */
     public void clear() {
-        front = back = null;
+        int mask = elementData.length - 1;
+        for (int i = 0; i < size; i++) {
+            elementData[(front + i) & mask] = null;
+        }
+        front = 0;
         size = 0;
         values.clear();
     }
     
     
     /**
-     * A node for the HashSetQueue
+     * Doubles the capacity of the circular array, moving the front value to index 0
      */
-    private class QueueNode<E> {
-        /** Stored value */
-        public E                data;
-        /** The next node in the list */
-        public QueueNode<E>     next;
+    private void grow() {
+        Object[] oldElementData = elementData;
+        elementData = new Object[2 * oldElementData.length];
         
-        /**
-         * Creates a QueueNode with the given data and next node reference
-         * 
-         * @param       data        value to be stored
-         * @param       next        the next node in the queue, or null
-         */
-        public QueueNode(E data, QueueNode<E> next) {
-            this.data = data;
-            this.next = next;
-        }
-        
-        /**
-         * Creates a QueueNode with the given data and null reference for next node
-         * 
-         * @param       data        data to be stored in node
-         */
-        public QueueNode(E data) {
-            this(data, null);
-        }
+        // copy the wrapped-around halves in queue order
+        int frontLength = oldElementData.length - front;
+        System.arraycopy(oldElementData, front, elementData, 0, frontLength);
+        System.arraycopy(oldElementData, 0, elementData, frontLength, front);
+        front = 0;
     }
 }
@@ -0,0 +1,379 @@
+package com.stevencl.callcentersim;
+
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Properties;
+
+/**
+ * Runs a simulation from the command line, without a display, and writes a summary of the
+ * run. Parameters are given as arguments of the form --name=value, or in a properties file
+ * named by --config, with arguments taking precedence. The summary is written as lines of
+ * the form name=value.
+ *
+ * <p>Parameters:
+ *
+ * <pre>
+ *     custCount    initial customers in queue, 0 or more (default 20)
+ *     callCount    number of calls to simulate, 0 or more (default 100)
+ *     interval     interval between incoming calls, in seconds, 1 or more (default 1)
+ *     length       average call length, in seconds, 1 or more (default 5)
+ *     day          day to simulate, MON to SUN (default MON)
+ *     shift        shift to simulate, 1 or 2 (default 1)
+ *     techCount    number of techs working, 1 or more (default every scheduled tech)
+ *     shiftHours   length of each shift in hours, to carry on through the following shifts
+ *                  of the week until all calls are done; virtual clock only (default 0, for
+ *                  a single shift)
+ *     seed         seed for the random streams (default chosen for each run)
+ *     arrivals     distribution of times between calls, see Distributions.parse
+ *     lengths      distribution of call lengths, see Distributions.parse
+ *     realTime     true to run in real time rather than on a virtual clock; single runs
+ *                  only (default false)
+ *     replications number of independent replications to run in parallel, 1 or more
+ *                  (default 1)
+ *     verbose      true to also write every console line; single runs only (default false)
+ *     journal      file to record every event to, for JournalReplayer; single runs only
+ *                  (default none)
+ *     out          file to write the summary to (default standard output)
+ * </pre>
+ *
+ * @author      Steven Leighton
+ * @version     2018-12-06
+ */
+public class HeadlessRunner {
+    /** Parameters of the run */
+    private Properties      options;
+
+
+    /**
+     * Creates a HeadlessRunner with the given parameters
+     *
+     * @param       options     parameters of the run
+     */
+    public HeadlessRunner(Properties options) {
+        this.options = options;
+    }
+
+
+    /**
+     * Runs a simulation with parameters from the command line
+     *
+     * @param       args        arguments of the form --name=value or --name value
+     */
+    public static void main(String[] args) {
+        try {
+            HeadlessRunner runner = new HeadlessRunner(parseArgs(args));
+            String out = runner.options.getProperty("out");
+            if (out == null) {
+                PrintWriter writer = new PrintWriter(
+                    new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+                runner.runAll(writer);
+                writer.flush();
+            } else {
+                try (FileOutputStream file = new FileOutputStream(out);
+                     PrintWriter writer = new PrintWriter(
+                         new OutputStreamWriter(file, StandardCharsets.UTF_8))) {
+                    runner.runAll(writer);
+                }
+            }
+        } catch (IOException | UncheckedIOException | IllegalArgumentException e) {
+            System.err.println("Error: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Reads parameters from arguments of the form --name=value or --name value, and from 
+     * the properties file named by --config if given
+     *
+     * @param       args        command-line arguments
+     * @return      the parameters
+     * @throws      IOException     if the properties file cannot be read
+     * @throws      IllegalArgumentException    if an argument is not of either form
+     */
+    public static Properties parseArgs(String[] args) throws IOException {
+        Properties arguments = new Properties();
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("Invalid argument: " + arg);
+            }
+            int equals = arg.indexOf('=');
+            if (equals >= 0) {
+                arguments.setProperty(arg.substring(2, equals), arg.substring(equals + 1));
+            } else if (i + 1 < args.length) {
+                arguments.setProperty(arg.substring(2), args[++i]);
+            } else {
+                throw new IllegalArgumentException("Missing value: " + arg);
+            }
+        }
+
+        Properties options = new Properties();
+        String config = arguments.getProperty("config");
+        if (config != null) {
+            try (InputStream in = new FileInputStream(config)) {
+                options.load(in);
+            }
+        }
+        options.putAll(arguments);
+        return options;
+    }
+
+
+    /**
+     * Runs the simulation, or its replications if more than one is asked for, and writes a 
+     * summary of the parameters and results
+     *
+     * @param       writer      destination of the summary
+     * @throws      IOException     if a file cannot be read
+     * @throws      IllegalArgumentException    if a parameter is not valid, or only applies
+     *                                          to a single run
+     */
+    public void runAll(PrintWriter writer) throws IOException {
+        if (getInt("replications", 1, 1) > 1) {
+            for (String name : new String[] {"realTime", "verbose"}) {
+                if (Boolean.parseBoolean(options.getProperty(name, "false"))) {
+                    throw new IllegalArgumentException(name + " needs a single replication");
+                }
+            }
+            if (options.getProperty("journal") != null) {
+                throw new IllegalArgumentException("journal needs a single replication");
+            }
+            runReplications(writer);
+        } else {
+            run(writer);
+        }
+    }
+
+    /**
+     * Runs the simulation and writes a summary of the parameters and results
+     *
+     * @param       writer      destination of the summary
+     * @return      the statistics of the run
+     * @throws      IOException     if a distribution file cannot be read
+     * @throws      IllegalArgumentException    if a parameter is not valid
+     */
+    public RunStats run(PrintWriter writer) throws IOException {
+        Scenario scenario   = getScenario();
+        boolean realTime    = Boolean.parseBoolean(options.getProperty("realTime", "false"));
+        boolean verbose     = Boolean.parseBoolean(options.getProperty("verbose", "false"));
+
+        Simulation simulation = new Simulation();
+        if (options.getProperty("seed") != null) {
+            simulation.setSeed(getLong("seed"));
+        }
+        simulation.setTechCount(scenario.getTechCount());
+        if (realTime && scenario.getShiftLength() != Simulation.SINGLE_SHIFT) {
+            throw new IllegalArgumentException("shiftHours needs a virtual clock");
+        }
+        simulation.setJournalFile(options.getProperty("journal"));
+        // without observers, the simulation does not build any console text
+        CompletionObserver observer = null;
+        if (verbose || realTime) {
+            observer = new CompletionObserver(verbose ? writer : null);
+            simulation.addObserver(observer);
+        }
+
+        long startNanos = System.nanoTime();
+        if (realTime) {
+            simulation.setArrivalTimes(scenario.getArrivalTimes());
+            simulation.setCallLengths(scenario.getCallLengths());
+            simulation.start(scenario.getCustCount(), scenario.getCallCount(), 
+                             scenario.getInterval(), scenario.getLength(), scenario.getDay(), 
+                             scenario.getShift());
+            observer.awaitEnd();
+        } else {
+            scenario.runOn(simulation);
+        }
+        long elapsedNanos = System.nanoTime() - startNanos;
+
+        RunStats stats = simulation.getStats();
+        writeScenario(writer, scenario);
+        writer.printf("seed=%d%nrealTime=%b%n", simulation.getSeed(), realTime);
+        writer.print(stats);
+        writer.printf("elapsedMillis=%.1f%n", elapsedNanos / 1e6);
+        return stats;
+    }
+
+    /**
+     * Runs replications of the simulation in parallel, on a virtual clock, and writes a 
+     * summary of the parameters and the combined results
+     *
+     * @param       writer      destination of the summary
+     * @return      the combined results
+     * @throws      IOException     if a file cannot be read
+     * @throws      IllegalArgumentException    if a parameter is not valid
+     */
+    public ReplicationRunner.Result runReplications(PrintWriter writer) throws IOException {
+        Scenario scenario   = getScenario();
+        int replications    = getInt("replications", 1, 1);
+        long seed           = options.getProperty("seed") != null ? getLong("seed") 
+                                                              : System.nanoTime();
+
+        long startNanos = System.nanoTime();
+        ReplicationRunner runner = new ReplicationRunner(new SimulationData(false, 0));
+        ReplicationRunner.Result result = runner.run(scenario, replications, seed);
+        long elapsedNanos = System.nanoTime() - startNanos;
+
+        writeScenario(writer, scenario);
+        writer.printf("seed=%d%n", seed);
+        writer.print(result);
+        writer.printf("elapsedMillis=%.1f%n", elapsedNanos / 1e6);
+        return result;
+    }
+
+    /**
+     * Returns the scenario given by the parameters
+     *
+     * @return      the scenario
+     * @throws      IOException     if a distribution file cannot be read
+     * @throws      IllegalArgumentException    if a parameter is not valid
+     */
+    private Scenario getScenario() throws IOException {
+        int custCount       = getInt("custCount", 20, 0);
+        int callCount       = getInt("callCount", 100, 0);
+        int interval        = getInt("interval", 1, 1);
+        int length          = getInt("length", 5, 1);
+        Day day             = Day.valueOf(options.getProperty("day", "MON").toUpperCase());
+        int shift           = getInt("shift", 1);
+        if (shift != 1 && shift != 2) {
+            throw new IllegalArgumentException("Invalid shift: " + shift);
+        }
+
+        Scenario scenario = new Scenario(custCount, callCount, interval, length, day, shift);
+        if (options.getProperty("arrivals") != null) {
+            scenario.setArrivalTimes(Distributions.parse(options.getProperty("arrivals")));
+        }
+        if (options.getProperty("lengths") != null) {
+            scenario.setCallLengths(Distributions.parse(options.getProperty("lengths")));
+        }
+        if (options.getProperty("techCount") != null) {
+            scenario.setTechCount(getInt("techCount", Simulation.SCHEDULED_TECHS, 1));
+        }
+        int shiftHours      = getInt("shiftHours", 0, 0);
+        scenario.setShiftLength(shiftHours * 3600000L);
+        return scenario;
+    }
+
+    /**
+     * Writes the values of a scenario as lines of the form name=value
+     *
+     * @param       writer      destination of the values
+     * @param       scenario    the scenario
+     */
+    private static void writeScenario(PrintWriter writer, Scenario scenario) {
+        writer.printf("custCount=%d%ncallCount=%d%ninterval=%d%nlength=%d%nday=%s%n"
+                      + "shift=%d%n", scenario.getCustCount(), scenario.getCallCount(), 
+                      scenario.getInterval(), scenario.getLength(), scenario.getDay(), 
+                      scenario.getShift());
+        if (scenario.getShiftLength() != Simulation.SINGLE_SHIFT) {
+            writer.printf("shiftHours=%d%n", scenario.getShiftLength() / 3600000L);
+        }
+    }
+
+    /**
+     * Returns a long parameter
+     *
+     * @param       name            name of the parameter
+     * @return      the value of the parameter
+     * @throws      IllegalArgumentException    if the value is not a long
+     */
+    private long getLong(String name) {
+        String value = options.getProperty(name);
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + name + ": " + value);
+        }
+    }
+
+    /**
+     * Returns an integer parameter which must not be below a minimum
+     *
+     * @param       name            name of the parameter
+     * @param       defaultValue    value if the parameter is not given
+     * @param       min             minimum value
+     * @return      the value of the parameter
+     * @throws      IllegalArgumentException    if the value is not an integer, or is below
+     *                                          the minimum
+     */
+    private int getInt(String name, int defaultValue, int min) {
+        int value = getInt(name, defaultValue);
+        if (value < min) {
+            throw new IllegalArgumentException("Invalid " + name + ": " + value);
+        }
+        return value;
+    }
+
+    /**
+     * Returns an integer parameter
+     *
+     * @param       name            name of the parameter
+     * @param       defaultValue    value if the parameter is not given
+     * @return      the value of the parameter
+     * @throws      IllegalArgumentException    if the value is not an integer
+     */
+    private int getInt(String name, int defaultValue) {
+        String value = options.getProperty(name);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + name + ": " + value);
+        }
+    }
+
+
+    /**
+     * An observer which optionally writes console text, and lets a thread wait for the
+     * end of a real-time run
+     */
+    private static class CompletionObserver implements Observer {
+        /** Destination of console text, or null to discard it */
+        private PrintWriter     writer;
+        /** Whether or not the simulation has ended */
+        private boolean         hasEnded;
+
+        public CompletionObserver(PrintWriter writer) {
+            this.writer = writer;
+        }
+
+        public void update(int callsRemaining, int queueSize, int openCalls,
+                           int availableTechs) {
+        }
+
+        public synchronized void update(String consoleText) {
+            if (writer != null) {
+                writer.println(consoleText.trim());
+            }
+        }
+
+        public synchronized void update(boolean isRunning) {
+            if (!isRunning) {
+                hasEnded = true;
+                notifyAll();
+            }
+        }
+
+        /**
+         * Waits until the simulation has ended
+         */
+        public synchronized void awaitEnd() {
+            while (!hasEnded) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package com.stevencl.callcentersim;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * A histogram of non-negative durations with a fixed memory footprint. Values below 64 are
+ * counted exactly; above that, each power of two is split into 32 equal buckets, so every
+ * recorded value is known to within about 3% whatever its size. Recording a value only
+ * increments a counter, and never allocates.
+ *
+ * @author      Steven Leighton
+ * @version     2018-12-06
+ */
+public class Histogram {
+    /** Number of bits of precision below the highest set bit */
+    private static final int    SUB_BITS = 5;
+    /** Number of buckets per power of two */
+    private static final int    SUB_COUNT = 1 << SUB_BITS;
+    /** Number of buckets, enough for any non-negative long */
+    private static final int    BUCKETS = (64 - SUB_BITS) * SUB_COUNT;
+
+    /** Number of values in each bucket */
+    private long[]      counts;
+    /** Number of values recorded */
+    private long        count;
+    /** Sum of the values recorded */
+    private long        sum;
+    /** Smallest value recorded */
+    private long        min;
+    /** Largest value recorded */
+    private long        max;
+
+
+    /**
+     * Creates an empty Histogram
+     */
+    public Histogram() {
+        this.counts = new long[BUCKETS];
+        reset();
+    }
+
+
+    /**
+     * Records a value. Negative values are recorded as 0.
+     *
+     * @param       value       the value to be recorded
+     */
+    public void record(long value) {
+        if (value < 0) {
+            value = 0;
+        }
+        counts[bucketOf(value)]++;
+        count++;
+        sum += value;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    /**
+     * Adds every value recorded in another histogram to this one
+     *
+     * @param       other       the histogram to be added
+     */
+    public void add(Histogram other) {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] += other.counts[i];
+        }
+        count += other.count;
+        sum += other.sum;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    /**
+     * Writes the recorded values in binary, listing only the buckets which are not empty
+     *
+     * @param       out         destination of the values
+     * @throws      IOException if the values cannot be written
+     */
+    void write(DataOutput out) throws IOException {
+        out.writeLong(count);
+        out.writeLong(sum);
+        out.writeLong(min);
+        out.writeLong(max);
+        int used = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            if (counts[i] != 0) {
+                used++;
+            }
+        }
+        out.writeInt(used);
+        for (int i = 0; i < BUCKETS; i++) {
+            if (counts[i] != 0) {
+                out.writeShort(i);
+                out.writeLong(counts[i]);
+            }
+        }
+    }
+
+    /**
+     * Replaces the recorded values with values written by write
+     *
+     * @param       in          source of the values
+     * @throws      IOException if the values cannot be read, or are not valid
+     */
+    void read(DataInput in) throws IOException {
+        reset();
+        count = in.readLong();
+        sum = in.readLong();
+        min = in.readLong();
+        max = in.readLong();
+        int used = in.readInt();
+        for (int i = 0; i < used; i++) {
+            int bucket = in.readShort();
+            if (bucket < 0 || bucket >= BUCKETS) {
+                throw new IOException("Invalid histogram bucket: " + bucket);
+            }
+            counts[bucket] = in.readLong();
+        }
+    }
+
+    /**
+     * Removes every recorded value
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = 0;
+        }
+        count = 0;
+        sum = 0;
+        min = Long.MAX_VALUE;
+        max = 0;
+    }
+
+
+    /**
+     * Returns the number of values recorded
+     *
+     * @return      the number of values recorded
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Returns the smallest value recorded
+     *
+     * @return      the smallest value, or 0 if none was recorded
+     */
+    public long getMin() {
+        return count == 0 ? 0 : min;
+    }
+
+    /**
+     * Returns the largest value recorded
+     *
+     * @return      the largest value, or 0 if none was recorded
+     */
+    public long getMax() {
+        return max;
+    }
+
+    /**
+     * Returns the mean of the values recorded
+     *
+     * @return      the mean, or 0 if none was recorded
+     */
+    public double getMean() {
+        return count == 0 ? 0 : (double)sum / count;
+    }
+
+    /**
+     * Returns the value below which the given percentage of recorded values fall, as the
+     * highest value of the bucket it falls in
+     *
+     * @param       percentile  the percentage, from 0 to 100
+     * @return      the value at the percentile, or 0 if none was recorded
+     * @throws      IllegalArgumentException    if the percentage is not from 0 to 100
+     */
+    public long getValueAtPercentile(double percentile) {
+        if (!(percentile >= 0 && percentile <= 100)) {
+            throw new IllegalArgumentException("Invalid percentile: " + percentile);
+        }
+        if (count == 0) {
+            return 0;
+        }
+        long target = Math.max(1, (long)Math.ceil(percentile / 100 * count));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= target) {
+                return Math.max(getMin(), Math.min(max, highestValueOf(i)));
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Returns the 50th, 90th and 99th percentiles and the maximum
+     *
+     * @return      the main percentiles, in the form p50=A p90=B p99=C max=D
+     */
+    @Override
+    public String toString() {
+        return String.format("p50=%d p90=%d p99=%d max=%d", getValueAtPercentile(50),
+                             getValueAtPercentile(90), getValueAtPercentile(99), max);
+    }
+
+
+    /**
+     * Returns the bucket of the given value
+     *
+     * @param       value       a non-negative value
+     * @return      the index of its bucket
+     */
+    private static int bucketOf(long value) {
+        if (value < 2 * SUB_COUNT) {
+            return (int)value;
+        }
+        int highestBit = 63 - Long.numberOfLeadingZeros(value);
+        int shift = highestBit - SUB_BITS;
+        return (shift + 1) * SUB_COUNT + (int)((value >>> shift) - SUB_COUNT);
+    }
+
+    /**
+     * Returns the highest value which falls in the given bucket
+     *
+     * @param       bucket      index of the bucket
+     * @return      the highest value of the bucket
+     */
+    private static long highestValueOf(int bucket) {
+        if (bucket < 2 * SUB_COUNT) {
+            return bucket;
+        }
+        int shift = bucket / SUB_COUNT - 1;
+        long lowest = (long)(SUB_COUNT + bucket % SUB_COUNT) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+}
@@ -0,0 +1,192 @@
+package com.stevencl.callcentersim;
+
+import java.util.Arrays;
+
+/**
+ * Maps numeric customer or tech ids to dense int handles, which index the arrays of loaded
+ * records. Ids and handles are stored in parallel open-addressing tables and are never
+ * boxed. Handles are non-negative.
+ *
+ * @author      Steven Leighton
+ * @version     2018-12-06
+ */
+public class IdIndex {
+    /** Maximum load factor of the hash table */
+    private static final double MAX_LOAD_FACTOR = 0.75;
+    /** Initial size of the hash table, which must be a power of two */
+    private static final int INITIAL_SIZE = 16;
+    /** Multiplier used to spread ids over the table (2^32 divided by phi) */
+    private static final int HASH_MULTIPLIER = 0x9E3779B9;
+    /** Marker for an empty slot in the id table */
+    private static final int EMPTY = Integer.MIN_VALUE;
+    /** Handle returned for ids which are not in the index */
+    public static final int NO_HANDLE = -1;
+
+    /** Id table, in which empty slots hold EMPTY */
+    private int[]       ids;
+    /** Handle table, parallel to the id table */
+    private int[]       handles;
+    /** Handle for the EMPTY id itself, since it has no slot */
+    private int         emptyHandle;
+    /** Number of ids in the index */
+    private int         size;
+    /** Number of ids at which the tables are resized */
+    private int         threshold;
+
+
+    /**
+     * Creates an empty IdIndex
+     */
+    public IdIndex() {
+        this(INITIAL_SIZE);
+    }
+
+    /**
+     * Creates an empty IdIndex with room for the expected number of ids
+     *
+     * @param       expectedSize    expected number of ids
+     */
+    public IdIndex(int expectedSize) {
+        int capacity = INITIAL_SIZE;
+        while (capacity * MAX_LOAD_FACTOR < expectedSize) {
+            capacity *= 2;
+        }
+        ids = new int[capacity];
+        handles = new int[capacity];
+        for (int i = 0; i < capacity; i++) {
+            ids[i] = EMPTY;
+        }
+        threshold = (int)(capacity * MAX_LOAD_FACTOR);
+        emptyHandle = NO_HANDLE;
+        size = 0;
+    }
+
+
+    /**
+     * Returns the number of ids in the index
+     *
+     * @return      the number of ids in the index
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the handle for the given id
+     *
+     * @param       id          the id to be looked up
+     * @return      the handle for the given id, or NO_HANDLE if not in the index
+     */
+    public int get(int id) {
+        if (id == EMPTY) {
+            return emptyHandle;
+        }
+
+        int mask = ids.length - 1;
+        int index = hashFunction(id);
+        while (ids[index] != EMPTY) {
+            if (ids[index] == id) {
+                return handles[index];
+            }
+            index = (index + 1) & mask;
+        }
+        return NO_HANDLE;
+    }
+
+    /**
+     * Returns every handle in the index, in ascending order
+     *
+     * @return      every handle in the index, in ascending order
+     */
+    public int[] getHandles() {
+        int[] result = new int[size];
+        int count = 0;
+        if (emptyHandle != NO_HANDLE) {
+            result[count++] = emptyHandle;
+        }
+        for (int i = 0; i < ids.length; i++) {
+            if (ids[i] != EMPTY) {
+                result[count++] = handles[i];
+            }
+        }
+        Arrays.sort(result);
+        return result;
+    }
+
+    /**
+     * Maps the given id to the given handle, unless the id is already in the index
+     *
+     * @param       id          the id to be added
+     * @param       handle      the handle for the id
+     * @return      the handle now mapped to the id, which is the existing handle if the id
+     *              was already in the index
+     * @throws      IllegalArgumentException    if the handle is negative
+     */
+    public int putIfAbsent(int id, int handle) {
+        if (handle < 0) {
+            throw new IllegalArgumentException("Handles must not be negative");
+        }
+        if (id == EMPTY) {
+            if (emptyHandle == NO_HANDLE) {
+                emptyHandle = handle;
+                size++;
+            }
+            return emptyHandle;
+        }
+
+        int mask = ids.length - 1;
+        int index = hashFunction(id);
+        while (ids[index] != EMPTY) {
+            if (ids[index] == id) {
+                return handles[index];
+            }
+            index = (index + 1) & mask;
+        }
+
+        ids[index] = id;
+        handles[index] = handle;
+        size++;
+        if (size > threshold) {
+            rehash();
+        }
+        return handle;
+    }
+
+
+    /**
+     * Returns the preferred hash bucket index for the given id
+     *
+     * @param       id          id to be checked
+     * @return      the preferred hash bucket index for the given id
+     */
+    private int hashFunction(int id) {
+        int shift = Integer.numberOfLeadingZeros(ids.length) + 1;
+        return (id * HASH_MULTIPLIER) >>> shift;
+    }
+
+    /**
+     * Resizes the tables to twice their former size, then rehashes data
+     */
+    private void rehash() {
+        int[] oldIds = ids;
+        int[] oldHandles = handles;
+        ids = new int[2 * oldIds.length];
+        handles = new int[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = EMPTY;
+        }
+        threshold = (int)(ids.length * MAX_LOAD_FACTOR);
+
+        int mask = ids.length - 1;
+        for (int i = 0; i < oldIds.length; i++) {
+            if (oldIds[i] != EMPTY) {
+                int index = hashFunction(oldIds[i]);
+                while (ids[index] != EMPTY) {
+                    index = (index + 1) & mask;
+                }
+                ids[index] = oldIds[i];
+                handles[index] = oldHandles[i];
+            }
+        }
+    }
+}
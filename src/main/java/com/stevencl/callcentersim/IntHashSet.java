@@ -0,0 +1,244 @@
+package com.stevencl.callcentersim;
+
+/**
+ * An unordered Set of primitive int values, stored in an open-addressing hash table with
+ * linear probing. Values are never boxed, and adding and removing values does not
+ * allocate, except when the table grows.
+ *
+ * @author      Steven Leighton
+ * @version     2018-12-06
+ */
+public class IntHashSet {
+    /** Maximum load factor of the hash table */
+    private static final double MAX_LOAD_FACTOR = 0.75;
+    /** Initial size of the hash table, which must be a power of two */
+    private static final int INITIAL_SIZE = 16;
+    /** Multiplier used to spread values over the table (2^32 divided by phi) */
+    private static final int HASH_MULTIPLIER = 0x9E3779B9;
+    /** Marker for an empty slot in the hash table */
+    private static final int EMPTY = Integer.MIN_VALUE;
+
+    /** Hash table, in which empty slots hold EMPTY */
+    private int[]       elementData;
+    /** Whether or not the EMPTY value itself is in the set, since it has no slot */
+    private boolean     containsEmpty;
+    /** Number of elements in the set */
+    private int         size;
+    /** Number of elements at which the table is resized */
+    private int         threshold;
+
+
+    /**
+     * Creates empty IntHashSet with initial size capacity
+     */
+    public IntHashSet() {
+        elementData = newTable(INITIAL_SIZE);
+        threshold = (int)(INITIAL_SIZE * MAX_LOAD_FACTOR);
+        containsEmpty = false;
+        size = 0;
+    }
+
+
+    /**
+     * Returns the number of elements in the set
+     *
+     * @return      the number of elements in the set
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Checks whether or not the set is empty
+     *
+     * @return      true if the set is empty, otherwise false
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Checks whether or not a given value is in the set
+     *
+     * @param       value       the value to be checked
+     * @return      true if the given value is in the set, otherwise false
+     */
+    public boolean contains(int value) {
+        if (value == EMPTY) {
+            return containsEmpty;
+        }
+        return indexOf(value) >= 0;
+    }
+
+    /**
+     * Returns a string representation of this IntHashSet, such as "[10, 20, 30]", with
+     * elements in no particular order
+     *
+     * @return      a string representation of this IntHashSet
+     */
+    public String toString() {
+        StringBuilder result = new StringBuilder("[");
+        boolean first = true;
+        if (containsEmpty) {
+            result.append(EMPTY);
+            first = false;
+        }
+        for (int i = 0; i < elementData.length; i++) {
+            if (elementData[i] != EMPTY) {
+                if (!first) {
+                    result.append(", ");
+                }
+                result.append(elementData[i]);
+                first = false;
+            }
+        }
+        return result.append("]").toString();
+    }
+
+
+    /**
+     * Adds the given element to this set, if not already there
+     *
+     * @param       value       the value to be added
+     * @return      true if the element was added, otherwise false
+     */
+    public boolean add(int value) {
+        if (value == EMPTY) {
+            if (containsEmpty) {
+                return false;
+            }
+            containsEmpty = true;
+            size++;
+            return true;
+        }
+
+        int mask = elementData.length - 1;
+        int index = hashFunction(value);
+        while (elementData[index] != EMPTY) {
+            if (elementData[index] == value) {
+                return false;
+            }
+            index = (index + 1) & mask;
+        }
+
+        elementData[index] = value;
+        size++;
+        if (size > threshold) {
+            rehash();
+        }
+        return true;
+    }
+
+    /**
+     * Removes the given value if in the set; if not in set, does nothing
+     *
+     * @param       value       value to be removed
+     */
+    public void remove(int value) {
+        if (value == EMPTY) {
+            if (containsEmpty) {
+                containsEmpty = false;
+                size--;
+            }
+            return;
+        }
+
+        int index = indexOf(value);
+        if (index < 0) {
+            return;
+        }
+
+        // shift later entries of the probe run back, so that no tombstone is needed
+        int mask = elementData.length - 1;
+        int hole = index;
+        int next = (hole + 1) & mask;
+        while (elementData[next] != EMPTY) {
+            int preferred = hashFunction(elementData[next]);
+            if (((next - preferred) & mask) >= ((next - hole) & mask)) {
+                elementData[hole] = elementData[next];
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        elementData[hole] = EMPTY;
+        size--;
+    }
+
+    /**
+     * Removes all elements from the set
+     */
+    public void clear() {
+        for (int i = 0; i < elementData.length; i++) {
+            elementData[i] = EMPTY;
+        }
+        containsEmpty = false;
+        size = 0;
+    }
+
+
+    /**
+     * Returns the table index holding the given value
+     *
+     * @param       value       value to be found, other than EMPTY
+     * @return      the table index holding the given value, or -1 if not in the set
+     */
+    private int indexOf(int value) {
+        int mask = elementData.length - 1;
+        int index = hashFunction(value);
+        while (elementData[index] != EMPTY) {
+            if (elementData[index] == value) {
+                return index;
+            }
+            index = (index + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the preferred hash bucket index for the given value
+     *
+     * @param       value       value to be checked
+     * @return      the preferred hash bucket index for the given value
+     */
+    private int hashFunction(int value) {
+        int shift = Integer.numberOfLeadingZeros(elementData.length) + 1;
+        return (value * HASH_MULTIPLIER) >>> shift;
+    }
+
+    /**
+     * Creates a hash table in which every slot is empty
+     *
+     * @param       capacity    number of slots
+     * @return      a hash table in which every slot is empty
+     */
+    private static int[] newTable(int capacity) {
+        int[] table = new int[capacity];
+        for (int i = 0; i < capacity; i++) {
+            table[i] = EMPTY;
+        }
+        return table;
+    }
+
+    /**
+     * Resizes the hash table to twice its former size, then rehashes data
+     */
+    private void rehash() {
+        // replace element data array with a larger empty version
+        int[] oldElementData = elementData;
+        elementData = newTable(2 * oldElementData.length);
+        threshold = (int)(elementData.length * MAX_LOAD_FACTOR);
+
+        // move all of the old data into the new array
+        int mask = elementData.length - 1;
+        for (int i = 0; i < oldElementData.length; i++) {
+            int current = oldElementData[i];
+            if (current != EMPTY) {
+                int index = hashFunction(current);
+                while (elementData[index] != EMPTY) {
+                    index = (index + 1) & mask;
+                }
+                elementData[index] = current;
+            }
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.stevencl.callcentersim;
+
+import java.util.NoSuchElementException;
+
+/**
+ * A queue of primitive int values which uses an IntHashSet to ensure that all values are
+ * unique. Values are stored in a growable circular array and are never boxed.
+ *
+ * @author      Steven Leighton
+ * @version     2018-12-06
+ */
+public class IntHashSetQueue {
+    /** Initial capacity of the circular array, which must be a power of two */
+    private static final int INITIAL_SIZE = 16;
+
+    /** Circular array of queued values */
+    private int[]           elementData;
+    /** Index of the front value */
+    private int             front;
+    /** Queue size */
+    private int             size;
+    /** Set of all values contained in the queue */
+    private IntHashSet      values;
+
+
+    /**
+     * Creates an empty queue
+     */
+    public IntHashSetQueue() {
+        this.elementData = new int[INITIAL_SIZE];
+        this.front = 0;
+        this.size = 0;
+        this.values = new IntHashSet();
+    }
+
+
+    /**
+     * Returns the current number of elements in the queue
+     *
+     * @return      the current number of elements in the queue
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Checks whether or not the queue is empty
+     *
+     * @return      true if the queue is empty, otherwise false
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Checks whether or not a given value is in the queue
+     *
+     * @param       value       the value to be checked
+     * @return      true if the given value is in the queue, otherwise false
+     */
+    public boolean contains(int value) {
+        return values.contains(value);
+    }
+
+    /**
+     * Returns a comma-separated, bracketed string representation of the queue
+     *
+     * @return      a comma-separated, bracketed string representation of the queue
+     */
+    @Override
+    public String toString() {
+        StringBuilder result = new StringBuilder("[");
+        int mask = elementData.length - 1;
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                result.append(", ");
+            }
+            result.append(elementData[(front + i) & mask]);
+        }
+        return result.append("]").toString();
+    }
+
+
+    /**
+     * Returns the values in the queue, from front to back
+     *
+     * @return      a new array of the values in the queue
+     */
+    public int[] toArray() {
+        int[] result = new int[size];
+        int mask = elementData.length - 1;
+        for (int i = 0; i < size; i++) {
+            result[i] = elementData[(front + i) & mask];
+        }
+        return result;
+    }
+
+    /**
+     * Appends the given value to the end of the queue, only if the value is not already
+     * contained in the queue
+     *
+     * @param       value       value to be added to the queue
+     * @return      true if the value was added, otherwise false
+     */
+    public boolean add(int value) {
+        if (!values.add(value)) {
+            return false;
+        }
+
+        if (size == elementData.length) {
+            grow();
+        }
+        elementData[(front + size) & (elementData.length - 1)] = value;
+        size++;
+        return true;
+    }
+
+    /**
+     * Returns the first value in the queue without removing it from the queue
+     *
+     * @return      the first value in the queue
+     */
+    public int peek() {
+        if (size == 0) {
+            throw new NoSuchElementException("The queue is empty");
+        }
+
+        return elementData[front];
+    }
+
+    /**
+     * Returns the first value in the queue and removes it from the queue
+     *
+     * @return      the first value in the queue
+     */
+    public int remove() {
+        if (size == 0) {
+            throw new NoSuchElementException("The queue is empty");
+        }
+
+        int removedData = elementData[front];
+        front = (front + 1) & (elementData.length - 1);
+        size--;
+        values.remove(removedData);
+        return removedData;
+    }
+
+    /**
+     * Empties the queue
+     */
+    public void clear() {
+        front = 0;
+        size = 0;
+        values.clear();
+    }
+
+
+    /**
+     * Doubles the capacity of the circular array, moving the front value to index 0
+     */
+    private void grow() {
+        int[] oldElementData = elementData;
+        elementData = new int[2 * oldElementData.length];
+
+        // copy the wrapped-around halves in queue order
+        int frontLength = oldElementData.length - front;
+        System.arraycopy(oldElementData, front, elementData, 0, frontLength);
+        System.arraycopy(oldElementData, 0, elementData, frontLength, front);
+        front = 0;
+    }
+}
@@ -0,0 +1,516 @@
+package com.stevencl.callcentersim;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+
+/**
+ * Replays a run recorded by an EventJournal, as fast as the journal can be read. The queues
+ * and open calls are rebuilt record by record, and observers are notified just as they
+ * would have been by the simulation, so a run can be examined after the fact without
+ * running it again. The statistics of the run are rebuilt as well, including the time techs
+ * were on duty when shifts change during the run.
+ *
+ * <p>The journal must be replayed on the same customer and tech data it was recorded with,
+ * as records refer to customers and techs by handle.
+ *
+ * @author      Steven Leighton
+ * @version     2018-12-06
+ */
+public class JournalReplayer implements Subject {
+    /** Path of the journal file */
+    private String                  fileName;
+    /** Observer list */
+    private ArrayList<Observer>     observers;
+    /** All customers */
+    private CustomerSource          customers;
+    /** All techs */
+    private Tech[]                  techs;
+    /** Seed of the run */
+    private long                    seed;
+    /** Initial customers in queue */
+    private int                     custCount;
+    /** Number of calls simulated */
+    private int                     callCount;
+    /** Day simulated */
+    private Day                     day;
+    /** Shift simulated */
+    private int                     shift;
+    /** Number of records, or -1 if the journal was not closed */
+    private long                    recordCount;
+
+    /** Customer queue, holding customer handles */
+    private IntHashSetQueue         custQueue;
+    /** Tech queue, holding tech handles */
+    private IntHashSetQueue         techQueue;
+    /** Open call of each tech, indexed by tech handle */
+    private Call[]                  openCalls;
+    /** Number of open calls */
+    private int                     openCount;
+    /** Time each waiting customer joined the queue, indexed by customer handle */
+    private long[]                  queuedAt;
+    /** Time each waiting tech joined the queue, indexed by tech handle */
+    private long[]                  idleSince;
+    /** Whether or not each tech has left the queue, pending the next rebuild */
+    private boolean[]               isLeaving;
+    /** Number of techs which have left the queue, pending the next rebuild */
+    private int                     leaveCount;
+    /** Simulated time of the pending departures, in milliseconds */
+    private long                    leaveTime;
+    /** Remaining calls */
+    private int                     callsRemaining;
+    /** Simulated time of the last record replayed, in milliseconds */
+    private long                    clock;
+    /** Whether or not shifts change during the run */
+    private boolean                 isShifting;
+    /** Simulated time the current shift started, in milliseconds */
+    private long                    shiftStart;
+    /** Number of techs on duty in the current shift */
+    private int                     dutyCount;
+    /** Statistics rebuilt from the journal */
+    private RunStats                stats;
+
+
+    /**
+     * Opens a journal and reads its header
+     *
+     * @param       fileName        path of the journal file
+     * @param       data            data the journal was recorded with
+     * @throws      IOException     if the file cannot be read, or is not a journal
+     * @throws      IllegalArgumentException    if the journal was recorded with other data
+     */
+    public JournalReplayer(String fileName, SimulationData data) throws IOException {
+        this.fileName = fileName;
+        this.observers = new ArrayList<>();
+        this.customers = data.getCustomers();
+        this.techs = data.getTechs();
+
+        ByteBuffer header = ByteBuffer.allocate(EventJournal.HEADER_SIZE);
+        try (FileChannel channel = FileChannel.open(Paths.get(fileName),
+                                                    StandardOpenOption.READ)) {
+            while (header.hasRemaining() && channel.read(header) >= 0) {
+                // keep reading until the header is complete or the file ends
+            }
+        }
+        header.flip();
+        if (header.remaining() < EventJournal.HEADER_SIZE
+            || header.getInt() != EventJournal.MAGIC) {
+            throw new IOException("Not a journal file: " + fileName);
+        }
+        int version = header.getInt();
+        if (version != EventJournal.VERSION) {
+            throw new IOException("Unsupported journal version: " + version);
+        }
+        seed = header.getLong();
+        custCount = header.getInt();
+        callCount = header.getInt();
+        day = Day.values()[header.getInt()];
+        shift = header.getInt();
+        int customerTotal = header.getInt();
+        int techTotal = header.getInt();
+        recordCount = header.getLong();
+        if (customerTotal != customers.size() || techTotal != techs.length) {
+            throw new IllegalArgumentException(String.format(
+                "Journal was recorded with %d customers and %d techs", customerTotal,
+                techTotal));
+        }
+    }
+
+
+    /**
+     * Replays the whole journal, notifying observers of every change
+     *
+     * @throws      IOException     if the file cannot be read, or its records do not
+     *                              describe a possible run
+     */
+    public void replay() throws IOException {
+        custQueue = new IntHashSetQueue();
+        techQueue = new IntHashSetQueue();
+        openCalls = new Call[techs.length];
+        openCount = 0;
+        queuedAt = new long[customers.size()];
+        idleSince = new long[techs.length];
+        isLeaving = new boolean[techs.length];
+        leaveCount = 0;
+        callsRemaining = callCount;
+        clock = 0;
+        isShifting = false;
+        stats = null;
+        notifyObservers(true);
+
+        boolean isFinished = false;
+        try (FileChannel channel = FileChannel.open(Paths.get(fileName),
+                                                    StandardOpenOption.READ)) {
+            long available = (channel.size() - EventJournal.HEADER_SIZE)
+                             / EventJournal.RECORD_SIZE;
+            long total = recordCount >= 0 ? Math.min(recordCount, available) : available;
+            long offset = EventJournal.HEADER_SIZE;
+            for (long done = 0; done < total && !isFinished; ) {
+                int records = (int)Math.min(EventJournal.CHUNK_RECORDS, total - done);
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, offset,
+                                                      (long)records * EventJournal.RECORD_SIZE);
+                for (int i = 0; i < records && !isFinished; i++) {
+                    byte type = buffer.get();
+                    long time = buffer.getLong();
+                    int customer = buffer.getInt();
+                    int tech = buffer.getInt();
+                    int length = buffer.getInt();
+                    if (type == 0) {
+                        // rest of a journal which was not closed
+                        isFinished = true;
+                    } else {
+                        isFinished = apply(type, time, customer, tech, length);
+                    }
+                }
+                done += records;
+                offset += (long)records * EventJournal.RECORD_SIZE;
+            }
+        }
+
+        removeLeaving();
+        if (stats == null) {
+            stats = new RunStats(techQueue.size());
+        }
+        stats.recordTime(clock);
+        notifyObservers(false);
+    }
+
+    /**
+     * Applies one record to the queues and open calls, and notifies observers
+     *
+     * @param       type        record type
+     * @param       time        simulated time, in milliseconds
+     * @param       customer    customer handle, or -1
+     * @param       tech        tech handle, or -1
+     * @param       length      call length, in milliseconds, or -1
+     * @return      true if the record ends the run, otherwise false
+     * @throws      IOException if the record does not follow from the ones before it
+     */
+    private boolean apply(byte type, long time, int customer, int tech, int length)
+        throws IOException {
+        if (leaveCount > 0 && (type != EventJournal.TECH_LEAVE || time != leaveTime)) {
+            removeLeaving();
+        }
+        clock = time;
+        if (type != EventJournal.TECH_READY && stats == null) {
+            stats = new RunStats(techQueue.size());
+        }
+        switch (type) {
+            case EventJournal.TECH_READY:
+                checkTech(tech);
+                techQueue.add(tech);
+                idleSince[tech] = time;
+                return false;
+            case EventJournal.ARRIVAL:
+                checkCustomer(customer);
+                custQueue.add(customer);
+                queuedAt[customer] = time;
+                stats.recordQueueSize(custQueue.size());
+                break;
+            case EventJournal.DROP:
+                stats.recordDroppedCall();
+                break;
+            case EventJournal.START:
+                if (custQueue.isEmpty() || custQueue.peek() != customer
+                    || techQueue.isEmpty() || techQueue.peek() != tech) {
+                    throw new IOException("Call start out of queue order at " + time);
+                }
+                custQueue.remove();
+                techQueue.remove();
+                Call call = new Call(customers, techs[tech], customer, tech, length);
+                call.setStarted(queuedAt[customer], time);
+                openCalls[tech] = call;
+                openCount++;
+                callsRemaining--;
+                stats.recordCallStart(time - queuedAt[customer]);
+                stats.recordTechIdle(time - idleSince[tech]);
+                if (!observers.isEmpty()) {
+                    notifyObservers(call + "\n");
+                }
+                break;
+            case EventJournal.END:
+                checkTech(tech);
+                Call ended = openCalls[tech];
+                if (ended == null || ended.getCustomerHandle() != customer) {
+                    throw new IOException("Call end without a start at " + time);
+                }
+                ended.setEnded(time);
+                openCalls[tech] = null;
+                openCount--;
+                techQueue.add(tech);
+                idleSince[tech] = time;
+                stats.recordCallEnd(time - ended.getStartedAt());
+                break;
+            case EventJournal.TECH_LEAVE:
+                // techs leave together at a shift change, so the queue is rebuilt once for
+                // all of them, when the next record does not leave at the same time
+                checkTech(tech);
+                if (!techQueue.contains(tech) || isLeaving[tech]) {
+                    throw new IOException("Tech left without waiting at " + time);
+                }
+                isLeaving[tech] = true;
+                leaveCount++;
+                leaveTime = time;
+                return false;
+            case EventJournal.SHIFT:
+                if (length < 0 || length >= RosterIndex.SLOTS) {
+                    throw new IOException("Invalid shift at " + time);
+                }
+                if (isShifting) {
+                    stats.recordStaffedTime((time - shiftStart) * dutyCount);
+                    if (!observers.isEmpty()) {
+                        notifyObservers("Shift change: "
+                                        + Day.values()[length / RosterIndex.SHIFTS]
+                                        + " shift " + (length % RosterIndex.SHIFTS + 1) + ", "
+                                        + tech + " techs on duty\n");
+                    }
+                }
+                isShifting = true;
+                shiftStart = time;
+                dutyCount = tech;
+                break;
+            case EventJournal.FINISH:
+                if (isShifting) {
+                    stats.recordStaffedTime((time - shiftStart) * dutyCount);
+                }
+                if (callsRemaining <= 0 && openCount == 0) {
+                    notifyObservers("Simulation complete");
+                }
+                return true;
+            default:
+                throw new IOException("Invalid record type: " + type);
+        }
+        notifyObservers(callsRemaining, custQueue.size(), openCount, techQueue.size());
+        return false;
+    }
+
+    /**
+     * Removes the techs which have left from the tech queue, keeping the order of the rest,
+     * and notifies observers
+     */
+    private void removeLeaving() {
+        if (leaveCount == 0) {
+            return;
+        }
+        int[] waiting = techQueue.toArray();
+        techQueue.clear();
+        for (int handle : waiting) {
+            if (isLeaving[handle]) {
+                isLeaving[handle] = false;
+            } else {
+                techQueue.add(handle);
+            }
+        }
+        leaveCount = 0;
+        notifyObservers(callsRemaining, custQueue.size(), openCount, techQueue.size());
+    }
+
+    /**
+     * Checks that a customer handle is in range
+     *
+     * @param       customer    customer handle
+     * @throws      IOException if the handle is out of range
+     */
+    private void checkCustomer(int customer) throws IOException {
+        if (customer < 0 || customer >= queuedAt.length) {
+            throw new IOException("Invalid customer handle: " + customer);
+        }
+    }
+
+    /**
+     * Checks that a tech handle is in range
+     *
+     * @param       tech        tech handle
+     * @throws      IOException if the handle is out of range
+     */
+    private void checkTech(int tech) throws IOException {
+        if (tech < 0 || tech >= techs.length) {
+            throw new IOException("Invalid tech handle: " + tech);
+        }
+    }
+
+
+    /**
+     * Returns the seed of the run
+     *
+     * @return      the seed of the run
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Returns the initial customers in queue
+     *
+     * @return      the initial customers in queue
+     */
+    public int getCustCount() {
+        return custCount;
+    }
+
+    /**
+     * Returns the number of calls simulated
+     *
+     * @return      the number of calls simulated
+     */
+    public int getCallCount() {
+        return callCount;
+    }
+
+    /**
+     * Returns the day simulated
+     *
+     * @return      the day simulated
+     */
+    public Day getDay() {
+        return day;
+    }
+
+    /**
+     * Returns the shift simulated
+     *
+     * @return      the shift simulated
+     */
+    public int getShift() {
+        return shift;
+    }
+
+    /**
+     * Returns the simulated time of the last record replayed
+     *
+     * @return      the simulated time, in milliseconds
+     */
+    public long getClock() {
+        return clock;
+    }
+
+    /**
+     * Returns the number of customers in queue
+     *
+     * @return      the queue size
+     */
+    public int getQueueSize() {
+        return custQueue == null ? 0 : custQueue.size();
+    }
+
+    /**
+     * Returns the number of techs in queue
+     *
+     * @return      the number of available techs
+     */
+    public int getAvailableTechs() {
+        return techQueue == null ? 0 : techQueue.size();
+    }
+
+    /**
+     * Returns the number of calls remaining
+     *
+     * @return      the number of calls remaining
+     */
+    public int getCallsRemaining() {
+        return callsRemaining;
+    }
+
+    /**
+     * Returns the calls which are open at the point replayed to
+     *
+     * @return      the open calls, in order of tech handle
+     */
+    public ArrayList<Call> getOpenCalls() {
+        ArrayList<Call> open = new ArrayList<>(openCount);
+        if (openCalls != null) {
+            for (Call call : openCalls) {
+                if (call != null) {
+                    open.add(call);
+                }
+            }
+        }
+        return open;
+    }
+
+    /**
+     * Returns the statistics rebuilt from the journal
+     *
+     * @return      the statistics of the run, or null before replaying
+     */
+    public RunStats getStats() {
+        return stats;
+    }
+
+
+    public void addObserver(Observer observer) {
+        observers.add(observer);
+    }
+
+    public void removeObserver(Observer observer) {
+        observers.remove(observer);
+    }
+
+    public void notifyObservers(int callsRemaining, int queueSize, int openCalls,
+                                int availableTechs) {
+        for (Observer observer : observers) {
+            observer.update(callsRemaining, queueSize, openCalls, availableTechs);
+        }
+    }
+
+    public void notifyObservers(String consoleText) {
+        for (Observer observer : observers) {
+            observer.update(consoleText);
+        }
+    }
+
+    public void notifyObservers(boolean isRunning) {
+        for (Observer observer : observers) {
+            observer.update(isRunning);
+        }
+    }
+
+
+    /**
+     * Replays a journal recorded with the default data files and writes the statistics of
+     * the run, and with --verbose every console line as well
+     *
+     * @param       args        path of the journal file, optionally followed by --verbose
+     */
+    public static void main(String[] args) {
+        if (args.length < 1) {
+            System.err.println("Usage: JournalReplayer JOURNAL [--verbose]");
+            System.exit(1);
+        }
+        PrintWriter writer = new PrintWriter(new OutputStreamWriter(System.out,
+                                                                    StandardCharsets.UTF_8));
+        try {
+            JournalReplayer replayer = new JournalReplayer(args[0],
+                                                           new SimulationData(false, 0));
+            if (args.length > 1 && args[1].equals("--verbose")) {
+                replayer.addObserver(new Observer() {
+                    public void update(int callsRemaining, int queueSize, int openCalls,
+                                       int availableTechs) {
+                    }
+
+                    public void update(String consoleText) {
+                        writer.println(consoleText.trim());
+                    }
+
+                    public void update(boolean isRunning) {
+                    }
+                });
+            }
+            replayer.replay();
+            writer.printf("seed=%d%n", replayer.getSeed());
+            writer.print(replayer.getStats());
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("Error: " + e.getMessage());
+            System.exit(1);
+        } finally {
+            writer.flush();
+        }
+    }
+}
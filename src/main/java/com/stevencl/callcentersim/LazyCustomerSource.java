@@ -0,0 +1,221 @@
+package com.stevencl.callcentersim;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A source of customers which only indexes the file at load time, keeping each row's id
+ * and offset, and decodes a row into a Customer the first time it is asked for. Decoded
+ * customers can be kept in a bounded least-recently-used cache. The file stays open until
+ * the source is closed.
+ *
+ * @author      Steven Leighton
+ * @version     2018-12-06
+ */
+public class LazyCustomerSource implements CustomerSource, Closeable {
+    /** Initial number of rows */
+    private static final int    INITIAL_SIZE = 1024;
+    /** Number of bytes read at a time when decoding a row */
+    private static final int    READ_SIZE = 256;
+    /** Number of fields in a customer row */
+    private static final int    FIELDS = 5;
+
+    /** Channel for the customer file */
+    private FileChannel                     channel;
+    /** Customer ids */
+    private int[]                           ids;
+    /** Offset of each row in the file */
+    private long[]                          offsets;
+    /** Number of rows */
+    private int                             size;
+    /** Decoded customers, least recently used first, or null if not caching */
+    private LinkedHashMap<Integer, Customer> cache;
+    /** Loader used to index the file */
+    private CsvLoader                       loader;
+
+
+    /**
+     * Indexes the given customer file
+     *
+     * @param       fileName        path of the customer file
+     * @param       cacheSize       maximum number of decoded customers to keep, or 0 to
+     *                              decode a row every time it is asked for
+     * @throws      IOException     if the file cannot be read
+     */
+    public LazyCustomerSource(String fileName, int cacheSize) throws IOException {
+        ids = new int[INITIAL_SIZE];
+        offsets = new long[INITIAL_SIZE];
+        size = 0;
+        loader = new CsvLoader(fileName);
+        loader.load(row -> {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, 2 * size);
+                offsets = Arrays.copyOf(offsets, 2 * size);
+            }
+            ids[size] = row.getInt(0);
+            offsets[size] = row.getOffset();
+            size++;
+        });
+        ids = Arrays.copyOf(ids, size);
+        offsets = Arrays.copyOf(offsets, size);
+
+        if (cacheSize > 0) {
+            cache = new LinkedHashMap<Integer, Customer>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Integer, Customer> eldest) {
+                    return size() > cacheSize;
+                }
+            };
+        }
+        channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ);
+    }
+
+
+    /**
+     * Returns the loader used to index the file
+     *
+     * @return      the loader used to index the file
+     */
+    public CsvLoader getLoader() {
+        return loader;
+    }
+
+    /**
+     * Returns the number of customers
+     *
+     * @return      the number of customers
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the id of the given customer, without decoding the row
+     *
+     * @param       handle      index of the customer
+     * @return      the customer id
+     */
+    public int getId(int handle) {
+        checkHandle(handle);
+        return ids[handle];
+    }
+
+    /**
+     * Returns the given customer, decoding its row unless it is cached
+     *
+     * @param       handle      index of the customer
+     * @return      the customer
+     * @throws      UncheckedIOException    if the row cannot be read
+     */
+    public synchronized Customer get(int handle) {
+        checkHandle(handle);
+        if (cache == null) {
+            return decode(handle);
+        }
+
+        Customer customer = cache.get(handle);
+        if (customer == null) {
+            customer = decode(handle);
+            cache.put(handle, customer);
+        }
+        return customer;
+    }
+
+    /**
+     * Returns the number of decoded customers currently cached
+     *
+     * @return      the number of cached customers
+     */
+    synchronized int getCachedCount() {
+        return cache == null ? 0 : cache.size();
+    }
+
+    /**
+     * Closes the customer file
+     *
+     * @throws      IOException     if the file cannot be closed
+     */
+    public void close() throws IOException {
+        channel.close();
+    }
+
+
+    /**
+     * Reads and decodes the row of the given customer
+     *
+     * @param       handle      index of the customer
+     * @return      the customer
+     */
+    private Customer decode(int handle) {
+        byte[] line = readLine(offsets[handle]);
+
+        String[] fields = new String[FIELDS];
+        int start = 0;
+        for (int field = 0; field < FIELDS; field++) {
+            int end = start;
+            while (end < line.length && line[end] != ',') {
+                end++;
+            }
+            if (end == line.length && field < FIELDS - 1) {
+                throw new IllegalStateException("Invalid customer row at offset "
+                                                + offsets[handle]);
+            }
+            fields[field] = new String(line, start, end - start, StandardCharsets.UTF_8);
+            start = end + 1;
+        }
+        return new Customer(fields[0], fields[1], fields[2], fields[3], fields[4]);
+    }
+
+    /**
+     * Reads the line starting at the given offset, without its line ending
+     *
+     * @param       offset      offset of the line in the file
+     * @return      the bytes of the line
+     */
+    private byte[] readLine(long offset) {
+        ByteBuffer buffer = ByteBuffer.allocate(READ_SIZE);
+        try {
+            while (true) {
+                int read = channel.read(buffer, offset + buffer.position());
+                byte[] bytes = buffer.array();
+                for (int i = 0; i < buffer.position(); i++) {
+                    if (bytes[i] == '\n') {
+                        int length = i > 0 && bytes[i - 1] == '\r' ? i - 1 : i;
+                        return Arrays.copyOf(bytes, length);
+                    }
+                }
+                if (read < 0) {
+                    return Arrays.copyOf(bytes, buffer.position());
+                }
+                if (!buffer.hasRemaining()) {
+                    ByteBuffer larger = ByteBuffer.allocate(2 * buffer.capacity());
+                    buffer.flip();
+                    larger.put(buffer);
+                    buffer = larger;
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Throws an exception if the given handle is not an indexed row
+     *
+     * @param       handle      index of the customer
+     */
+    private void checkHandle(int handle) {
+        if (handle < 0 || handle >= size) {
+            throw new IndexOutOfBoundsException("Invalid customer handle: " + handle);
+        }
+    }
+}
@@ -0,0 +1,277 @@
+package com.stevencl.callcentersim;
+
+import javax.swing.AbstractListModel;
+import javax.swing.JList;
+import javax.swing.JScrollPane;
+import javax.swing.SwingUtilities;
+import java.awt.Font;
+
+/**
+ * A console which keeps only the most recent lines, in a fixed-capacity ring buffer, and
+ * only renders the rows which are visible. Memory use stays the same however long a
+ * simulation runs.
+ *
+ * <p>Text can be appended from any thread. Appended lines wait in a pending buffer, which
+ * is also bounded, and are moved to the console in one batch on the event dispatch thread.
+ * The console can show only the lines which contain a filter text, and can stop scrolling
+ * to the newest line while it is paused.
+ *
+ * @author      Steven Leighton
+ * @version     2018-12-06
+ */
+public class LogConsole extends JScrollPane {
+    private static final long   serialVersionUID = 1L;
+    /** Default maximum number of lines kept */
+    public static final int     DEFAULT_CAPACITY = 10000;
+    /** Widest line expected, used to size rows without measuring every line */
+    private static final String PROTOTYPE_LINE = String.format("%180s", "");
+
+    /** Lines shown in the console, used only on the event dispatch thread */
+    private ConsoleBuffer   lines;
+    /** Lines appended but not yet shown, guarded by itself */
+    private ConsoleBuffer   pending;
+    /** Whether or not a batch of pending lines is already scheduled, guarded by pending */
+    private boolean         flushScheduled;
+    /** Sequence numbers of the lines which match the filter, in a circular array */
+    private long[]          matches;
+    /** Index of the oldest match */
+    private int             matchStart;
+    /** Number of matches */
+    private int             matchCount;
+    /** Text a line must contain to be shown, in lower case, or empty to show every line */
+    private String          filter;
+    /** Whether or not scrolling to the newest line is paused */
+    private boolean         isPaused;
+    /** Rows of the console */
+    private JList<String>   list;
+    /** Model of the visible lines */
+    private LineModel       model;
+
+
+    /**
+     * Creates a LogConsole which keeps the default number of lines
+     */
+    public LogConsole() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates a LogConsole which keeps the given number of lines
+     *
+     * @param       capacity    maximum number of lines kept
+     */
+    public LogConsole(int capacity) {
+        this.lines = new ConsoleBuffer(capacity);
+        this.pending = new ConsoleBuffer(capacity);
+        this.flushScheduled = false;
+        this.matches = new long[capacity];
+        this.matchStart = 0;
+        this.matchCount = 0;
+        this.filter = "";
+        this.isPaused = false;
+
+        this.model = new LineModel();
+        this.list = new JList<>(model);
+        list.setFont(new Font("Monospaced", Font.PLAIN, 13));
+        list.setPrototypeCellValue(PROTOTYPE_LINE);
+        setViewportView(list);
+    }
+
+
+    /**
+     * Appends text to the console, one line per line of text. May be called from any
+     * thread.
+     *
+     * @param       text        text to be added
+     */
+    public void append(String text) {
+        boolean schedule;
+        synchronized (pending) {
+            int start = 0;
+            int end;
+            while ((end = text.indexOf('\n', start)) >= 0) {
+                pending.add(text.substring(start, end));
+                start = end + 1;
+            }
+            if (start < text.length()) {
+                pending.add(text.substring(start));
+            }
+            schedule = !flushScheduled && pending.size() > 0;
+            flushScheduled = flushScheduled || schedule;
+        }
+        if (schedule) {
+            SwingUtilities.invokeLater(this::flush);
+        }
+    }
+
+    /**
+     * Removes every line from the console, including lines not yet shown. Must be called
+     * on the event dispatch thread.
+     */
+    public void clear() {
+        synchronized (pending) {
+            pending.clear();
+        }
+        int oldSize = model.getSize();
+        lines.clear();
+        matchStart = 0;
+        matchCount = 0;
+        model.sizeChanged(oldSize);
+    }
+
+    /**
+     * Shows only the lines which contain the given text, ignoring case. Must be called on
+     * the event dispatch thread.
+     *
+     * @param       text        text a line must contain, or empty to show every line
+     */
+    public void setFilter(String text) {
+        int oldSize = model.getSize();
+        filter = text.toLowerCase();
+        matchStart = 0;
+        matchCount = 0;
+        if (!filter.isEmpty()) {
+            for (long sequence = lines.getFirst(); sequence < lines.getNext(); sequence++) {
+                addMatch(sequence);
+            }
+        }
+        model.sizeChanged(oldSize);
+        scrollToEnd();
+    }
+
+    /**
+     * Pauses or resumes scrolling to the newest line. Must be called on the event dispatch
+     * thread.
+     *
+     * @param       isPaused    whether or not to pause scrolling
+     */
+    public void setPaused(boolean isPaused) {
+        this.isPaused = isPaused;
+        scrollToEnd();
+    }
+
+    /**
+     * Returns the number of lines shown, after filtering
+     *
+     * @return      the number of lines shown
+     */
+    public int getLineCount() {
+        return model.getSize();
+    }
+
+    /**
+     * Returns a shown line
+     *
+     * @param       index       index of the line, from the oldest shown
+     * @return      the line
+     */
+    public String getLine(int index) {
+        return model.getElementAt(index);
+    }
+
+
+    /**
+     * Moves the pending lines into the console, on the event dispatch thread
+     */
+    private void flush() {
+        String[] batch;
+        synchronized (pending) {
+            batch = new String[pending.size()];
+            for (int i = 0; i < batch.length; i++) {
+                batch[i] = pending.get(pending.getFirst() + i);
+            }
+            pending.clear();
+            flushScheduled = false;
+        }
+
+        int oldSize = model.getSize();
+        for (String line : batch) {
+            addMatch(lines.add(line));
+        }
+        while (matchCount > 0 && matches[matchStart] < lines.getFirst()) {
+            matchStart = (matchStart + 1) % matches.length;
+            matchCount--;
+        }
+        model.sizeChanged(oldSize);
+        scrollToEnd();
+    }
+
+    /**
+     * Records the given line as a match, if it contains the filter text
+     *
+     * @param       sequence    sequence number of the line
+     */
+    private void addMatch(long sequence) {
+        if (filter.isEmpty() || !containsIgnoreCase(lines.get(sequence), filter)) {
+            return;
+        }
+        if (matchCount == matches.length) {
+            matchStart = (matchStart + 1) % matches.length;
+            matchCount--;
+        }
+        matches[(matchStart + matchCount) % matches.length] = sequence;
+        matchCount++;
+    }
+
+    /**
+     * Scrolls to the newest line, unless paused
+     */
+    private void scrollToEnd() {
+        int size = model.getSize();
+        if (!isPaused && size > 0) {
+            list.ensureIndexIsVisible(size - 1);
+        }
+    }
+
+    /**
+     * Checks whether or not a line contains the given lower case text, ignoring case
+     *
+     * @param       line        the line to be checked
+     * @param       text        the text to be found, in lower case
+     * @return      true if the line contains the text, otherwise false
+     */
+    private static boolean containsIgnoreCase(String line, String text) {
+        for (int i = 0; i + text.length() <= line.length(); i++) {
+            if (line.regionMatches(true, i, text, 0, text.length())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+
+    /**
+     * A list model of the lines shown, after filtering
+     */
+    private class LineModel extends AbstractListModel<String> {
+        private static final long   serialVersionUID = 1L;
+
+        public int getSize() {
+            return filter.isEmpty() ? lines.size() : matchCount;
+        }
+
+        public String getElementAt(int index) {
+            if (filter.isEmpty()) {
+                return lines.get(lines.getFirst() + index);
+            }
+            return lines.get(matches[(matchStart + index) % matches.length]);
+        }
+
+        /**
+         * Tells the list that the lines have changed
+         *
+         * @param       oldSize     number of lines shown before the change
+         */
+        public void sizeChanged(int oldSize) {
+            int newSize = getSize();
+            if (newSize < oldSize) {
+                fireIntervalRemoved(this, newSize, oldSize - 1);
+            } else if (newSize > oldSize) {
+                fireIntervalAdded(this, oldSize, newSize - 1);
+            }
+            if (Math.min(oldSize, newSize) > 0) {
+                fireContentsChanged(this, 0, Math.min(oldSize, newSize) - 1);
+            }
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.stevencl.callcentersim;
+
+import java.util.SplittableRandom;
+
+/**
+ * An independent, seeded stream of random numbers for one purpose of a simulation, such as
+ * arrivals or call lengths. Giving each purpose its own stream keeps runs reproducible even
+ * when one purpose starts drawing more numbers, and lets parallel runs draw without sharing
+ * a generator.
+ *
+ * <p>Every value is made from whole 64-bit draws of the underlying generator, which are
+ * counted, so the state of a stream is just its seed and its number of draws, and a
+ * stream can be restored to any point without drawing again.
+ *
+ * @author      Steven Leighton
+ * @version     2018-12-06
+ */
+public class RandomStream {
+    /** Amount by which SplittableRandom advances its state per draw, when made from a seed */
+    private static final long   GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+    /** Scale from 53 random bits to a double between 0 and 1 */
+    private static final double DOUBLE_UNIT = 0x1.0p-53;
+
+    /** Seed of this stream */
+    private long                seed;
+    /** Underlying generator */
+    private SplittableRandom    random;
+    /** Number of 64-bit values drawn from the underlying generator */
+    private long                draws;
+
+
+    /**
+     * Creates a RandomStream with the given seed
+     *
+     * @param       seed        seed of the stream
+     */
+    public RandomStream(long seed) {
+        this(seed, 0);
+    }
+
+    /**
+     * Creates a RandomStream with the given seed, as it was after the given number of draws
+     *
+     * @param       seed        seed of the stream
+     * @param       draws       number of 64-bit values already drawn
+     */
+    public RandomStream(long seed, long draws) {
+        this.seed = seed;
+        this.draws = draws;
+        // SplittableRandom adds the same gamma to its state on each draw
+        this.random = new SplittableRandom(seed + draws * GOLDEN_GAMMA);
+    }
+
+
+    /**
+     * Derives the seeds of several independent streams from one master seed
+     *
+     * @param       masterSeed  the master seed
+     * @param       count       number of streams
+     * @return      one seed per stream
+     */
+    public static long[] deriveSeeds(long masterSeed, int count) {
+        SplittableRandom master = new SplittableRandom(masterSeed);
+        long[] seeds = new long[count];
+        for (int i = 0; i < count; i++) {
+            seeds[i] = master.split().nextLong();
+        }
+        return seeds;
+    }
+
+    /**
+     * Returns the seed of this stream
+     *
+     * @return      the seed of this stream
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Returns the number of 64-bit values drawn so far
+     *
+     * @return      the number of draws
+     */
+    public long getDraws() {
+        return draws;
+    }
+
+    /**
+     * Returns a uniformly distributed 64-bit value
+     *
+     * @return      a random long
+     */
+    public long nextLong() {
+        draws++;
+        return random.nextLong();
+    }
+
+    /**
+     * Returns a uniformly distributed value between 0 (inclusive) and 1 (exclusive)
+     *
+     * @return      a random double
+     */
+    public double nextDouble() {
+        return (nextLong() >>> 11) * DOUBLE_UNIT;
+    }
+
+    /**
+     * Returns a uniformly distributed value between 0 (inclusive) and the given bound
+     * (exclusive)
+     *
+     * @param       bound       upper bound, which must be positive
+     * @return      a random int
+     */
+    public int nextInt(int bound) {
+        if (bound <= 0) {
+            throw new IllegalArgumentException("Bound must be positive");
+        }
+        // reject the top partial range of 31-bit values, so every result is equally likely
+        int bits;
+        int value;
+        do {
+            bits = (int)(nextLong() >>> 33);
+            value = bits % bound;
+        } while (bits - value + (bound - 1) < 0);
+        return value;
+    }
+
+    /**
+     * Returns a normally distributed value with mean 0 and standard deviation 1
+     *
+     * @return      a random standard normal value
+     */
+    public double nextGaussian() {
+        // Marsaglia polar method; the second value of each pair is discarded
+        double x;
+        double y;
+        double s;
+        do {
+            x = 2 * nextDouble() - 1;
+            y = 2 * nextDouble() - 1;
+            s = x * x + y * y;
+        } while (s >= 1 || s == 0);
+        return x * Math.sqrt(-2 * Math.log(s) / s);
+    }
+}
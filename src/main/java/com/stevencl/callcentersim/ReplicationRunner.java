@@ -0,0 +1,175 @@
+package com.stevencl.callcentersim;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Runs independent replications of a scenario in parallel on a fork-join pool, and combines
+ * their statistics into estimates with confidence intervals. Each replication runs on its
+ * own Simulation with its own seed, derived from one master seed, and all of them share the
+ * same loaded data.
+ *
+ * @author      Steven Leighton
+ * @version     2018-12-06
+ */
+public class ReplicationRunner {
+    /** Data shared by every replication */
+    private SimulationData  data;
+    /** Pool the replications run on */
+    private ForkJoinPool    pool;
+
+
+    /**
+     * Creates a ReplicationRunner which runs on the common fork-join pool
+     *
+     * @param       data        data shared by every replication
+     */
+    public ReplicationRunner(SimulationData data) {
+        this(data, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates a ReplicationRunner which runs on the given pool
+     *
+     * @param       data        data shared by every replication
+     * @param       pool        pool the replications run on
+     */
+    public ReplicationRunner(SimulationData data, ForkJoinPool pool) {
+        this.data = data;
+        this.pool = pool;
+    }
+
+
+    /**
+     * Runs replications of the given scenario and waits for all of them to finish
+     *
+     * @param       scenario        the scenario to run
+     * @param       replications    number of replications
+     * @param       masterSeed      seed from which each replication's seed is derived
+     * @return      the statistics of every replication, with combined estimates
+     * @throws      IllegalArgumentException    if there are no replications
+     */
+    public Result run(Scenario scenario, int replications, long masterSeed) {
+        if (replications <= 0) {
+            throw new IllegalArgumentException("At least one replication is required");
+        }
+        long[] seeds = RandomStream.deriveSeeds(masterSeed, replications);
+        RunStats[] stats = new RunStats[replications];
+        pool.invoke(new ReplicationTask(scenario, seeds, stats, 0, replications));
+        return new Result(stats);
+    }
+
+
+    /**
+     * A task which runs a range of replications, splitting the range in half until each
+     * task runs one replication
+     */
+    private class ReplicationTask extends RecursiveAction {
+        private static final long   serialVersionUID = 1L;
+        /** The scenario to run */
+        private Scenario        scenario;
+        /** Seed of each replication */
+        private long[]          seeds;
+        /** Statistics of each replication, filled in as they finish */
+        private RunStats[]      stats;
+        /** First replication, inclusive */
+        private int             from;
+        /** Last replication, exclusive */
+        private int             to;
+
+        public ReplicationTask(Scenario scenario, long[] seeds, RunStats[] stats, int from,
+                               int to) {
+            this.scenario = scenario;
+            this.seeds = seeds;
+            this.stats = stats;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                Simulation simulation = new Simulation(data);
+                simulation.setSeed(seeds[from]);
+                stats[from] = scenario.runOn(simulation);
+            } else {
+                int middle = (from + to) >>> 1;
+                invokeAll(new ReplicationTask(scenario, seeds, stats, from, middle),
+                          new ReplicationTask(scenario, seeds, stats, middle, to));
+            }
+        }
+    }
+
+
+    /**
+     * The statistics of every replication of a scenario, with estimates of the mean wait,
+     * the largest queue size and the tech utilization
+     */
+    public static class Result {
+        /** Statistics of each replication */
+        private RunStats[]      stats;
+        /** Estimate of the mean wait, in milliseconds */
+        private Estimate        meanWait;
+        /** Estimate of the largest queue size */
+        private Estimate        maxQueueSize;
+        /** Estimate of the tech utilization */
+        private Estimate        techUtilization;
+
+        /**
+         * Combines the statistics of the given replications
+         *
+         * @param       stats       statistics of each replication
+         */
+        public Result(RunStats[] stats) {
+            this.stats = stats;
+            double[] waits = new double[stats.length];
+            double[] queues = new double[stats.length];
+            double[] utilizations = new double[stats.length];
+            for (int i = 0; i < stats.length; i++) {
+                waits[i] = stats[i].getMeanWait();
+                queues[i] = stats[i].getMaxQueueSize();
+                utilizations[i] = stats[i].getTechUtilization();
+            }
+            this.meanWait = new Estimate(waits);
+            this.maxQueueSize = new Estimate(queues);
+            this.techUtilization = new Estimate(utilizations);
+        }
+
+        /**
+         * Returns the statistics of each replication
+         *
+         * @return      the statistics of each replication, in seed order
+         */
+        public RunStats[] getStats() {
+            return stats.clone();
+        }
+
+        public Estimate getMeanWait() {
+            return meanWait;
+        }
+
+        public Estimate getMaxQueueSize() {
+            return maxQueueSize;
+        }
+
+        public Estimate getTechUtilization() {
+            return techUtilization;
+        }
+
+        /**
+         * Returns the estimates as lines of the form name=value
+         *
+         * @return      the estimates as lines of the form name=value
+         */
+        @Override
+        public String toString() {
+            return String.format("replications=%d%n"
+                                 + "meanWaitMillis=%.1f%nmeanWaitMillisCi95=%.1f%n"
+                                 + "maxQueueSize=%.2f%nmaxQueueSizeCi95=%.2f%n"
+                                 + "techUtilization=%.4f%ntechUtilizationCi95=%.4f%n",
+                                 stats.length, meanWait.getMean(), meanWait.getHalfWidth(),
+                                 maxQueueSize.getMean(), maxQueueSize.getHalfWidth(),
+                                 techUtilization.getMean(), techUtilization.getHalfWidth());
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.stevencl.callcentersim;
+
+/**
+ * The techs scheduled for each day and shift, worked out once when the techs are loaded,
+ * so that the techs working a shift are found by a lookup rather than by checking every
+ * tech. Each day and shift is numbered as a slot, which is also the bit of that day and
+ * shift in a tech's schedule bitmask.
+ *
+ * @author      Steven Leighton
+ * @version     2018-12-06
+ */
+public class RosterIndex {
+    /** Number of shifts per day */
+    public static final int     SHIFTS = 2;
+    /** Number of slots, one per day and shift */
+    public static final int     SLOTS = Day.values().length * SHIFTS;
+    /** Empty roster, for shifts out of range */
+    private static final int[]  NO_TECHS = new int[0];
+
+    /** Handles of the techs scheduled in each slot, indexed by slot */
+    private int[][]     rosters;
+
+
+    /**
+     * Creates the roster of every day and shift
+     *
+     * @param       techs       all techs, indexed by handle
+     * @param       handles     handles of the techs to be rostered, in the order in which
+     *                          they are to be listed
+     */
+    public RosterIndex(Tech[] techs, int[] handles) {
+        int[] counts = new int[SLOTS];
+        for (int handle : handles) {
+            int schedule = techs[handle].getSchedule();
+            for (int slot = 0; slot < SLOTS; slot++) {
+                if ((schedule & (1 << slot)) != 0) {
+                    counts[slot]++;
+                }
+            }
+        }
+
+        rosters = new int[SLOTS][];
+        for (int slot = 0; slot < SLOTS; slot++) {
+            rosters[slot] = new int[counts[slot]];
+            counts[slot] = 0;
+        }
+        for (int handle : handles) {
+            int schedule = techs[handle].getSchedule();
+            for (int slot = 0; slot < SLOTS; slot++) {
+                if ((schedule & (1 << slot)) != 0) {
+                    rosters[slot][counts[slot]++] = handle;
+                }
+            }
+        }
+    }
+
+
+    /**
+     * Returns the slot of the given day and shift
+     *
+     * @param       day         the day
+     * @param       shift       the shift, from 1 to SHIFTS
+     * @return      the slot, from 0 to SLOTS - 1
+     */
+    public static int slot(Day day, int shift) {
+        return day.ordinal() * SHIFTS + shift - 1;
+    }
+
+    /**
+     * Returns the handles of the techs scheduled for the given day and shift. The array
+     * must not be changed.
+     *
+     * @param       day         the day
+     * @param       shift       the shift
+     * @return      the handles of the scheduled techs, none if the shift is out of range
+     */
+    public int[] getHandles(Day day, int shift) {
+        if (shift < 1 || shift > SHIFTS) {
+            return NO_TECHS;
+        }
+        return rosters[slot(day, shift)];
+    }
+
+    /**
+     * Returns the number of techs scheduled for the given day and shift
+     *
+     * @param       day         the day
+     * @param       shift       the shift
+     * @return      the number of scheduled techs
+     */
+    public int getCount(Day day, int shift) {
+        return getHandles(day, shift).length;
+    }
+}
@@ -0,0 +1,382 @@
+package com.stevencl.callcentersim;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Summary statistics of one simulation run: how many calls were handled, how long
+ * customers waited in the queue, how long the queue grew and how busy the techs were.
+ * Waits, handle times and tech idle times are also kept in histograms, for their
+ * percentiles.
+ *
+ * @author      Steven Leighton
+ * @version     2018-12-06
+ */
+public class RunStats {
+    /** Number of techs on shift */
+    private int         techCount;
+    /** Number of calls started */
+    private int         callsStarted;
+    /** Number of calls completed */
+    private int         callsCompleted;
+    /** Number of incoming calls dropped because every customer was already waiting */
+    private int         droppedCalls;
+    /** Largest number of customers in queue */
+    private int         maxQueueSize;
+    /** Total time customers waited in queue before their call started, in milliseconds */
+    private long        totalWait;
+    /** Longest time a customer waited in queue, in milliseconds */
+    private long        maxWait;
+    /** Total length of completed calls, in milliseconds */
+    private long        busyTime;
+    /** Simulated time of the run, in milliseconds */
+    private long        simulatedTime;
+    /** Total time techs were on duty, in milliseconds, when shifts change during the run */
+    private long        staffedTime;
+    /** Times customers waited in queue, in milliseconds */
+    private Histogram   waitTimes;
+    /** Times from the start to the end of each call, in milliseconds */
+    private Histogram   handleTimes;
+    /** Times techs waited in queue between calls, in milliseconds */
+    private Histogram   idleTimes;
+    /** Number of events processed on a virtual clock */
+    private long        eventCount;
+    /** Wall-clock times taken to process timed events, in nanoseconds */
+    private Histogram   eventLatencies;
+
+
+    /**
+     * Creates empty statistics for a run with the given number of techs on shift
+     *
+     * @param       techCount       number of techs on shift
+     */
+    public RunStats(int techCount) {
+        this.techCount = techCount;
+        this.waitTimes = new Histogram();
+        this.handleTimes = new Histogram();
+        this.idleTimes = new Histogram();
+        this.eventLatencies = new Histogram();
+    }
+
+
+    /**
+     * Records the current number of customers in queue
+     *
+     * @param       queueSize       number of customers in queue
+     */
+    void recordQueueSize(int queueSize) {
+        maxQueueSize = Math.max(maxQueueSize, queueSize);
+    }
+
+    /**
+     * Records the start of a call
+     *
+     * @param       wait            time the customer waited in queue, in milliseconds
+     */
+    void recordCallStart(long wait) {
+        callsStarted++;
+        totalWait += wait;
+        maxWait = Math.max(maxWait, wait);
+        waitTimes.record(wait);
+    }
+
+    /**
+     * Records the end of a call
+     *
+     * @param       length          length of the call, in milliseconds
+     */
+    void recordCallEnd(long length) {
+        callsCompleted++;
+        busyTime += length;
+        handleTimes.record(length);
+    }
+
+    /**
+     * Records a tech being given a call after waiting in queue
+     *
+     * @param       idle            time the tech waited, in milliseconds
+     */
+    void recordTechIdle(long idle) {
+        idleTimes.record(idle);
+    }
+
+    /**
+     * Records time techs were on duty, for a run in which shifts change
+     *
+     * @param       techMillis      number of techs on duty times the time, in milliseconds
+     */
+    void recordStaffedTime(long techMillis) {
+        staffedTime += techMillis;
+    }
+
+    /**
+     * Records an event processed on a virtual clock
+     */
+    void recordEvent() {
+        eventCount++;
+    }
+
+    /**
+     * Records the wall-clock time taken to process an event
+     *
+     * @param       nanos           time taken, in nanoseconds
+     */
+    void recordEventLatency(long nanos) {
+        eventLatencies.record(nanos);
+    }
+
+    /**
+     * Records an incoming call which was dropped
+     */
+    void recordDroppedCall() {
+        droppedCalls++;
+    }
+
+    /**
+     * Records the simulated time of the run so far
+     *
+     * @param       simulatedTime   simulated time, in milliseconds
+     */
+    void recordTime(long simulatedTime) {
+        this.simulatedTime = simulatedTime;
+    }
+
+
+    /**
+     * Writes the statistics in binary
+     *
+     * @param       out         destination of the statistics
+     * @throws      IOException if the statistics cannot be written
+     */
+    void write(DataOutput out) throws IOException {
+        out.writeInt(techCount);
+        out.writeInt(callsStarted);
+        out.writeInt(callsCompleted);
+        out.writeInt(droppedCalls);
+        out.writeInt(maxQueueSize);
+        out.writeLong(totalWait);
+        out.writeLong(maxWait);
+        out.writeLong(busyTime);
+        out.writeLong(simulatedTime);
+        out.writeLong(staffedTime);
+        out.writeLong(eventCount);
+        waitTimes.write(out);
+        handleTimes.write(out);
+        idleTimes.write(out);
+        eventLatencies.write(out);
+    }
+
+    /**
+     * Reads statistics written by write
+     *
+     * @param       in          source of the statistics
+     * @return      the statistics
+     * @throws      IOException if the statistics cannot be read, or are not valid
+     */
+    static RunStats read(DataInput in) throws IOException {
+        RunStats stats = new RunStats(in.readInt());
+        stats.callsStarted = in.readInt();
+        stats.callsCompleted = in.readInt();
+        stats.droppedCalls = in.readInt();
+        stats.maxQueueSize = in.readInt();
+        stats.totalWait = in.readLong();
+        stats.maxWait = in.readLong();
+        stats.busyTime = in.readLong();
+        stats.simulatedTime = in.readLong();
+        stats.staffedTime = in.readLong();
+        stats.eventCount = in.readLong();
+        stats.waitTimes.read(in);
+        stats.handleTimes.read(in);
+        stats.idleTimes.read(in);
+        stats.eventLatencies.read(in);
+        return stats;
+    }
+
+
+    /**
+     * Returns the number of techs on shift
+     *
+     * @return      the number of techs on shift
+     */
+    public int getTechCount() {
+        return techCount;
+    }
+
+    /**
+     * Returns the number of calls started
+     *
+     * @return      the number of calls started
+     */
+    public int getCallsStarted() {
+        return callsStarted;
+    }
+
+    /**
+     * Returns the number of calls completed
+     *
+     * @return      the number of calls completed
+     */
+    public int getCallsCompleted() {
+        return callsCompleted;
+    }
+
+    /**
+     * Returns the number of incoming calls dropped because every customer was already
+     * waiting
+     *
+     * @return      the number of dropped calls
+     */
+    public int getDroppedCalls() {
+        return droppedCalls;
+    }
+
+    /**
+     * Returns the largest number of customers in queue
+     *
+     * @return      the largest queue size
+     */
+    public int getMaxQueueSize() {
+        return maxQueueSize;
+    }
+
+    /**
+     * Returns the mean time customers waited in queue before their call started
+     *
+     * @return      the mean wait, in milliseconds, or 0 if no call started
+     */
+    public double getMeanWait() {
+        return callsStarted == 0 ? 0 : (double)totalWait / callsStarted;
+    }
+
+    /**
+     * Returns the longest time a customer waited in queue
+     *
+     * @return      the longest wait, in milliseconds
+     */
+    public long getMaxWait() {
+        return maxWait;
+    }
+
+    /**
+     * Returns the total length of completed calls
+     *
+     * @return      the total busy time of all techs, in milliseconds
+     */
+    public long getBusyTime() {
+        return busyTime;
+    }
+
+    /**
+     * Returns the simulated time of the run
+     *
+     * @return      the simulated time, in milliseconds
+     */
+    public long getSimulatedTime() {
+        return simulatedTime;
+    }
+
+    /**
+     * Returns the histogram of times customers waited in queue
+     *
+     * @return      the histogram of waits, in milliseconds
+     */
+    public Histogram getWaitTimes() {
+        return waitTimes;
+    }
+
+    /**
+     * Returns the histogram of times from the start to the end of each call
+     *
+     * @return      the histogram of handle times, in milliseconds
+     */
+    public Histogram getHandleTimes() {
+        return handleTimes;
+    }
+
+    /**
+     * Returns the histogram of times techs waited in queue between calls
+     *
+     * @return      the histogram of tech idle times, in milliseconds
+     */
+    public Histogram getIdleTimes() {
+        return idleTimes;
+    }
+
+    /**
+     * Returns the total time techs were on duty, when shifts change during the run
+     *
+     * @return      the staffed time, in tech milliseconds, or 0 for a single shift
+     */
+    public long getStaffedTime() {
+        return staffedTime;
+    }
+
+    /**
+     * Returns the number of events processed on a virtual clock
+     *
+     * @return      the number of events, or 0 when running in real time
+     */
+    public long getEventCount() {
+        return eventCount;
+    }
+
+    /**
+     * Returns the histogram of wall-clock times taken to process each event, which is only
+     * filled in when the simulation times events
+     *
+     * @return      the histogram of event latencies, in nanoseconds
+     */
+    public Histogram getEventLatencies() {
+        return eventLatencies;
+    }
+
+    /**
+     * Returns the fraction of the techs' time on shift spent on calls. When shifts change
+     * during the run, this is relative to the time techs were on duty.
+     *
+     * @return      the tech utilization, between 0 and 1
+     */
+    public double getTechUtilization() {
+        if (staffedTime > 0) {
+            return Math.min(1, (double)busyTime / staffedTime);
+        }
+        if (techCount == 0 || simulatedTime == 0) {
+            return 0;
+        }
+        return Math.min(1, (double)busyTime / ((double)techCount * simulatedTime));
+    }
+
+    /**
+     * Returns the statistics as lines of the form name=value
+     *
+     * @return      the statistics as lines of the form name=value
+     */
+    @Override
+    public String toString() {
+        return String.format("techs=%d%ncallsStarted=%d%ncallsCompleted=%d%n"
+                             + "droppedCalls=%d%nmaxQueueSize=%d%nmeanWaitMillis=%.1f%n"
+                             + "maxWaitMillis=%d%ntechUtilization=%.4f%n"
+                             + "simulatedMillis=%d%n%s%s%s",
+                             techCount, callsStarted, callsCompleted, droppedCalls,
+                             maxQueueSize, getMeanWait(), maxWait, getTechUtilization(),
+                             simulatedTime, percentileLines("waitMillis", waitTimes),
+                             percentileLines("handleMillis", handleTimes),
+                             percentileLines("techIdleMillis", idleTimes));
+    }
+
+    /**
+     * Returns the main percentiles of a histogram as lines of the form name=value, one
+     * line per percentile, such as waitMillisP99=120
+     *
+     * @param       name        prefix of each name
+     * @param       histogram   the histogram
+     * @return      the lines of the percentiles and maximum
+     */
+    private static String percentileLines(String name, Histogram histogram) {
+        return String.format("%1$sP50=%2$d%n%1$sP90=%3$d%n%1$sP99=%4$d%n%1$sMax=%5$d%n", name,
+                             histogram.getValueAtPercentile(50),
+                             histogram.getValueAtPercentile(90),
+                             histogram.getValueAtPercentile(99), histogram.getMax());
+    }
+}
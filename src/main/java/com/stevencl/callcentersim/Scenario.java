@@ -0,0 +1,168 @@
+package com.stevencl.callcentersim;
+
+/**
+ * The parameters of one simulation run, so that the same run can be handed to several
+ * simulations. A scenario holds no state of its own once it has been set up.
+ *
+ * @author      Steven Leighton
+ * @version     2018-12-06
+ */
+public class Scenario {
+    /** Initial customers in queue */
+    private int             custCount;
+    /** Number of calls to simulate */
+    private int             callCount;
+    /** Interval between incoming calls, in seconds */
+    private int             interval;
+    /** Average call length, in seconds */
+    private int             length;
+    /** Day to simulate */
+    private Day             day;
+    /** Shift to simulate */
+    private int             shift;
+    /** Distribution of times between incoming calls, or null for the default */
+    private Distribution    arrivalTimes;
+    /** Distribution of call lengths, or null for the default */
+    private Distribution    callLengths;
+    /** Number of techs working, or Simulation.SCHEDULED_TECHS for every scheduled tech */
+    private int             techCount = Simulation.SCHEDULED_TECHS;
+    /** Length of each shift, in milliseconds, or Simulation.SINGLE_SHIFT */
+    private long            shiftLength = Simulation.SINGLE_SHIFT;
+
+
+    /**
+     * Creates a Scenario with the given values and the default distributions
+     *
+     * @param       custCount       initial customers in queue
+     * @param       callCount       number of calls to simulate
+     * @param       interval        interval between incoming calls, in seconds
+     * @param       length          average call length, in seconds
+     * @param       day             day to simulate
+     * @param       shift           shift to simulate
+     */
+    public Scenario(int custCount, int callCount, int interval, int length, Day day,
+                    int shift) {
+        this.custCount = custCount;
+        this.callCount = callCount;
+        this.interval = interval;
+        this.length = length;
+        this.day = day;
+        this.shift = shift;
+    }
+
+
+    public int getCustCount() {
+        return custCount;
+    }
+
+    public int getCallCount() {
+        return callCount;
+    }
+
+    public int getInterval() {
+        return interval;
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    public Day getDay() {
+        return day;
+    }
+
+    public int getShift() {
+        return shift;
+    }
+
+    public Distribution getArrivalTimes() {
+        return arrivalTimes;
+    }
+
+    /**
+     * Sets the distribution of times between incoming calls
+     *
+     * @param       arrivalTimes    distribution of times between incoming calls, or null
+     *                              for the default
+     * @throws      IllegalArgumentException    if the distribution has a mean of zero
+     */
+    public void setArrivalTimes(Distribution arrivalTimes) {
+        this.arrivalTimes = Distributions.checkArrivalTimes(arrivalTimes);
+    }
+
+    public Distribution getCallLengths() {
+        return callLengths;
+    }
+
+    /**
+     * Sets the distribution of call lengths
+     *
+     * @param       callLengths     distribution of call lengths, or null for the default
+     */
+    public void setCallLengths(Distribution callLengths) {
+        this.callLengths = callLengths;
+    }
+
+    public int getTechCount() {
+        return techCount;
+    }
+
+    /**
+     * Overrides the number of techs working
+     *
+     * @param       techCount       number of techs working, or Simulation.SCHEDULED_TECHS
+     *                              for every scheduled tech
+     */
+    public void setTechCount(int techCount) {
+        this.techCount = techCount;
+    }
+
+    public long getShiftLength() {
+        return shiftLength;
+    }
+
+    /**
+     * Sets the length of each shift, so that the run carries on through the following
+     * shifts of the week from its day and shift
+     *
+     * @param       shiftLength     length of each shift, in milliseconds, or
+     *                              Simulation.SINGLE_SHIFT
+     */
+    public void setShiftLength(long shiftLength) {
+        this.shiftLength = shiftLength;
+    }
+
+
+    /**
+     * Runs this scenario to completion on the given simulation, on a virtual clock
+     *
+     * @param       simulation      the simulation to run on
+     * @return      the statistics of the run
+     */
+    public RunStats runOn(Simulation simulation) {
+        simulation.setArrivalTimes(arrivalTimes);
+        simulation.setCallLengths(callLengths);
+        simulation.setTechCount(techCount);
+        simulation.setShiftLength(shiftLength);
+        simulation.run(custCount, callCount, interval, length, day, shift);
+        return simulation.getStats();
+    }
+
+    /**
+     * Returns the values of this scenario
+     *
+     * @return      the values of this scenario
+     */
+    @Override
+    public String toString() {
+        return "Initial customers = " + custCount +
+               ", Call count = " + callCount +
+               ", Call interval = " + interval +
+               ", Avg call length = " + length +
+               ", Day = " + day +
+               ", Shift = " + shift +
+               (techCount == Simulation.SCHEDULED_TECHS ? "" : ", Techs = " + techCount) +
+               (shiftLength == Simulation.SINGLE_SHIFT ? ""
+                                                       : ", Shift length = " + shiftLength);
+    }
+}
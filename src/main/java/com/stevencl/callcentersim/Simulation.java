@@ -1,20 +1,61 @@
 package com.stevencl.callcentersim;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.SplittableRandom;
 import java.util.Timer;
 import java.util.TimerTask;
-import java.util.Random;
-import java.util.Scanner;
-import java.io.File;
-import java.io.FileNotFoundException;
+import java.util.function.Consumer;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 
 /**
  * Simulates call activity for a call center
+ * 
+ * <p>In real time, incoming calls, call starts and call ends are driven by separate timer 
+ * threads. Each of them checks and changes both queues and the open calls together, so 
+ * those steps are serialized by synchronizing on the simulation.
+ * 
+ * <p>Times between incoming calls, call lengths and the choice of customer each draw from 
+ * their own random stream, all derived from one seed, so a run can be repeated exactly by 
+ * setting the same seed.
+ * 
+ * <p>A run on a virtual clock can be paused at a simulated time, and the paused state saved 
+ * as a snapshot, which can be restored into another simulation and resumed from there. 
+ * 
+ * <p>With a shift length set, a run on a virtual clock carries on from its day and shift 
+ * through each following shift of the week, wrapping from Sunday to Monday, until all its 
+ * calls are done. At each shift change the techs of the next shift join the tech queue and 
+ * the techs whose shift is over leave it; a tech on a call finishes the call first. 
+ * Waiting customers stay in the queue across the change.
  *
  * @author      Steven Leighton
  * @version     2018-12-06
  */
 public class Simulation implements Subject {
+    /** Event type for an incoming call */
+    private static final int    ARRIVAL_EVENT       = 0;
+    /** Event type for an attempt to start calls */
+    private static final int    START_CALL_EVENT    = 1;
+    /** Event type for the end of a call */
+    private static final int    END_CALL_EVENT      = 2;
+    /** Event type for a change to the next shift */
+    private static final int    SHIFT_CHANGE_EVENT  = 3;
+    /** Length of a timing wheel tick in real time, in milliseconds */
+    private static final long   TICK_MILLIS         = 10;
+    /** Number of random streams: arrivals, call lengths and customers */
+    private static final int    STREAMS             = 3;
+    /** Tech count meaning that every scheduled tech works */
+    public static final int     SCHEDULED_TECHS     = -1;
+    /** Shift length meaning that a run stays in one day and shift */
+    public static final long    SINGLE_SHIFT        = 0;
+    /** Identifies a snapshot: "CCS2" */
+    private static final int    SNAPSHOT_MAGIC      = 0x43435332;
+    
     /** Initial customers in queue */
     private int                         custCount;
     /** Remaining calls to simulate */
@@ -23,103 +64,805 @@ public class Simulation implements Subject {
     private int                         interval;
     /** Average call length, in seconds */
     private int                         length;
-    /** Day to simulate */
+    /** Day to simulate, or being simulated when shifts change */
     private Day                         day;
-    /** Shift to simulate */
+    /** Shift to simulate, or being simulated when shifts change */
     private int                         shift;
 
     
     /** Observer list */
     private ArrayList<Observer>         observers;
+    /** Customer and tech data */
+    private SimulationData              data;
     /** All customers */
-    private Customer[]                  customers;
+    private CustomerSource              customers;
     /** All techs */
     private Tech[]                      techs;
-    /** Customer queue */
-    private HashSetQueue<Customer>      custQueue;
-    /** Tech queue */
-    private HashSetQueue<Tech>          techQueue;
+    /** Customer handles, indexed by customer id */
+    private IdIndex                     custIndex;
+    /** Tech handles, indexed by tech id */
+    private IdIndex                     techIndex;
+    /** Handles of all distinct customers */
+    private int[]                       custHandles;
+    /** Handles of all distinct techs */
+    private int[]                       techHandles;
+    /** Techs scheduled for each day and shift */
+    private RosterIndex                 roster;
+    /** Customers which are not waiting in the queue */
+    private HandlePool                  custPool;
+    /** Customer queue, holding customer handles */
+    private IntHashSetQueue             custQueue;
+    /** Tech queue, holding tech handles */
+    private IntHashSetQueue             techQueue;
     /** Open calls */
-    private ArrayList<Call>             openCalls;
+    private CallTable                   openCalls;
     /** Timer for queue tasks */
     private Timer                       timer1;
     /** Timer for start call tasks */
     private Timer                       timer2;
-    /** Timer for end call tasks */
+    /** Timer which advances the end call wheel */
     private Timer                       timer3;
+    /** Scheduled call ends, when running in real time */
+    private TimingWheel<Call>           endCalls;
+    /** Summary of the data loaded from file */
+    private String                      loadReport;
     /** Whether or not a simulation is running */
     private boolean                     isRunning;
+    /** Whether or not the simulation runs on a virtual clock */
+    private boolean                     isVirtual;
+    /** Current simulated time, in milliseconds */
+    private long                        clock;
+    /** Pending events, when running on a virtual clock */
+    private EventQueue                  events;
+    /** Whether or not a start call event is already pending */
+    private boolean                     startCallPending;
+    /** Wall-clock time of the next incoming call, when running in real time */
+    private long                        nextArrival;
+    /** Seed of the current or last run */
+    private long                        seed;
+    /** Whether or not the seed was set, rather than chosen for each run */
+    private boolean                     isSeeded;
+    /** Distribution of times between incoming calls, or null for the default */
+    private Distribution                arrivalTimes;
+    /** Distribution of call lengths, or null for the default */
+    private Distribution                callLengths;
+    /** Number of techs working, or SCHEDULED_TECHS for every scheduled tech */
+    private int                         techCount = SCHEDULED_TECHS;
+    /** Whether or not to time each event, when running on a virtual clock */
+    private boolean                     isTimingEvents;
+    /** Path of the journal file written by each run, or null to write none */
+    private String                      journalFile;
+    /** Journal of the current run, or null if none is written */
+    private EventJournal                journal;
+    /** Whether or not a run on a virtual clock is paused */
+    private boolean                     isPaused;
+    /** Distribution of times between incoming calls for the current run */
+    private Distribution                arrivalDist;
+    /** Distribution of call lengths for the current run */
+    private Distribution                lengthDist;
+    /** Random stream for times between incoming calls */
+    private RandomStream                arrivalRandom;
+    /** Random stream for call lengths */
+    private RandomStream                lengthRandom;
+    /** Random stream for choosing customers */
+    private RandomStream                custRandom;
+    /** Time each waiting customer joined the queue, indexed by customer handle */
+    private long[]                      queuedAt;
+    /** Time each waiting tech joined the queue, indexed by tech handle */
+    private long[]                      idleSince;
+    /** Length of each shift in simulated time, in milliseconds, or SINGLE_SHIFT */
+    private long                        shiftLength = SINGLE_SHIFT;
+    /** Whether or not shifts change during the current run */
+    private boolean                     isShifting;
+    /** Simulated time the current shift started, in milliseconds */
+    private long                        shiftStart;
+    /** Whether or not each tech is on duty in the current shift, indexed by tech handle */
+    private boolean[]                   onDuty;
+    /** Number of techs on duty in the current shift */
+    private int                         dutyCount;
+    /** Whether or not each tech is on a call, indexed by tech handle */
+    private boolean[]                   onCall;
+    /** Statistics of the current or last run */
+    private RunStats                    stats;
     
     
     /**
      * Creates a Simulation
      */
     public Simulation() {
+        this(false, 0);
+    }
+    
+    /**
+     * Creates a Simulation which optionally loads customers lazily. A lazy simulation only 
+     * indexes the customer file at startup, and decodes each customer the first time it 
+     * is selected for a call. The customer file then stays open until the data is closed 
+     * with getData().close().
+     * 
+     * @param       lazyCustomers   whether or not to load customers lazily
+     * @param       cacheSize       maximum number of decoded customers to keep, when lazy
+     */
+    public Simulation(boolean lazyCustomers, int cacheSize) {
+        this(loadData(lazyCustomers, cacheSize));
+    }
+    
+    /**
+     * Creates a Simulation which runs on data which has already been loaded. The data is 
+     * only read, so it can be shared with other simulations.
+     * 
+     * @param       data            customer and tech data
+     */
+    public Simulation(SimulationData data) {
+        this.data = data;
+        this.customers = data.getCustomers();
+        this.techs = data.getTechs();
+        this.custIndex = data.getCustIndex();
+        this.techIndex = data.getTechIndex();
+        this.custHandles = data.getCustHandles();
+        this.techHandles = data.getTechHandles();
+        this.roster = data.getRoster();
+        this.loadReport = data.getLoadReport();
+        this.observers = new ArrayList<>();
+        this.isRunning = false;
+        this.events = new EventQueue();
+    }
+    
+    
+    /**
+     * Loads data from the default files
+     * 
+     * @param       lazyCustomers   whether or not to load customers lazily
+     * @param       cacheSize       maximum number of decoded customers to keep, when lazy
+     * @return      the loaded data
+     * @throws      IllegalStateException   if a file cannot be read
+     */
+    private static SimulationData loadData(boolean lazyCustomers, int cacheSize) {
         try {
-            readTechFromFile();
-            readCustFromFile();
-        } catch (FileNotFoundException e) {
+            return new SimulationData(lazyCustomers, cacheSize);
+        } catch (IOException e) {
             throw new IllegalStateException("Could not open file");
         }
-        this.observers = new ArrayList<>();
-        this.isRunning = false;
     }
     
     
     /**
-     * Fills customer array with data from file
+     * Returns the customer and tech data
      * 
-     * @throws      FileNotFoundException   if target file cannot be found
+     * @return      the customer and tech data
      */
-    private void readCustFromFile() throws FileNotFoundException {
-        File inFile = new File("customers.csv");
-        Scanner scan = new Scanner(inFile);
-
-        int count = Integer.parseInt(scan.nextLine());
-        customers = new Customer[count];
-
-        scan.nextLine();
-        int index = 0;
-        while (scan.hasNextLine()) {
-            String[] field = scan.nextLine().split(",");
-            customers[index] = new Customer(field[0], field[1], field[2], field[3], field[4]);
-            index++;
+    public SimulationData getData() {
+        return data;
+    }
+    
+    /**
+     * Returns a summary of the data loaded from file, with the loader throughput
+     * 
+     * @return      a summary of the data loaded from file
+     */
+    public String getLoadReport() {
+        return loadReport;
+    }
+    
+    /**
+     * Sets the seed used for every following run, so that runs with the same values can be 
+     * repeated exactly. Without a seed, each run chooses its own.
+     * 
+     * @param       seed        the seed
+     */
+    public synchronized void setSeed(long seed) {
+        this.seed = seed;
+        this.isSeeded = true;
+    }
+    
+    /**
+     * Returns the seed of the current or last run
+     * 
+     * @return      the seed of the current or last run
+     */
+    public synchronized long getSeed() {
+        return seed;
+    }
+    
+    /**
+     * Sets the distribution of times between incoming calls. By default, calls arrive 
+     * exactly one interval apart.
+     * 
+     * @param       arrivalTimes    distribution of times between incoming calls, or null 
+     *                              for the default
+     * @throws      IllegalArgumentException    if the distribution has a mean of zero
+     */
+    public synchronized void setArrivalTimes(Distribution arrivalTimes) {
+        this.arrivalTimes = Distributions.checkArrivalTimes(arrivalTimes);
+    }
+    
+    /**
+     * Returns the distribution of times between incoming calls
+     * 
+     * @return      the distribution of times between incoming calls, or null for the 
+     *              default
+     */
+    public synchronized Distribution getArrivalTimes() {
+        return arrivalTimes;
+    }
+    
+    /**
+     * Sets the distribution of call lengths. By default, call lengths are uniform between 
+     * 100 milliseconds and twice the average call length.
+     * 
+     * @param       callLengths     distribution of call lengths, or null for the default
+     */
+    public synchronized void setCallLengths(Distribution callLengths) {
+        this.callLengths = callLengths;
+    }
+    
+    /**
+     * Returns the distribution of call lengths
+     * 
+     * @return      the distribution of call lengths, or null for the default
+     */
+    public synchronized Distribution getCallLengths() {
+        return callLengths;
+    }
+    
+    /**
+     * Overrides the number of techs working. Scheduled techs are taken first; if more are 
+     * needed, techs from other days and shifts are called in.
+     * 
+     * @param       techCount       number of techs working, or SCHEDULED_TECHS for every 
+     *                              scheduled tech
+     * @throws      IllegalArgumentException    if there are not that many techs
+     */
+    public synchronized void setTechCount(int techCount) {
+        if (techCount != SCHEDULED_TECHS && (techCount < 0 || techCount > techHandles.length)) {
+            throw new IllegalArgumentException("Invalid tech count: " + techCount);
         }
+        this.techCount = techCount;
     }
     
     /**
-     * Fills tech array with data from file
+     * Returns the number of techs working
      * 
-     * @throws      FileNotFoundException   if target file cannot be found
+     * @return      the number of techs working, or SCHEDULED_TECHS for every scheduled tech
      */
-    private void readTechFromFile() throws FileNotFoundException {
-        File inFile = new File("techs.csv");
-        Scanner scan = new Scanner(inFile);
-
-        int count = Integer.parseInt(scan.nextLine());
-        techs = new Tech[count];
-
-        scan.nextLine();
-        int index = 0;
-        while (scan.hasNextLine()) {
-            String[] field = scan.nextLine().split(",");
-            techs[index] = new Tech(field[0], field[1], field[2], field[3], field[4]);
-            index++;
+    public synchronized int getTechCount() {
+        return techCount;
+    }
+    
+    /**
+     * Sets the length of each shift for every following run on a virtual clock. With a 
+     * shift length, a run changes to the next shift each time that much simulated time has 
+     * passed, rather than staying in the day and shift it started in.
+     * 
+     * @param       shiftLength     length of each shift, in milliseconds, or SINGLE_SHIFT
+     * @throws      IllegalArgumentException    if the length is negative
+     */
+    public synchronized void setShiftLength(long shiftLength) {
+        if (shiftLength < 0) {
+            throw new IllegalArgumentException("Invalid shift length: " + shiftLength);
         }
+        this.shiftLength = shiftLength;
+    }
+    
+    /**
+     * Returns the length of each shift
+     * 
+     * @return      the length of each shift, in milliseconds, or SINGLE_SHIFT
+     */
+    public synchronized long getShiftLength() {
+        return shiftLength;
+    }
+    
+    /**
+     * Returns the day being simulated, which moves on as shifts change
+     * 
+     * @return      the day of the current or last run
+     */
+    public synchronized Day getDay() {
+        return day;
+    }
+    
+    /**
+     * Returns the shift being simulated, which moves on as shifts change
+     * 
+     * @return      the shift of the current or last run
+     */
+    public synchronized int getShift() {
+        return shift;
+    }
+    
+    /**
+     * Sets whether or not to time the processing of each event when running on a virtual 
+     * clock, into the event latency histogram of the run statistics. Timing reads the 
+     * system clock twice per event, so it is off by default.
+     * 
+     * @param       isTimingEvents  whether or not to time each event
+     */
+    public synchronized void setTimingEvents(boolean isTimingEvents) {
+        this.isTimingEvents = isTimingEvents;
     }
     
+    /**
+     * Checks whether or not each event is timed when running on a virtual clock
+     * 
+     * @return      true if each event is timed, otherwise false
+     */
+    public synchronized boolean isTimingEvents() {
+        return isTimingEvents;
+    }
+    
+    /**
+     * Sets the file each run records its events to, as an EventJournal which can be 
+     * replayed by JournalReplayer. The file is replaced by each run.
+     * 
+     * @param       journalFile     path of the journal file, or null to write none
+     */
+    public synchronized void setJournalFile(String journalFile) {
+        this.journalFile = journalFile;
+    }
+    
+    /**
+     * Returns the file each run records its events to
+     * 
+     * @return      path of the journal file, or null if none is written
+     */
+    public synchronized String getJournalFile() {
+        return journalFile;
+    }
     
     /**
      * Checks whether or not the simulation is running
      * 
      * @return      true if the simulation is running, otherwise false
      */
-    public boolean getIsRunning() {
+    public synchronized boolean getIsRunning() {
         return isRunning;
     }
     
     /**
-     * Starts the simulation with specified values
+     * Returns the current simulated time. When running on a virtual clock this is the time 
+     * of the event being processed, otherwise it is the wall-clock time since the start.
+     * 
+     * @return      the current simulated time, in milliseconds
+     */
+    public long getClock() {
+        if (isVirtual || !isRunning) {
+            return clock;
+        }
+        return System.currentTimeMillis() - clock;
+    }
+    
+    /**
+     * Returns the statistics of the current or last run
+     * 
+     * @return      the statistics of the current or last run, or null before the first run
+     */
+    public synchronized RunStats getStats() {
+        return stats;
+    }
+    
+    /**
+     * Returns a snapshot of the calls which are currently open
+     * 
+     * @return      the calls which are currently open, in no particular order
+     */
+    public synchronized Call[] getOpenCalls() {
+        return openCalls == null ? new Call[0] : openCalls.toArray();
+    }
+    
+    /**
+     * Starts the simulation with specified values, in real time
+     * 
+     * @param       custCount       initial customers in queue
+     * @param       callCount       number of calls to simulate
+     * @param       interval        interval between incoming calls, in seconds
+     * @param       length          average call length, in seconds
+     * @param       day             day to simulate
+     * @param       shift           shift to simulate
+     * @throws      IllegalStateException   if a simulation is already running, or a shift 
+     *                                      length is set
+     */
+    public synchronized void start(int custCount, int callCount, int interval, int length, 
+                                   Day day, int shift) {
+        if (shiftLength != SINGLE_SHIFT) {
+            throw new IllegalStateException("Shift changes are only simulated on a virtual " + 
+                                            "clock");
+        }
+        begin(custCount, callCount, interval, length, day, shift, false);
+        
+        this.nextArrival = clock;
+        this.timer1 = new Timer();
+        timer1.schedule(new QueueTask(), 0);
+        this.timer2 = new Timer();
+        timer2.schedule(new StartCallTask(), 0, 50);
+        this.endCalls = new TimingWheel<>(TICK_MILLIS, clock);
+        this.timer3 = new Timer();
+        timer3.scheduleAtFixedRate(new EndCallTask(), TICK_MILLIS, TICK_MILLIS);
+    }
+    
+    /**
+     * Runs the simulation with specified values to completion on a virtual clock. Incoming 
+     * calls, call starts and call ends are processed as discrete events in simulated time 
+     * order, as fast as possible, and observers are notified from the calling thread, 
+     * which holds the lock of the simulation until the run ends.
+     * 
+     * @param       custCount       initial customers in queue
+     * @param       callCount       number of calls to simulate
+     * @param       interval        interval between incoming calls, in seconds
+     * @param       length          average call length, in seconds
+     * @param       day             day to simulate
+     * @param       shift           shift to simulate
+     * @throws      IllegalStateException   if a simulation is already running
+     */
+    public synchronized void run(int custCount, int callCount, int interval, int length, 
+                                 Day day, int shift) {
+        runUntil(custCount, callCount, interval, length, day, shift, Long.MAX_VALUE);
+    }
+    
+    /**
+     * Runs the simulation with specified values on a virtual clock, and pauses it before 
+     * the first event after the given simulated time. A paused run can be resumed, saved 
+     * as a snapshot, or ended.
+     * 
+     * @param       custCount       initial customers in queue
+     * @param       callCount       number of calls to simulate
+     * @param       interval        interval between incoming calls, in seconds
+     * @param       length          average call length, in seconds
+     * @param       day             day to simulate
+     * @param       shift           shift to simulate
+     * @param       pauseTime       simulated time to pause at, in milliseconds
+     * @throws      IllegalStateException   if a simulation is already running
+     */
+    public synchronized void runUntil(int custCount, int callCount, int interval, int length, 
+                                      Day day, int shift, long pauseTime) {
+        begin(custCount, callCount, interval, length, day, shift, true);
+        
+        events.add(0, ARRIVAL_EVENT, null);
+        scheduleStartCall();
+        if (isShifting) {
+            events.add(shiftLength, SHIFT_CHANGE_EVENT, null);
+        }
+        advance(pauseTime);
+    }
+    
+    /**
+     * Resumes a paused run to completion
+     * 
+     * @throws      IllegalStateException   if no run is paused
+     */
+    public synchronized void resume() {
+        resume(Long.MAX_VALUE);
+    }
+    
+    /**
+     * Resumes a paused run, and pauses it again before the first event after the given 
+     * simulated time
+     * 
+     * @param       pauseTime       simulated time to pause at, in milliseconds
+     * @throws      IllegalStateException   if no run is paused
+     */
+    public synchronized void resume(long pauseTime) {
+        if (!isPaused) {
+            throw new IllegalStateException("No simulation is paused");
+        }
+        isPaused = false;
+        advance(pauseTime);
+    }
+    
+    /**
+     * Checks whether or not a run on a virtual clock is paused
+     * 
+     * @return      true if a run is paused, otherwise false
+     */
+    public synchronized boolean isPaused() {
+        return isPaused;
+    }
+    
+    /**
+     * Processes events in simulated time order until the run ends, or the next event is 
+     * after the given time, in which case the run is paused at that time. The run also 
+     * ends early once no tech is waiting, on a call or due on a later shift, as no further 
+     * call could then be started.
+     * 
+     * @param       pauseTime       simulated time to pause at, in milliseconds
+     */
+    private void advance(long pauseTime) {
+        while (isRunning && !events.isEmpty()) {
+            if (events.peekTime() > pauseTime) {
+                clock = Math.max(clock, pauseTime);
+                stats.recordTime(clock);
+                isPaused = true;
+                return;
+            }
+            clock = events.peekTime();
+            int type = events.peekType();
+            Object payload = events.peekPayload();
+            events.remove();
+            long started = isTimingEvents ? System.nanoTime() : 0;
+            
+            switch (type) {
+                case ARRIVAL_EVENT:         arrive();
+                                            break;
+                case START_CALL_EVENT:      startCalls();
+                                            break;
+                case END_CALL_EVENT:        removeCall((Call)payload);
+                                            break;
+                case SHIFT_CHANGE_EVENT:    changeShift();
+                                            break;
+                default:                    throw new IllegalStateException("Invalid event");
+            }
+            stats.recordEvent();
+            if (isTimingEvents) {
+                stats.recordEventLatency(System.nanoTime() - started);
+            }
+            if (isRunning && techQueue.isEmpty() && openCalls.isEmpty() && !isStaffedLater()) {
+                notifyObservers("Simulation stopped: no techs are on duty");
+                end();
+            }
+        }
+        
+        if (isRunning) {
+            end();
+        }
+    }
+    
+    /**
+     * Checks whether or not any tech comes on duty in a later shift of the run
+     * 
+     * @return      true if shifts change and any shift has a tech on duty, otherwise false
+     */
+    private boolean isStaffedLater() {
+        if (!isShifting) {
+            return false;
+        }
+        if (techCount != SCHEDULED_TECHS) {
+            return techCount > 0;
+        }
+        for (Day rosterDay : Day.values()) {
+            for (int rosterShift = 1; rosterShift <= RosterIndex.SHIFTS; rosterShift++) {
+                if (roster.getCount(rosterDay, rosterShift) > 0) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Ends the simulation
+     */
+    public synchronized void end() {
+        isPaused = false;
+        if (isVirtual) {
+            events.clear();
+        } else {
+            clock = getClock();
+            timer1.cancel();
+            timer2.cancel();
+            timer3.cancel();
+            endCalls.clear();
+        }
+        if (isShifting) {
+            stats.recordStaffedTime((clock - shiftStart) * dutyCount);
+            shiftStart = clock;
+        }
+        stats.recordTime(clock);
+        closeJournal();
+        
+        isRunning = false;
+        notifyObservers(isRunning);
+        
+    }
+    
+    /**
+     * Saves the state of the paused run as a compact binary snapshot: the queues in order, 
+     * the open calls, the pending events, the techs on duty, the state of every random 
+     * stream and the statistics so far. Distributions are not saved, as they are settings of the 
+     * simulation rather than state of the run.
+     * 
+     * @return      the snapshot
+     * @throws      IllegalStateException   if no run is paused
+     */
+    public synchronized byte[] snapshot() {
+        if (!isPaused) {
+            throw new IllegalStateException("Only a paused simulation can be saved");
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeInt(customers.size());
+            out.writeInt(techs.length);
+            out.writeLong(seed);
+            out.writeInt(custCount);
+            out.writeInt(callCount);
+            out.writeInt(interval);
+            out.writeInt(length);
+            out.writeByte(day.ordinal());
+            out.writeByte(shift);
+            out.writeInt(techCount);
+            out.writeLong(clock);
+            out.writeBoolean(startCallPending);
+            out.writeBoolean(isShifting);
+            if (isShifting) {
+                out.writeLong(shiftLength);
+                out.writeLong(shiftStart);
+                out.writeInt(dutyCount);
+                for (int handle : techHandles) {
+                    if (onDuty[handle]) {
+                        out.writeInt(handle);
+                    }
+                }
+            }
+            out.writeLong(arrivalRandom.getDraws());
+            out.writeLong(lengthRandom.getDraws());
+            out.writeLong(custRandom.getDraws());
+            
+            int[] pool = custPool.toArray();
+            out.writeInt(pool.length);
+            out.writeInt(custPool.available());
+            for (int handle : pool) {
+                out.writeInt(handle);
+            }
+            int[] waiting = custQueue.toArray();
+            out.writeInt(waiting.length);
+            for (int handle : waiting) {
+                out.writeInt(handle);
+                out.writeLong(queuedAt[handle]);
+            }
+            int[] ready = techQueue.toArray();
+            out.writeInt(ready.length);
+            for (int handle : ready) {
+                out.writeInt(handle);
+                out.writeLong(idleSince[handle]);
+            }
+            
+            // drain a copy of the event queue, so events are saved in the order they occur
+            EventQueue pending = events.copy();
+            out.writeInt(pending.size());
+            while (!pending.isEmpty()) {
+                out.writeByte(pending.peekType());
+                out.writeLong(pending.peekTime());
+                if (pending.peekType() == END_CALL_EVENT) {
+                    Call call = (Call)pending.peekPayload();
+                    out.writeInt(call.getCustomerHandle());
+                    out.writeInt(call.getTechHandle());
+                    out.writeInt(call.getLength());
+                    out.writeLong(call.getQueuedAt());
+                    out.writeLong(call.getStartedAt());
+                }
+                pending.remove();
+            }
+            stats.write(out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+    
+    /**
+     * Restores a snapshot saved by a simulation on the same data, leaving the run paused. 
+     * Arrival and call length distributions must be set as they were in the simulation 
+     * the snapshot was saved from. A restored run does not write a journal.
+     * 
+     * @param       snapshot        the snapshot
+     * @throws      IllegalStateException   if a simulation is already running
+     * @throws      IllegalArgumentException    if the snapshot is not valid, or was saved 
+     *                                          on other data
+     */
+    public synchronized void restore(byte[] snapshot) {
+        if (isRunning) {
+            throw new IllegalStateException("You must end the current simulation before " + 
+                                            "restoring another");
+        }
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(snapshot))) {
+            if (in.readInt() != SNAPSHOT_MAGIC) {
+                throw new IllegalArgumentException("Not a snapshot");
+            }
+            if (in.readInt() != customers.size() || in.readInt() != techs.length) {
+                throw new IllegalArgumentException("Snapshot was saved on other data");
+            }
+            this.seed = in.readLong();
+            this.custCount = in.readInt();
+            this.callCount = in.readInt();
+            this.interval = in.readInt();
+            this.length = in.readInt();
+            this.day = Day.values()[in.readByte()];
+            this.shift = in.readByte();
+            this.techCount = in.readInt();
+            this.clock = in.readLong();
+            this.startCallPending = in.readBoolean();
+            if (queuedAt == null) {
+                allocateHandleArrays();
+            }
+            this.isShifting = in.readBoolean();
+            if (isShifting) {
+                this.shiftLength = in.readLong();
+                this.shiftStart = in.readLong();
+                this.dutyCount = in.readInt();
+                Arrays.fill(onDuty, false);
+                for (int i = 0; i < dutyCount; i++) {
+                    onDuty[readHandle(in, techs.length)] = true;
+                }
+            }
+            long[] seeds = RandomStream.deriveSeeds(seed, STREAMS);
+            this.arrivalRandom = new RandomStream(seeds[0], in.readLong());
+            this.lengthRandom = new RandomStream(seeds[1], in.readLong());
+            this.custRandom = new RandomStream(seeds[2], in.readLong());
+            this.arrivalDist = arrivalTimes != null ? arrivalTimes 
+                                                    : Distributions.defaultArrivalTimes(interval);
+            this.lengthDist = callLengths != null ? callLengths 
+                                                  : Distributions.defaultCallLengths(length);
+            
+            int[] pool = new int[in.readInt()];
+            int available = in.readInt();
+            for (int i = 0; i < pool.length; i++) {
+                pool[i] = in.readInt();
+            }
+            custPool = new HandlePool(pool, available);
+            custQueue = new IntHashSetQueue();
+            for (int i = in.readInt(); i > 0; i--) {
+                int handle = readHandle(in, customers.size());
+                queuedAt[handle] = in.readLong();
+                custQueue.add(handle);
+            }
+            techQueue = new IntHashSetQueue();
+            for (int i = in.readInt(); i > 0; i--) {
+                int handle = readHandle(in, techs.length);
+                idleSince[handle] = in.readLong();
+                techQueue.add(handle);
+            }
+            
+            events.clear();
+            openCalls = new CallTable();
+            Arrays.fill(onCall, false);
+            for (int i = in.readInt(); i > 0; i--) {
+                int type = in.readByte();
+                long time = in.readLong();
+                Call call = null;
+                if (type == END_CALL_EVENT) {
+                    int cust = readHandle(in, customers.size());
+                    int tech = readHandle(in, techs.length);
+                    call = new Call(customers, techs[tech], cust, tech, in.readInt());
+                    long queued = in.readLong();
+                    call.setStarted(queued, in.readLong());
+                    openCalls.add(call);
+                    onCall[tech] = true;
+                } else if (type != ARRIVAL_EVENT && type != START_CALL_EVENT 
+                           && type != SHIFT_CHANGE_EVENT) {
+                    throw new IllegalArgumentException("Invalid event in snapshot");
+                }
+                events.add(time, type, call);
+            }
+            this.stats = RunStats.read(in);
+        } catch (IOException | ArrayIndexOutOfBoundsException | NegativeArraySizeException e) {
+            throw new IllegalArgumentException("Invalid snapshot", e);
+        }
+        
+        this.journal = null;
+        this.isVirtual = true;
+        this.isRunning = true;
+        this.isPaused = true;
+        notifyObservers(isRunning);
+        notifyObservers(callCount, custQueue.size(), openCalls.size(), techQueue.size());
+    }
+    
+    /**
+     * Reads a handle from a snapshot
+     * 
+     * @param       in          source of the snapshot
+     * @param       count       number of valid handles
+     * @return      the handle
+     * @throws      IOException     if the handle cannot be read, or is out of range
+     */
+    private static int readHandle(DataInputStream in, int count) throws IOException {
+        int handle = in.readInt();
+        if (handle < 0 || handle >= count) {
+            throw new IOException("Invalid handle in snapshot: " + handle);
+        }
+        return handle;
+    }
+    
+    /**
+     * Prepares the queues for a new simulation with specified values
      * 
      * @param       custCount       initial customers in queue
      * @param       callCount       number of calls to simulate
@@ -127,14 +870,25 @@ public class Simulation implements Subject {
      * @param       length          average call length, in seconds
      * @param       day             day to simulate
      * @param       shift           shift to simulate
+     * @param       isVirtual       whether or not to run on a virtual clock
      * @throws      IllegalStateException   if a simulation is already running
+     * @throws      IllegalArgumentException    if there are fewer customers than custCount, 
+     *                                          or calls would arrive with no time between 
+     *                                          them
      */
-    public void start(int custCount, int callCount, int interval, int length, Day day, 
-                         int shift) {
+    private synchronized void begin(int custCount, int callCount, int interval, int length, 
+                                    Day day, int shift, boolean isVirtual) {
         if (isRunning) {
             throw new IllegalStateException("You must end the current simulation before" + 
                                             "starting a new one");
         }
+        if (custCount > custHandles.length) {
+            throw new IllegalArgumentException("There are not enough customers in the array");
+        }
+        
+        Distribution arrivals = arrivalTimes != null ? arrivalTimes 
+                                                     : Distributions.defaultArrivalTimes(interval);
+        Distributions.checkArrivalTimes(arrivals);
         
         this.custCount = custCount;
         this.callCount = callCount;
@@ -142,43 +896,200 @@ public class Simulation implements Subject {
         this.length = length;
         this.day = day;
         this.shift = shift;
+        this.isVirtual = isVirtual;
+        this.clock = isVirtual ? 0 : System.currentTimeMillis();
+        this.startCallPending = false;
+        this.arrivalDist = arrivals;
+        this.lengthDist = callLengths != null ? callLengths 
+                                              : Distributions.defaultCallLengths(length);
+        if (!isSeeded) {
+            this.seed = new SplittableRandom().nextLong();
+        }
+        long[] seeds = RandomStream.deriveSeeds(seed, STREAMS);
+        this.arrivalRandom = new RandomStream(seeds[0]);
+        this.lengthRandom = new RandomStream(seeds[1]);
+        this.custRandom = new RandomStream(seeds[2]);
+        events.clear();
         this.isRunning = true;
         notifyObservers(isRunning);
         
-        openCalls = new ArrayList<>();
+        openCalls = new CallTable();
+        openJournal();
+        if (queuedAt == null) {
+            allocateHandleArrays();
+        }
+        Arrays.fill(onCall, false);
         initialTechQueue();
+        this.isShifting = shiftLength != SINGLE_SHIFT;
+        if (isShifting) {
+            Arrays.fill(onDuty, false);
+            for (int handle : techQueue.toArray()) {
+                onDuty[handle] = true;
+            }
+            this.dutyCount = techQueue.size();
+            this.shiftStart = clock;
+            if (journal != null) {
+                journal.write(EventJournal.SHIFT, clock, -1, dutyCount, 
+                              RosterIndex.slot(day, shift));
+            }
+        }
+        this.stats = new RunStats(techQueue.size());
+        long now = getClock();
+        for (int handle : techHandles) {
+            idleSince[handle] = now;
+        }
         initialCustQueue();
-        
-        this.timer1 = new Timer();
-        timer1.schedule(new QueueTask(), 0, interval * 1000);
-        this.timer2 = new Timer();
-        timer2.schedule(new StartCallTask(), 0, 50);
-        this.timer3 = new Timer();
     }
     
     /**
-     * Ends the simulation
+     * Allocates the arrays indexed by customer or tech handle
      */
-    public void end() {
-        timer1.cancel();
-        timer2.cancel();
-        timer3.cancel();
-        
-        isRunning = false;
-        notifyObservers(isRunning);
-        
+    private void allocateHandleArrays() {
+        queuedAt = new long[customers.size()];
+        idleSince = new long[techs.length];
+        onDuty = new boolean[techs.length];
+        onCall = new boolean[techs.length];
     }
     
     
     /**
-     * Fills tech queue with scheduled techs
+     * Fills tech queue with the techs on duty
      */
     private void initialTechQueue() {
-        techQueue = new HashSetQueue<>();
-        for (Tech tech : techs) {
-            if (tech.isWorking(day, shift)) {
-                techQueue.add(tech);
+        techQueue = new IntHashSetQueue();
+        for (int handle : dutyRoster()) {
+            addReadyTech(handle);
+        }
+    }
+    
+    /**
+     * Returns the techs on duty in the current day and shift: the scheduled techs, or the 
+     * overridden number of techs, taking scheduled techs first
+     * 
+     * @return      handles of the techs on duty, which must not be changed
+     */
+    private int[] dutyRoster() {
+        int[] scheduled = roster.getHandles(day, shift);
+        if (techCount == SCHEDULED_TECHS) {
+            return scheduled;
+        }
+        int[] duty = new int[techCount];
+        int count = 0;
+        for (int handle : scheduled) {
+            if (count >= techCount) {
+                break;
             }
+            duty[count++] = handle;
+        }
+        for (int handle : techHandles) {
+            if (count < techCount && !techs[handle].isWorking(day, shift)) {
+                duty[count++] = handle;
+            }
+        }
+        return count == duty.length ? duty : Arrays.copyOf(duty, count);
+    }
+    
+    /**
+     * Changes to the next shift, when running on a virtual clock. Techs whose shift is over 
+     * leave the tech queue, keeping the order of those who stay, then techs starting their 
+     * shift join it. Techs on a call stay on it, and only rejoin the queue at its end if 
+     * they are on duty by then.
+     */
+    private void changeShift() {
+        stats.recordStaffedTime((clock - shiftStart) * dutyCount);
+        shiftStart = clock;
+        if (shift < RosterIndex.SHIFTS) {
+            shift++;
+        } else {
+            shift = 1;
+            day = Day.values()[(day.ordinal() + 1) % Day.values().length];
+        }
+        
+        int[] duty = dutyRoster();
+        Arrays.fill(onDuty, false);
+        for (int handle : duty) {
+            onDuty[handle] = true;
+        }
+        dutyCount = duty.length;
+        if (journal != null) {
+            journal.write(EventJournal.SHIFT, clock, -1, dutyCount, 
+                          RosterIndex.slot(day, shift));
+        }
+        if (!observers.isEmpty()) {
+            notifyObservers("Shift change: " + day + " shift " + shift + ", " + dutyCount + 
+                            " techs on duty\n");
+        }
+        
+        int[] waiting = techQueue.toArray();
+        techQueue.clear();
+        for (int handle : waiting) {
+            if (onDuty[handle]) {
+                techQueue.add(handle);
+            } else if (journal != null) {
+                journal.write(EventJournal.TECH_LEAVE, clock, -1, handle, -1);
+            }
+        }
+        for (int handle : duty) {
+            if (!onCall[handle] && techQueue.add(handle)) {
+                idleSince[handle] = clock;
+                if (journal != null) {
+                    journal.write(EventJournal.TECH_READY, clock, -1, handle, -1);
+                }
+            }
+        }
+        
+        events.add(clock + shiftLength, SHIFT_CHANGE_EVENT, null);
+        scheduleStartCall();
+        notifyObservers(callCount, custQueue.size(), openCalls.size(), techQueue.size());
+    }
+    
+    /**
+     * Adds a tech to the tech queue at the start of a run
+     * 
+     * @param       handle      handle of the tech
+     */
+    private void addReadyTech(int handle) {
+        techQueue.add(handle);
+        if (journal != null) {
+            journal.write(EventJournal.TECH_READY, getClock(), -1, handle, -1);
+        }
+    }
+    
+    /**
+     * Opens the journal of a new run, if a journal file is set
+     * 
+     * @throws      UncheckedIOException    if the journal file cannot be written
+     */
+    private void openJournal() {
+        if (journalFile == null) {
+            return;
+        }
+        try {
+            journal = new EventJournal(journalFile, seed, custCount, callCount, day, shift, 
+                                       customers.size(), techs.length);
+        } catch (IOException e) {
+            isRunning = false;
+            notifyObservers(isRunning);
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    /**
+     * Records the end of the run and closes its journal, if one is open
+     * 
+     * @throws      UncheckedIOException    if the journal file cannot be written
+     */
+    private void closeJournal() {
+        if (journal == null) {
+            return;
+        }
+        EventJournal closing = journal;
+        journal = null;
+        try {
+            closing.write(EventJournal.FINISH, clock, -1, -1, callCount);
+            closing.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
     }
     
@@ -186,38 +1097,48 @@ public class Simulation implements Subject {
      * Fills initial customer queue
      */
     private void initialCustQueue() {
-        custQueue = new HashSetQueue<>();
+        custPool = new HandlePool(custHandles);
+        custQueue = new IntHashSetQueue();
         addRandCust(custCount);
     }
     
     /**
-     * Adds specified number of random customers to customer queue
+     * Adds specified number of random customers to customer queue. Customers are drawn 
+     * from those not already waiting, so once every customer is waiting, further incoming 
+     * calls are dropped.
      * 
      * @param       quantity        number of random customers to be added
      */
     private void addRandCust(int quantity) {
-        int targetSize = custQueue.size() + quantity;
-        if (targetSize > customers.length) {
-            throw new IllegalArgumentException("There are not enough customers in the array");
+        int added = Math.min(quantity, custPool.available());
+        long now = getClock();
+        for (int i = 0; i < added; i++) {
+            int handle = custPool.take(custRandom);
+            queuedAt[handle] = now;
+            custQueue.add(handle);
+            if (journal != null) {
+                journal.write(EventJournal.ARRIVAL, now, handle, -1, -1);
+            }
         }
-        
-        while (custQueue.size() < targetSize) {
-            custQueue.add(customers[randInRangeInt(0, customers.length - 1)]);
+        for (int i = added; i < quantity; i++) {
+            stats.recordDroppedCall();
+            if (journal != null) {
+                journal.write(EventJournal.DROP, now, -1, -1, -1);
+            }
         }
+        stats.recordQueueSize(custQueue.size());
         notifyObservers(callCount, custQueue.size(), openCalls.size(), techQueue.size());
     }
     
     /**
-     * Returns a random integer within specified range
+     * Draws a duration from the given distribution, rounded to whole milliseconds
      * 
-     * @param       min         minimum value, inclusive
-     * @param       max         maximum value, inclusive
-     * @return      a random integer within specified range
+     * @param       distribution    distribution to draw from
+     * @param       random          random stream to draw with
+     * @return      a random duration, in milliseconds
      */
-    private int randInRangeInt(int min, int max) {
-        Random random = new Random();
-        int x = random.nextInt(max - min) + min;
-        return x;
+    private static long sample(Distribution distribution, RandomStream random) {
+        return Math.max(0, Math.round(distribution.sample(random)));
     }
     
     
@@ -226,32 +1147,103 @@ public class Simulation implements Subject {
      */
     private void addCall() {
         if (callCount > 0 && !techQueue.isEmpty() && !custQueue.isEmpty()) {
-            Tech nextTech = techQueue.remove();
-            Customer nextCust = custQueue.remove();
+            int nextTech = techQueue.remove();
+            int nextCust = custQueue.remove();
+            custPool.release(nextCust);
+            long now = getClock();
+            stats.recordCallStart(now - queuedAt[nextCust]);
+            stats.recordTechIdle(now - idleSince[nextTech]);
+            onCall[nextTech] = true;
             
-            int randomLength = randInRangeInt(100, length * 2000);
-            Call newCall = new Call(nextCust, nextTech, randomLength);
-            notifyObservers(newCall + "\n");
+            int randomLength = (int)Math.min(Integer.MAX_VALUE, 
+                                             sample(lengthDist, lengthRandom));
+            Call newCall = new Call(customers, techs[nextTech], nextCust, nextTech, 
+                                    randomLength);
+            newCall.setStarted(queuedAt[nextCust], now);
+            if (journal != null) {
+                journal.write(EventJournal.START, now, nextCust, nextTech, randomLength);
+            }
+            if (!observers.isEmpty()) {
+                notifyObservers(newCall + "\n");
+            }
             openCalls.add(newCall);
-            timer3.schedule(new EndCallTask(newCall), randomLength);
+            if (isVirtual) {
+                events.add(clock + randomLength, END_CALL_EVENT, newCall);
+            } else {
+                endCalls.schedule(newCall, System.currentTimeMillis() + randomLength);
+            }
             callCount--;
             notifyObservers(callCount, custQueue.size(), openCalls.size(), techQueue.size());
         }
-        if (callCount <= 0) {
+        if (callCount <= 0 && !isVirtual) {
             timer1.cancel();
             timer2.cancel();
         }
     }
     
+    /**
+     * Adds a random customer to the queue and schedules the next incoming call, when 
+     * running on a virtual clock
+     */
+    private void arrive() {
+        if (callCount > 0) {
+            addRandCust(1);
+            events.add(clock + sample(arrivalDist, arrivalRandom), ARRIVAL_EVENT, null);
+            scheduleStartCall();
+        }
+    }
+    
+    /**
+     * Starts as many calls as there are available techs and customers, when running on a 
+     * virtual clock
+     */
+    private void startCalls() {
+        startCallPending = false;
+        while (callCount > 0 && !techQueue.isEmpty() && !custQueue.isEmpty()) {
+            addCall();
+        }
+    }
+    
+    /**
+     * Schedules an attempt to start calls at the current simulated time, unless one is 
+     * already pending
+     */
+    private void scheduleStartCall() {
+        if (!startCallPending) {
+            startCallPending = true;
+            events.add(clock, START_CALL_EVENT, null);
+        }
+    }
+    
     /**
      * Removes specified call from open calls
      * 
      * @param       call        call to be removed
      */
-    public void removeCall(Call call) {
-        Tech availableTech = call.getTech();
+    public synchronized void removeCall(Call call) {
+        int availableTech = call.getTechHandle();
+        if (availableTech == IdIndex.NO_HANDLE) {
+            availableTech = techIndex.get(Integer.parseInt(call.getTech().getId()));
+        }
+        long now = getClock();
+        call.setEnded(now);
         openCalls.remove(call);
-        techQueue.add(availableTech);
+        onCall[availableTech] = false;
+        boolean isOnDuty = !isShifting || onDuty[availableTech];
+        if (isOnDuty) {
+            techQueue.add(availableTech);
+            idleSince[availableTech] = now;
+        }
+        stats.recordCallEnd(now - call.getStartedAt());
+        if (journal != null) {
+            journal.write(EventJournal.END, now, call.getCustomerHandle(), availableTech, -1);
+            if (!isOnDuty) {
+                journal.write(EventJournal.TECH_LEAVE, now, -1, availableTech, -1);
+            }
+        }
+        if (isVirtual) {
+            scheduleStartCall();
+        }
         
         notifyObservers(callCount, custQueue.size(), openCalls.size(), techQueue.size());
         
@@ -291,14 +1283,18 @@ public class Simulation implements Subject {
     
     
     /**
-     * A TimerTask which adds a random customer to the queue
+     * A TimerTask which adds a random customer to the queue, then schedules the next 
+     * incoming call
      */
     public class QueueTask extends TimerTask {
         public void run() {
-            if (callCount > 0) {
-                addRandCust(1);
-            } else {
-                this.cancel();
+            synchronized (Simulation.this) {
+                if (isRunning && callCount > 0) {
+                    addRandCust(1);
+                    nextArrival += sample(arrivalDist, arrivalRandom);
+                    timer1.schedule(new QueueTask(), 
+                                    Math.max(0, nextArrival - System.currentTimeMillis()));
+                }
             }
         }
     }
@@ -308,33 +1304,29 @@ public class Simulation implements Subject {
      */
     public class StartCallTask extends TimerTask {
         public void run() {
-            addCall();
-            
-            if (callCount <= 0) {
-                this.cancel();
+            synchronized (Simulation.this) {
+                addCall();
+                
+                if (callCount <= 0) {
+                    this.cancel();
+                }
             }
         }
     }
     
     /**
-     * A TimerTask which removes a call
+     * A TimerTask which advances the end call wheel, removing every call which has ended
      */
     public class EndCallTask extends TimerTask {
-        /** The call to be removed */
-        private Call    call;
-        
-        /**
-         * Creates a task to remove a specified call
-         * 
-         * @param       call        the call to be removed
-         */
-        public EndCallTask(Call call) {
-            super();
-            this.call = call;
-        }
+        /** Removes each expired call */
+        private Consumer<Call>  remover = call -> removeCall(call);
         
         public void run() {
-            removeCall(call);
+            synchronized (Simulation.this) {
+                if (isRunning) {
+                    endCalls.advance(System.currentTimeMillis(), remover);
+                }
+            }
         }
     }
 }
@@ -0,0 +1,246 @@
+package com.stevencl.callcentersim;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+
+/**
+ * The customer and tech data a simulation runs on, loaded from file once. Nothing here is
+ * changed after loading, so one SimulationData can be shared by any number of simulations,
+ * including simulations running at the same time on different threads. When customers are
+ * loaded lazily, the customer file stays open until the data is closed.
+ *
+ * @author      Steven Leighton
+ * @version     2018-12-06
+ */
+public class SimulationData implements Closeable {
+    /** Default customer file */
+    public static final String  CUSTOMER_FILE = "customers.csv";
+    /** Default tech file */
+    public static final String  TECH_FILE = "techs.csv";
+
+    /** All customers */
+    private CustomerSource      customers;
+    /** All techs */
+    private Tech[]              techs;
+    /** Customer handles, indexed by customer id */
+    private IdIndex             custIndex;
+    /** Tech handles, indexed by tech id */
+    private IdIndex             techIndex;
+    /** Handles of all distinct customers */
+    private int[]               custHandles;
+    /** Handles of all distinct techs */
+    private int[]               techHandles;
+    /** Techs scheduled for each day and shift */
+    private RosterIndex         roster;
+    /** Summary of the data loaded from file */
+    private String              loadReport;
+
+
+    /**
+     * Loads data from the given files. Customers can be loaded lazily, in which case the
+     * customer file is only indexed, and each customer is decoded the first time it is
+     * selected for a call.
+     *
+     * @param       custFile        path of the customer file
+     * @param       techFile        path of the tech file
+     * @param       lazyCustomers   whether or not to load customers lazily
+     * @param       cacheSize       maximum number of decoded customers to keep, when lazy
+     * @throws      IOException     if a file cannot be read
+     */
+    public SimulationData(String custFile, String techFile, boolean lazyCustomers,
+                          int cacheSize) throws IOException {
+        CsvLoader techLoader = readTechFromFile(techFile);
+        CsvLoader custLoader = lazyCustomers ? indexCustFromFile(custFile, cacheSize)
+                                             : readCustFromFile(custFile);
+        loadReport = String.format("Loaded %d customers (%.0f rows/sec) and %d techs "
+                                   + "(%.0f rows/sec)", customers.size(),
+                                   custLoader.getRowsPerSecond(), techs.length,
+                                   techLoader.getRowsPerSecond());
+    }
+
+    /**
+     * Loads data from the default files
+     *
+     * @param       lazyCustomers   whether or not to load customers lazily
+     * @param       cacheSize       maximum number of decoded customers to keep, when lazy
+     * @throws      IOException     if a file cannot be read
+     */
+    public SimulationData(boolean lazyCustomers, int cacheSize) throws IOException {
+        this(CUSTOMER_FILE, TECH_FILE, lazyCustomers, cacheSize);
+    }
+
+
+    /**
+     * Fills customer store with data from file
+     *
+     * @param       fileName        path of the customer file
+     * @return      the loader used to read the file
+     * @throws      IOException     if target file cannot be read
+     */
+    private CsvLoader readCustFromFile(String fileName) throws IOException {
+        CsvLoader loader = new CsvLoader(fileName);
+        CustomerStore store = new CustomerStore();
+        custIndex = new IdIndex();
+        loader.load(row -> custIndex.putIfAbsent(row.getInt(0), store.add(row)));
+        store.trimToSize();
+        customers = store;
+        custHandles = custIndex.getHandles();
+        return loader;
+    }
+
+    /**
+     * Indexes customer rows in the file, without decoding them
+     *
+     * @param       fileName        path of the customer file
+     * @param       cacheSize       maximum number of decoded customers to keep
+     * @return      the loader used to index the file
+     * @throws      IOException     if target file cannot be read
+     */
+    private CsvLoader indexCustFromFile(String fileName, int cacheSize) throws IOException {
+        LazyCustomerSource source = new LazyCustomerSource(fileName, cacheSize);
+        custIndex = new IdIndex(source.size());
+        for (int i = 0; i < source.size(); i++) {
+            custIndex.putIfAbsent(source.getId(i), i);
+        }
+        customers = source;
+        custHandles = custIndex.getHandles();
+        return source.getLoader();
+    }
+
+    /**
+     * Fills tech array with data from file
+     *
+     * @param       fileName        path of the tech file
+     * @return      the loader used to read the file
+     * @throws      IOException     if target file cannot be read
+     */
+    private CsvLoader readTechFromFile(String fileName) throws IOException {
+        CsvLoader loader = new CsvLoader(fileName);
+        ArrayList<Tech> rows = new ArrayList<>();
+        techIndex = new IdIndex();
+        loader.load(row -> {
+            techIndex.putIfAbsent(row.getInt(0), rows.size());
+            rows.add(new Tech(row.getString(0), row.getString(1), row.getString(2),
+                              row.getString(3), row.getString(4)));
+        });
+        techs = rows.toArray(new Tech[rows.size()]);
+        techHandles = techIndex.getHandles();
+        roster = new RosterIndex(techs, techHandles);
+        return loader;
+    }
+
+
+    /**
+     * Returns all customers
+     *
+     * @return      all customers
+     */
+    public CustomerSource getCustomers() {
+        return customers;
+    }
+
+    /**
+     * Returns all techs. The array must not be changed.
+     *
+     * @return      all techs
+     */
+    Tech[] getTechs() {
+        return techs;
+    }
+
+    /**
+     * Returns the customer handles, indexed by customer id
+     *
+     * @return      the customer index
+     */
+    IdIndex getCustIndex() {
+        return custIndex;
+    }
+
+    /**
+     * Returns the tech handles, indexed by tech id
+     *
+     * @return      the tech index
+     */
+    IdIndex getTechIndex() {
+        return techIndex;
+    }
+
+    /**
+     * Returns the handles of all distinct customers. The array must not be changed.
+     *
+     * @return      the handles of all distinct customers
+     */
+    int[] getCustHandles() {
+        return custHandles;
+    }
+
+    /**
+     * Returns the handles of all distinct techs. The array must not be changed.
+     *
+     * @return      the handles of all distinct techs
+     */
+    int[] getTechHandles() {
+        return techHandles;
+    }
+
+    /**
+     * Returns the techs scheduled for each day and shift
+     *
+     * @return      the roster index
+     */
+    RosterIndex getRoster() {
+        return roster;
+    }
+
+    /**
+     * Returns the number of distinct customers
+     *
+     * @return      the number of distinct customers
+     */
+    public int getCustomerCount() {
+        return custHandles.length;
+    }
+
+    /**
+     * Returns the number of distinct techs
+     *
+     * @return      the number of distinct techs
+     */
+    public int getTechCount() {
+        return techHandles.length;
+    }
+
+    /**
+     * Returns the number of distinct techs scheduled to work the given day and shift
+     *
+     * @param       day         day to simulate
+     * @param       shift       shift to simulate
+     * @return      the number of scheduled techs
+     */
+    public int getScheduledTechCount(Day day, int shift) {
+        return roster.getCount(day, shift);
+    }
+
+    /**
+     * Returns a summary of the data loaded from file, with the loader throughput
+     *
+     * @return      a summary of the data loaded from file
+     */
+    public String getLoadReport() {
+        return loadReport;
+    }
+
+    /**
+     * Closes the customer file, if customers are loaded lazily. Simulations on this data
+     * must not run afterwards.
+     *
+     * @throws      IOException     if the file cannot be closed
+     */
+    public void close() throws IOException {
+        if (customers instanceof LazyCustomerSource) {
+            ((LazyCustomerSource)customers).close();
+        }
+    }
+}
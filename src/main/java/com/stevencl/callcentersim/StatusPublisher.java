@@ -0,0 +1,135 @@
+package com.stevencl.callcentersim;
+
+import java.util.concurrent.locks.StampedLock;
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+
+/**
+ * An observer which coalesces status updates before passing them on. Each status update
+ * only overwrites the latest snapshot, and a Swing timer passes the snapshot on to the
+ * target observer on the event dispatch thread at a fixed rate, if it has changed. The
+ * display then costs the same however fast the simulation runs, and the simulation never
+ * waits for the display.
+ *
+ * <p>Console text is passed on as it arrives. When a simulation stops, the final status is
+ * passed on before the change in running state.
+ *
+ * @author      Steven Leighton
+ * @version     2018-12-06
+ */
+public class StatusPublisher implements Observer {
+    /** Observer which receives the coalesced updates */
+    private Observer        target;
+    /** Timer which publishes the latest snapshot */
+    private Timer           timer;
+    /** Guards the snapshot; readers never block writers */
+    private StampedLock     lock;
+    /** Number of calls remaining in the latest snapshot */
+    private int             callsRemaining;
+    /** Number of customers in queue in the latest snapshot */
+    private int             queueSize;
+    /** Number of open calls in the latest snapshot */
+    private int             openCalls;
+    /** Number of techs in queue in the latest snapshot */
+    private int             availableTechs;
+    /** Number of status updates received */
+    private long            version;
+    /** Version of the last snapshot passed on, used only on the event dispatch thread */
+    private long            published;
+
+
+    /**
+     * Creates a StatusPublisher which passes status updates on to the given observer at
+     * most the given number of times per second
+     *
+     * @param       target      observer which receives the coalesced updates
+     * @param       rate        maximum number of status updates per second
+     * @throws      IllegalArgumentException    if the rate is not positive
+     */
+    public StatusPublisher(Observer target, int rate) {
+        if (rate <= 0) {
+            throw new IllegalArgumentException("Rate must be positive");
+        }
+        this.target = target;
+        this.lock = new StampedLock();
+        this.version = 0;
+        this.published = 0;
+        this.timer = new Timer(Math.max(1, 1000 / rate), event -> publish());
+        this.timer.setCoalesce(true);
+    }
+
+
+    /**
+     * Records the given status values as the latest snapshot
+     *
+     * @param       callsRemaining      number of calls remaining
+     * @param       queueSize           number of customers in queue
+     * @param       openCalls           number of open calls
+     * @param       availableTechs      number of techs in queue
+     */
+    public void update(int callsRemaining, int queueSize, int openCalls, int availableTechs) {
+        long stamp = lock.writeLock();
+        this.callsRemaining = callsRemaining;
+        this.queueSize = queueSize;
+        this.openCalls = openCalls;
+        this.availableTechs = availableTechs;
+        this.version++;
+        lock.unlockWrite(stamp);
+    }
+
+    /**
+     * Passes the given console text on to the target
+     *
+     * @param       consoleText         text to be displayed on the console
+     */
+    public void update(String consoleText) {
+        target.update(consoleText);
+    }
+
+    /**
+     * Starts publishing when a simulation starts, and publishes the final status then
+     * stops when it ends
+     *
+     * @param       isRunning           whether or not a simulation is running
+     */
+    public void update(boolean isRunning) {
+        if (isRunning) {
+            timer.start();
+            target.update(isRunning);
+        } else {
+            timer.stop();
+            SwingUtilities.invokeLater(() -> {
+                publish();
+                target.update(isRunning);
+            });
+        }
+    }
+
+
+    /**
+     * Passes the latest snapshot on to the target, if it has changed since the last one.
+     * Called on the event dispatch thread.
+     */
+    private void publish() {
+        long stamp = lock.tryOptimisticRead();
+        long latest = version;
+        int count = callsRemaining;
+        int queue = queueSize;
+        int occupied = openCalls;
+        int available = availableTechs;
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            latest = version;
+            count = callsRemaining;
+            queue = queueSize;
+            occupied = openCalls;
+            available = availableTechs;
+            lock.unlockRead(stamp);
+        }
+
+        if (latest != published) {
+            published = latest;
+            target.update(count, queue, occupied, available);
+        }
+    }
+}
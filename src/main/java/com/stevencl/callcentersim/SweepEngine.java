@@ -0,0 +1,265 @@
+package com.stevencl.callcentersim;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Runs every scenario of a sweep grid and streams one CSV row per scenario as each one
+ * finishes. Scenarios run on a fixed number of threads, with a bounded number queued at a
+ * time, so memory stays flat however large the grid. Every thread reuses its own
+ * Simulation, and all of them share the same loaded data, so the sweep scales with the
+ * number of threads. Each point runs with its own seed, derived from one master seed, so
+ * the results do not depend on the order points finish in.
+ *
+ * <p>Every row also carries the Erlang C estimate for its point. Given a maximum occupancy,
+ * points whose estimated load is beyond it are reported without being simulated, so no
+ * time is spent on hopeless configurations.
+ *
+ * @author      Steven Leighton
+ * @version     2018-12-06
+ */
+public class SweepEngine {
+    /** Number of scenarios queued per thread */
+    private static final int    QUEUED_PER_THREAD = 2;
+    /** CSV header */
+    public static final String  HEADER = "point,custCount,callCount,interval,length,day,"
+                                         + "shift,techCount,seed,estOccupancy,"
+                                         + "estMeanWaitMillis,techs,callsCompleted,"
+                                         + "droppedCalls,maxQueueSize,meanWaitMillis,"
+                                         + "maxWaitMillis,waitP90Millis,waitP99Millis,"
+                                         + "techUtilization,simulatedMillis,error";
+
+    /** Data shared by every scenario */
+    private SimulationData          data;
+    /** Number of threads */
+    private int                     threads;
+    /** Simulation of each thread */
+    private ThreadLocal<Simulation> simulations;
+    /** Largest estimated occupancy worth simulating, or NaN to simulate every point */
+    private double                  maxOccupancy;
+
+
+    /**
+     * Creates a SweepEngine which runs on the given number of threads
+     *
+     * @param       data        data shared by every scenario
+     * @param       threads     number of threads
+     * @throws      IllegalArgumentException    if the number of threads is not positive
+     */
+    public SweepEngine(SimulationData data, int threads) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("At least one thread is required");
+        }
+        this.data = data;
+        this.threads = threads;
+        this.simulations = ThreadLocal.withInitial(() -> new Simulation(data));
+        this.maxOccupancy = Double.NaN;
+    }
+
+
+    /**
+     * Runs a sweep with parameters from the command line. Each of interval, length,
+     * custCount, shift and techCount takes a list of values, such as "1,2,5" or "1:10:2";
+     * day takes a list of days or "ALL". The other parameters are callCount, seed,
+     * arrivals and lengths, the distributions named as for HeadlessRunner, maxOccupancy,
+     * threads and out, the CSV file (default standard output).
+     *
+     * @param       args        arguments of the form --name=value or --name value
+     */
+    public static void main(String[] args) {
+        try {
+            Properties options = HeadlessRunner.parseArgs(args);
+            SweepGrid grid = new SweepGrid();
+            grid.setIntervals(SweepGrid.parseValues(options.getProperty("interval", "1")));
+            grid.setLengths(SweepGrid.parseValues(options.getProperty("length", "5")));
+            grid.setCustCounts(SweepGrid.parseValues(options.getProperty("custCount", "20")));
+            grid.setDays(SweepGrid.parseDays(options.getProperty("day", "MON")));
+            grid.setShifts(SweepGrid.parseValues(options.getProperty("shift", "1")));
+            if (options.getProperty("techCount") != null) {
+                grid.setTechCounts(SweepGrid.parseValues(options.getProperty("techCount")));
+            }
+            grid.setCallCount(Integer.parseInt(options.getProperty("callCount", "100")));
+            if (options.getProperty("arrivals") != null) {
+                grid.setArrivalTimes(Distributions.parse(options.getProperty("arrivals")));
+            }
+            if (options.getProperty("lengths") != null) {
+                grid.setCallLengths(Distributions.parse(options.getProperty("lengths")));
+            }
+            long seed = Long.parseLong(options.getProperty("seed", "1"));
+            double maxOccupancy = Double.parseDouble(options.getProperty("maxOccupancy",
+                                                                         "NaN"));
+            int threads = Integer.parseInt(options.getProperty("threads",
+                              Integer.toString(Runtime.getRuntime().availableProcessors())));
+
+            SweepEngine engine = new SweepEngine(new SimulationData(false, 0), threads);
+            engine.setMaxOccupancy(maxOccupancy);
+            String out = options.getProperty("out");
+            if (out == null) {
+                PrintWriter writer = new PrintWriter(
+                    new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+                engine.run(grid, seed, writer);
+                writer.flush();
+            } else {
+                try (FileOutputStream file = new FileOutputStream(out);
+                     PrintWriter writer = new PrintWriter(
+                         new OutputStreamWriter(file, StandardCharsets.UTF_8))) {
+                    engine.run(grid, seed, writer);
+                }
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("Error: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+
+    /**
+     * Skips simulating points whose Erlang C estimate puts the offered load at or beyond
+     * the given fraction of the techs, such as 1 for points where the queue keeps growing
+     *
+     * @param       maxOccupancy    largest estimated occupancy worth simulating, or NaN to
+     *                              simulate every point
+     */
+    public void setMaxOccupancy(double maxOccupancy) {
+        this.maxOccupancy = maxOccupancy;
+    }
+
+    /**
+     * Runs every scenario of the grid and writes the header and one row per scenario, in
+     * the order they finish. A scenario which cannot run, such as one with more techs than
+     * there are, gets a row with its error rather than stopping the sweep.
+     *
+     * @param       grid        the scenarios to run
+     * @param       masterSeed  seed from which each point's seed is derived
+     * @param       writer      destination of the CSV rows
+     * @return      the number of scenarios which ran without error
+     * @throws      IllegalStateException   if the sweep is interrupted
+     */
+    public int run(SweepGrid grid, long masterSeed, PrintWriter writer) {
+        int size = grid.size();
+        long[] seeds = RandomStream.deriveSeeds(masterSeed, size);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CompletionService<Row> completions = new ExecutorCompletionService<>(executor);
+
+        writer.println(HEADER);
+        int completed = 0;
+        try {
+            int submitted = 0;
+            int finished = 0;
+            int maxQueued = threads * QUEUED_PER_THREAD;
+            while (finished < size) {
+                while (submitted < size && submitted - finished < maxQueued) {
+                    int point = submitted++;
+                    completions.submit(() -> runPoint(grid, point, seeds[point]));
+                }
+                Row row = completions.take().get();
+                finished++;
+                if (row.isCompleted) {
+                    completed++;
+                }
+                writer.println(row.text);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Sweep interrupted");
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Sweep failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+            writer.flush();
+        }
+        return completed;
+    }
+
+    /**
+     * Runs one scenario of the grid on this thread's simulation
+     *
+     * @param       grid        the grid
+     * @param       point       index of the scenario
+     * @param       seed        seed of the scenario
+     * @return      the CSV row of the scenario
+     */
+    private Row runPoint(SweepGrid grid, int point, long seed) {
+        Scenario scenario = grid.get(point);
+        String values = String.format(Locale.ROOT, "%d,%d,%d,%d,%d,%s,%d,%d,%d", point,
+                                      scenario.getCustCount(), scenario.getCallCount(),
+                                      scenario.getInterval(), scenario.getLength(),
+                                      scenario.getDay(), scenario.getShift(),
+                                      scenario.getTechCount(), seed);
+        ErlangC estimate = null;
+        try {
+            estimate = ErlangC.forScenario(scenario, data);
+            values += String.format(Locale.ROOT, ",%.4f,%.1f", estimate.getOccupancy(),
+                                    estimate.getMeanWait());
+        } catch (IllegalArgumentException e) {
+            // a point with no techs or no load could never finish, so it is not simulated
+            return failedRow(values + ",,", e);
+        }
+        if (estimate != null
+            && estimate.getOfferedLoad() >= maxOccupancy * estimate.getTechs()) {
+            return new Row(false, String.format(Locale.ROOT, "%s,,,,,,,,,,,pruned: load %.2f "
+                                                + "Erlangs for %d techs", values,
+                                                estimate.getOfferedLoad(),
+                                                estimate.getTechs()));
+        }
+
+        try {
+            Simulation simulation = simulations.get();
+            simulation.setSeed(seed);
+            RunStats stats = scenario.runOn(simulation);
+            Histogram waits = stats.getWaitTimes();
+            return new Row(true, String.format(Locale.ROOT, "%s,%d,%d,%d,%d,%.1f,%d,%d,%d,"
+                                               + "%.4f,%d,",
+                                               values, stats.getTechCount(),
+                                               stats.getCallsCompleted(),
+                                               stats.getDroppedCalls(),
+                                               stats.getMaxQueueSize(), stats.getMeanWait(),
+                                               stats.getMaxWait(),
+                                               waits.getValueAtPercentile(90),
+                                               waits.getValueAtPercentile(99),
+                                               stats.getTechUtilization(),
+                                               stats.getSimulatedTime()));
+        } catch (IllegalArgumentException e) {
+            return failedRow(values, e);
+        }
+    }
+
+    /**
+     * Returns the CSV row of a scenario which could not be run, with its error in place of
+     * the results
+     *
+     * @param       values      values of the scenario and its estimate
+     * @param       e           the error
+     * @return      the CSV row of the scenario
+     */
+    private static Row failedRow(String values, IllegalArgumentException e) {
+        String error = String.valueOf(e.getMessage()).replace(',', ';').replace('"', '\'');
+        return new Row(false, values + ",,,,,,,,,,," + error);
+    }
+
+
+    /**
+     * A CSV row of one scenario
+     */
+    private static class Row {
+        /** Whether or not the scenario ran without error */
+        private boolean     isCompleted;
+        /** Text of the row, without a line ending */
+        private String      text;
+
+        public Row(boolean isCompleted, String text) {
+            this.isCompleted = isCompleted;
+            this.text = text;
+        }
+    }
+}
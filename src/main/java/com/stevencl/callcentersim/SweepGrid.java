@@ -0,0 +1,249 @@
+package com.stevencl.callcentersim;
+
+import java.util.Arrays;
+
+/**
+ * The full grid of scenarios for a parameter sweep: every combination of the given
+ * intervals, call lengths, initial customer counts, days, shifts and tech counts. Points
+ * are numbered, and each scenario is only built when it is asked for, so large grids cost
+ * nothing up front.
+ *
+ * @author      Steven Leighton
+ * @version     2018-12-06
+ */
+public class SweepGrid {
+    /** Intervals between incoming calls, in seconds */
+    private int[]           intervals = {1};
+    /** Average call lengths, in seconds */
+    private int[]           lengths = {5};
+    /** Initial customers in queue */
+    private int[]           custCounts = {20};
+    /** Days to simulate */
+    private Day[]           days = {Day.MON};
+    /** Shifts to simulate */
+    private int[]           shifts = {1};
+    /** Numbers of techs working */
+    private int[]           techCounts = {Simulation.SCHEDULED_TECHS};
+    /** Number of calls to simulate at every point */
+    private int             callCount = 100;
+    /** Distribution of times between incoming calls, or null for the default */
+    private Distribution    arrivalTimes;
+    /** Distribution of call lengths, or null for the default */
+    private Distribution    callLengths;
+
+
+    /**
+     * Parses a list of values, given as comma-separated values or ranges of the form
+     * first:last or first:last:step, such as "1,2,5" or "1:10" or "10:50:10"
+     *
+     * @param       text        the values to be parsed
+     * @return      the values
+     * @throws      IllegalArgumentException    if the text is not a valid list of values
+     */
+    public static int[] parseValues(String text) {
+        int[] values = new int[16];
+        int count = 0;
+        for (String part : text.split(",")) {
+            String[] range = part.trim().split(":");
+            if (range.length > 3) {
+                throw new IllegalArgumentException("Invalid range: " + part);
+            }
+            int first = Integer.parseInt(range[0].trim());
+            int last = range.length > 1 ? Integer.parseInt(range[1].trim()) : first;
+            int step = range.length > 2 ? Integer.parseInt(range[2].trim()) : 1;
+            if (step <= 0 || last < first) {
+                throw new IllegalArgumentException("Invalid range: " + part);
+            }
+            for (long value = first; value <= last; value += step) {
+                if (count == values.length) {
+                    values = Arrays.copyOf(values, 2 * count);
+                }
+                values[count++] = (int)value;
+            }
+        }
+        return Arrays.copyOf(values, count);
+    }
+
+    /**
+     * Parses a comma-separated list of days, such as "MON,TUE" or "ALL"
+     *
+     * @param       text        the days to be parsed
+     * @return      the days
+     * @throws      IllegalArgumentException    if a day is not valid
+     */
+    public static Day[] parseDays(String text) {
+        if (text.trim().equalsIgnoreCase("ALL")) {
+            return Day.values();
+        }
+        String[] parts = text.split(",");
+        Day[] result = new Day[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            result[i] = Day.valueOf(parts[i].trim().toUpperCase());
+        }
+        return result;
+    }
+
+
+    /**
+     * Returns the number of points in the grid
+     *
+     * @return      the number of scenarios
+     */
+    public int size() {
+        long size = (long)intervals.length * lengths.length * custCounts.length * days.length
+                    * shifts.length * techCounts.length;
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Grid is too large: " + size);
+        }
+        return (int)size;
+    }
+
+    /**
+     * Builds the scenario at the given point. Tech counts vary fastest, then shifts, days,
+     * initial customer counts, call lengths and intervals.
+     *
+     * @param       index       index of the point
+     * @return      the scenario at that point
+     * @throws      IndexOutOfBoundsException   if the index is not in the grid
+     */
+    public Scenario get(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("Invalid point: " + index);
+        }
+        int techCount = techCounts[index % techCounts.length];
+        index /= techCounts.length;
+        int shift = shifts[index % shifts.length];
+        index /= shifts.length;
+        Day day = days[index % days.length];
+        index /= days.length;
+        int custCount = custCounts[index % custCounts.length];
+        index /= custCounts.length;
+        int length = lengths[index % lengths.length];
+        index /= lengths.length;
+        int interval = intervals[index];
+
+        Scenario scenario = new Scenario(custCount, callCount, interval, length, day, shift);
+        scenario.setArrivalTimes(arrivalTimes);
+        scenario.setCallLengths(callLengths);
+        scenario.setTechCount(techCount);
+        return scenario;
+    }
+
+
+    /**
+     * Sets the intervals between incoming calls
+     *
+     * @param       intervals   intervals, in seconds, which must be positive
+     */
+    public void setIntervals(int... intervals) {
+        this.intervals = checkValues(intervals, 1);
+    }
+
+    /**
+     * Sets the average call lengths
+     *
+     * @param       lengths     call lengths, in seconds, which must be positive
+     */
+    public void setLengths(int... lengths) {
+        this.lengths = checkValues(lengths, 1);
+    }
+
+    /**
+     * Sets the initial customer counts
+     *
+     * @param       custCounts  initial customers in queue, which must not be negative
+     */
+    public void setCustCounts(int... custCounts) {
+        this.custCounts = checkValues(custCounts, 0);
+    }
+
+    /**
+     * Sets the days to simulate
+     *
+     * @param       days        days to simulate
+     */
+    public void setDays(Day... days) {
+        if (days.length == 0) {
+            throw new IllegalArgumentException("At least one day is required");
+        }
+        this.days = days.clone();
+    }
+
+    /**
+     * Sets the shifts to simulate
+     *
+     * @param       shifts      shifts to simulate, 1 or 2
+     */
+    public void setShifts(int... shifts) {
+        for (int shift : shifts) {
+            if (shift != 1 && shift != 2) {
+                throw new IllegalArgumentException("Invalid shift: " + shift);
+            }
+        }
+        this.shifts = checkValues(shifts, 1);
+    }
+
+    /**
+     * Sets the numbers of techs working
+     *
+     * @param       techCounts  numbers of techs working, at least 1, or
+     *                          Simulation.SCHEDULED_TECHS for every scheduled tech
+     */
+    public void setTechCounts(int... techCounts) {
+        for (int techCount : techCounts) {
+            if (techCount != Simulation.SCHEDULED_TECHS && techCount < 1) {
+                throw new IllegalArgumentException("Invalid tech count: " + techCount);
+            }
+        }
+        this.techCounts = checkValues(techCounts, Simulation.SCHEDULED_TECHS);
+    }
+
+    /**
+     * Sets the number of calls to simulate at every point
+     *
+     * @param       callCount   number of calls to simulate
+     */
+    public void setCallCount(int callCount) {
+        this.callCount = callCount;
+    }
+
+    /**
+     * Sets the distribution of times between incoming calls at every point
+     *
+     * @param       arrivalTimes    distribution of times between incoming calls, or null
+     *                              for the default
+     * @throws      IllegalArgumentException    if the distribution has a mean of zero
+     */
+    public void setArrivalTimes(Distribution arrivalTimes) {
+        this.arrivalTimes = Distributions.checkArrivalTimes(arrivalTimes);
+    }
+
+    /**
+     * Sets the distribution of call lengths at every point
+     *
+     * @param       callLengths     distribution of call lengths, or null for the default
+     */
+    public void setCallLengths(Distribution callLengths) {
+        this.callLengths = callLengths;
+    }
+
+
+    /**
+     * Throws an exception if there are no values or a value is below the minimum
+     *
+     * @param       values      values to be checked
+     * @param       min         minimum value
+     * @return      a copy of the values
+     */
+    private static int[] checkValues(int[] values, int min) {
+        if (values.length == 0) {
+            throw new IllegalArgumentException("At least one value is required");
+        }
+        for (int value : values) {
+            if (value < min) {
+                throw new IllegalArgumentException("Invalid value: " + value);
+            }
+        }
+        return values.clone();
+    }
+}
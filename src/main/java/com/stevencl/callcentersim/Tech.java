@@ -1,7 +1,5 @@
 package com.stevencl.callcentersim;
 
-import java.util.HashMap;
-
 /**
  * Represents a support tech
  *
@@ -17,10 +15,8 @@ public class Tech implements Comparable<Tech> {
     private String      lastName;
     /** User name */
     private String      userName;
-    /** Schedule */
-    private HashMap<Day, Boolean>   schedule;
-    /** Shift */
-    private int         shift;
+    /** Schedule, with one bit per day and shift worked, as numbered by RosterIndex.slot */
+    private int         schedule;
     
     
     /**
@@ -37,39 +33,7 @@ public class Tech implements Comparable<Tech> {
         this.firstName = firstName;
         this.lastName = lastName;
         this.userName = userName;
-        
-        // parse schedule
-        this.schedule = new HashMap<>();
-        this.schedule.put(Day.TUE, true);
-        this.schedule.put(Day.WED, true);
-        this.schedule.put(Day.THU, true);
-        switch (schedule) {
-            case "SMTWT1":  this.schedule.put(Day.SUN, true);
-                            this.schedule.put(Day.MON, true);
-                            this.schedule.put(Day.FRI, false);
-                            this.schedule.put(Day.SAT, false);
-                            this.shift = 1;
-                            break;
-            case "SMTWT2":  this.schedule.put(Day.SUN, true);
-                            this.schedule.put(Day.MON, true);
-                            this.schedule.put(Day.FRI, false);
-                            this.schedule.put(Day.SAT, false);
-                            this.shift = 2;
-                            break;
-            case "TWTFS1":  this.schedule.put(Day.SUN, false);
-                            this.schedule.put(Day.MON, false);
-                            this.schedule.put(Day.FRI, true);
-                            this.schedule.put(Day.SAT, true);
-                            this.shift = 1;
-                            break;
-            case "TWTFS2":  this.schedule.put(Day.SUN, false);
-                            this.schedule.put(Day.MON, false);
-                            this.schedule.put(Day.FRI, true);
-                            this.schedule.put(Day.SAT, true);
-                            this.shift = 2;
-                            break;
-            default:        throw new IllegalArgumentException("Invalid schedule");
-        }
+        this.schedule = parseSchedule(schedule);
     }
     
     
@@ -117,7 +81,46 @@ public class Tech implements Comparable<Tech> {
      * @return      true if the tech is scheduled, otherwise false
      */
     public boolean isWorking(Day day, int shift) {
-        return schedule.get(day) && shift == this.shift;
+        return shift >= 1 && shift <= RosterIndex.SHIFTS 
+               && (schedule & (1 << RosterIndex.slot(day, shift))) != 0;
+    }
+    
+    /**
+     * Returns the schedule as a bitmask, with the bit numbered RosterIndex.slot(day, shift) 
+     * set for each day and shift worked
+     * 
+     * @return      the schedule bitmask
+     */
+    public int getSchedule() {
+        return schedule;
+    }
+    
+    /**
+     * Parses a schedule string: the initials of five working days, SMTWT for Sunday to 
+     * Thursday or TWTFS for Tuesday to Saturday, followed by the shift
+     * 
+     * @param       schedule        schedule string
+     * @return      the schedule bitmask
+     * @throws      IllegalArgumentException    if the schedule is not valid
+     */
+    private static int parseSchedule(String schedule) {
+        Day[] days;
+        switch (schedule.length() == 6 ? schedule.substring(0, 5) : "") {
+            case "SMTWT":   days = new Day[] {Day.SUN, Day.MON, Day.TUE, Day.WED, Day.THU};
+                            break;
+            case "TWTFS":   days = new Day[] {Day.TUE, Day.WED, Day.THU, Day.FRI, Day.SAT};
+                            break;
+            default:        throw new IllegalArgumentException("Invalid schedule");
+        }
+        int shift = schedule.charAt(5) - '0';
+        if (shift < 1 || shift > RosterIndex.SHIFTS) {
+            throw new IllegalArgumentException("Invalid schedule");
+        }
+        int mask = 0;
+        for (Day day : days) {
+            mask |= 1 << RosterIndex.slot(day, shift);
+        }
+        return mask;
     }
     
     /**
@@ -0,0 +1,286 @@
+package com.stevencl.callcentersim;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * A hashed hierarchical timing wheel. Time is divided into ticks of a fixed length, and
+ * each level of the wheel has 64 slots covering 64 times the span of the level below.
+ * Entries far in the future sit in a higher level and are moved down as their time
+ * approaches, so scheduling and cancelling take constant time, and all of the entries
+ * which are due in a tick expire together.
+ *
+ * <p>Entries are stored in pooled parallel arrays and linked through slot indexes, so
+ * scheduling does not allocate once the pool has reached its working size. This class is
+ * not thread-safe.
+ *
+ * @author      Steven Leighton
+ * @version     2018-12-06
+ */
+public class TimingWheel<T> {
+    /** Number of bits of the tick count used by each level */
+    private static final int    WHEEL_BITS = 6;
+    /** Number of slots per level */
+    private static final int    WHEEL_SIZE = 1 << WHEEL_BITS;
+    /** Mask for a slot index within a level */
+    private static final int    WHEEL_MASK = WHEEL_SIZE - 1;
+    /** Number of levels */
+    private static final int    LEVELS = 4;
+    /** Marker for the end of a list */
+    private static final int    NONE = -1;
+    /** Initial capacity of the entry pool */
+    private static final int    INITIAL_SIZE = 64;
+
+    /** Length of a tick, in milliseconds */
+    private long        tickMillis;
+    /** Time at which tick 0 started, in milliseconds */
+    private long        startMillis;
+    /** Last tick which has been processed */
+    private long        currentTick;
+    /** First entry of each slot, indexed by level * WHEEL_SIZE + slot */
+    private int[]       heads;
+
+    /** Tick at which each entry is due */
+    private long[]      deadlines;
+    /** Scheduled item of each entry */
+    private Object[]    items;
+    /** Next entry in the same slot, or in the free list */
+    private int[]       next;
+    /** Previous entry in the same slot */
+    private int[]       prev;
+    /** Slot holding each entry, or NONE if the entry is free */
+    private int[]       slots;
+    /** First free entry */
+    private int         free;
+    /** Number of scheduled entries */
+    private int         size;
+
+
+    /**
+     * Creates an empty TimingWheel
+     *
+     * @param       tickMillis      length of a tick, in milliseconds
+     * @param       startMillis     time at which tick 0 starts, in milliseconds
+     */
+    public TimingWheel(long tickMillis, long startMillis) {
+        if (tickMillis <= 0) {
+            throw new IllegalArgumentException("Tick length must be positive");
+        }
+        this.tickMillis = tickMillis;
+        this.startMillis = startMillis;
+        this.currentTick = 0;
+        this.heads = new int[LEVELS * WHEEL_SIZE];
+        Arrays.fill(heads, NONE);
+
+        deadlines = new long[INITIAL_SIZE];
+        items = new Object[INITIAL_SIZE];
+        next = new int[INITIAL_SIZE];
+        prev = new int[INITIAL_SIZE];
+        slots = new int[INITIAL_SIZE];
+        free = NONE;
+        addToFreeList(0, INITIAL_SIZE);
+        size = 0;
+    }
+
+
+    /**
+     * Returns the number of scheduled entries
+     *
+     * @return      the number of scheduled entries
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Checks whether or not the wheel is empty
+     *
+     * @return      true if no entries are scheduled, otherwise false
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+
+    /**
+     * Schedules an item to expire at the given time. The item expires in the first tick
+     * which ends at or after that time, so it is never early and, as long as the wheel is
+     * advanced every tick, at most one tick late.
+     *
+     * @param       item            the item to be scheduled
+     * @param       timeMillis      time at which the item expires, in milliseconds
+     * @return      a handle for cancelling the entry, valid until it expires or is
+     *              cancelled
+     */
+    public int schedule(T item, long timeMillis) {
+        long tick = (timeMillis - startMillis + tickMillis - 1) / tickMillis;
+        if (free == NONE) {
+            grow();
+        }
+
+        int entry = free;
+        free = next[entry];
+        deadlines[entry] = Math.max(currentTick + 1, tick);
+        items[entry] = item;
+        place(entry);
+        size++;
+        return entry;
+    }
+
+    /**
+     * Cancels a scheduled entry
+     *
+     * @param       handle      the handle returned when the entry was scheduled
+     * @return      true if the entry was cancelled, false if it was not scheduled
+     */
+    public boolean cancel(int handle) {
+        if (handle < 0 || handle >= slots.length || slots[handle] == NONE) {
+            return false;
+        }
+        unlink(handle);
+        release(handle);
+        return true;
+    }
+
+    /**
+     * Processes every tick which has ended by the given time, passing each expired item to
+     * the given handler in order of expiry. Items may be scheduled from within the handler.
+     *
+     * @param       nowMillis       current time, in milliseconds
+     * @param       handler         receives each expired item
+     */
+    @SuppressWarnings("unchecked")
+    public void advance(long nowMillis, Consumer<T> handler) {
+        long targetTick = (nowMillis - startMillis) / tickMillis;
+        while (currentTick < targetTick) {
+            currentTick++;
+            cascade();
+
+            // expire the whole level 0 slot as one batch; the handler may cancel entries of
+            // the same batch, so each entry is unlinked just before it is handled
+            int slot = (int)(currentTick & WHEEL_MASK);
+            while (heads[slot] != NONE) {
+                int entry = heads[slot];
+                T item = (T)items[entry];
+                unlink(entry);
+                release(entry);
+                handler.accept(item);
+            }
+        }
+    }
+
+    /**
+     * Removes every scheduled entry without expiring it
+     */
+    public void clear() {
+        Arrays.fill(heads, NONE);
+        Arrays.fill(items, null);
+        Arrays.fill(slots, NONE);
+        free = NONE;
+        addToFreeList(0, slots.length);
+        size = 0;
+    }
+
+
+    /**
+     * Moves the entries of every higher level slot which has come due down the wheel
+     */
+    private void cascade() {
+        for (int level = 1; level < LEVELS; level++) {
+            int shift = level * WHEEL_BITS;
+            if ((currentTick & ((1L << shift) - 1)) != 0) {
+                break;
+            }
+
+            int slot = level * WHEEL_SIZE + (int)((currentTick >>> shift) & WHEEL_MASK);
+            int entry = heads[slot];
+            heads[slot] = NONE;
+            while (entry != NONE) {
+                int following = next[entry];
+                place(entry);
+                entry = following;
+            }
+        }
+    }
+
+    /**
+     * Links an entry into the slot for its deadline, at the lowest level whose span covers
+     * the remaining delay
+     *
+     * @param       entry       the entry to be placed
+     */
+    private void place(int entry) {
+        long delta = deadlines[entry] - currentTick;
+        int level = 0;
+        while (level < LEVELS - 1 && delta >= (1L << ((level + 1) * WHEEL_BITS))) {
+            level++;
+        }
+
+        int slot = level * WHEEL_SIZE
+                   + (int)((deadlines[entry] >>> (level * WHEEL_BITS)) & WHEEL_MASK);
+        slots[entry] = slot;
+        prev[entry] = NONE;
+        next[entry] = heads[slot];
+        if (heads[slot] != NONE) {
+            prev[heads[slot]] = entry;
+        }
+        heads[slot] = entry;
+    }
+
+    /**
+     * Unlinks an entry from its slot
+     *
+     * @param       entry       the entry to be unlinked
+     */
+    private void unlink(int entry) {
+        if (prev[entry] != NONE) {
+            next[prev[entry]] = next[entry];
+        } else {
+            heads[slots[entry]] = next[entry];
+        }
+        if (next[entry] != NONE) {
+            prev[next[entry]] = prev[entry];
+        }
+    }
+
+    /**
+     * Returns an entry to the free list
+     *
+     * @param       entry       the entry to be freed
+     */
+    private void release(int entry) {
+        items[entry] = null;
+        slots[entry] = NONE;
+        next[entry] = free;
+        free = entry;
+        size--;
+    }
+
+    /**
+     * Links a range of entries into the free list
+     *
+     * @param       from        first entry, inclusive
+     * @param       to          last entry, exclusive
+     */
+    private void addToFreeList(int from, int to) {
+        for (int i = to - 1; i >= from; i--) {
+            slots[i] = NONE;
+            next[i] = free;
+            free = i;
+        }
+    }
+
+    /**
+     * Doubles the capacity of the entry pool
+     */
+    private void grow() {
+        int oldLength = slots.length;
+        int capacity = 2 * oldLength;
+        deadlines = Arrays.copyOf(deadlines, capacity);
+        items = Arrays.copyOf(items, capacity);
+        next = Arrays.copyOf(next, capacity);
+        prev = Arrays.copyOf(prev, capacity);
+        slots = Arrays.copyOf(slots, capacity);
+        addToFreeList(oldLength, capacity);
+    }
+}
@@ -7,11 +7,11 @@ import javax.swing.JLabel;
 import javax.swing.JSlider;
 import javax.swing.JTextField;
 import javax.swing.JComboBox;
-import javax.swing.JTextArea;
-import javax.swing.JScrollPane;
-import javax.swing.text.DefaultCaret;
+import javax.swing.JCheckBox;
 import javax.swing.event.ChangeEvent;
 import javax.swing.event.ChangeListener;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 import java.awt.Toolkit;
 import java.awt.Dimension;
 import java.awt.Font;
@@ -43,6 +43,8 @@ public class View extends JFrame {
     private JLabel          labelShift;
     /** Output label */
     private JLabel          labelOutput;
+    /** Console filter label */
+    private JLabel          labelFilter;
     /** Remaining calls label */
     private JLabel          labelCount;
     /** In queue label */
@@ -51,6 +53,8 @@ public class View extends JFrame {
     private JLabel          labelOccupied;
     /** Available techs label */
     private JLabel          labelAvailable;
+    /** Analytic estimate label */
+    private JLabel          labelEstimate;
     /** Customer count slider */
     private JSlider         sliderCustCount;
     /** Call count slider */
@@ -73,10 +77,12 @@ public class View extends JFrame {
     private JComboBox       comboShift;
     /** Start button */
     private JButton         buttonStart;
-    /** Output text area */
-    private JTextArea       textAreaOutput;
-    /** Output scroll pane */
-    private JScrollPane     scrollOutput;
+    /** Console filter text field */
+    private JTextField      textFilter;
+    /** Pause autoscroll check box */
+    private JCheckBox       checkPause;
+    /** Output console */
+    private LogConsole      consoleOutput;
     
     
     /**
@@ -104,6 +110,7 @@ public class View extends JFrame {
         start();
         output();
         statusBar();
+        estimate();
         
         setDefaultCloseOperation(EXIT_ON_CLOSE);
         setVisible(true);
@@ -381,32 +388,54 @@ public class View extends JFrame {
         labelOutput.setBounds(305, 20, 100, 30);
         panel.add(labelOutput);
         
-        textAreaOutput = new JTextArea();
-        textAreaOutput.setEditable(false);
-        textAreaOutput.setFont(new Font("Monospaced", Font.PLAIN, 13));
+        consoleOutput = new LogConsole();
+        consoleOutput.setBounds(300, 50, 880, 470);
+        panel.add(consoleOutput);
         
-        DefaultCaret caret = (DefaultCaret)textAreaOutput.getCaret();
-        caret.setUpdatePolicy(DefaultCaret.ALWAYS_UPDATE);
+        labelFilter = new JLabel("Filter:");
+        labelFilter.setFont(new Font("SansSerif", Font.PLAIN, 14));
+        labelFilter.setBounds(390, 20, 50, 30);
+        panel.add(labelFilter);
         
-        scrollOutput = new JScrollPane(textAreaOutput);
-        scrollOutput.setBounds(300, 50, 880, 500);
-        panel.add(scrollOutput);
+        textFilter = new JTextField();
+        textFilter.setFont(new Font("SansSerif", Font.PLAIN, 14));
+        textFilter.setBounds(440, 22, 150, 26);
+        textFilter.getDocument().addDocumentListener(new DocumentListener() {
+            public void insertUpdate(DocumentEvent event) {
+                consoleOutput.setFilter(textFilter.getText());
+            }
+            
+            public void removeUpdate(DocumentEvent event) {
+                consoleOutput.setFilter(textFilter.getText());
+            }
+            
+            public void changedUpdate(DocumentEvent event) {
+                consoleOutput.setFilter(textFilter.getText());
+            }
+        });
+        panel.add(textFilter);
+        
+        checkPause = new JCheckBox("Pause");
+        checkPause.setFont(new Font("SansSerif", Font.PLAIN, 14));
+        checkPause.setBounds(600, 20, 110, 30);
+        checkPause.addActionListener(event -> consoleOutput.setPaused(checkPause.isSelected()));
+        panel.add(checkPause);
     }
     
     /**
      * Clears contents of the console
      */
     public void clearDisplay() {
-        textAreaOutput.setText("");
+        consoleOutput.clear();
     }
     
     /**
-     * Adds text to the console
+     * Adds text to the console. May be called from any thread.
      * 
      * @param       newText     text to be added
      */
     public void addDisplayText(String newText) {
-        textAreaOutput.append(newText + "\n");
+        consoleOutput.append(newText);
     }
     
     
@@ -439,6 +468,41 @@ public class View extends JFrame {
         panel.add(labelAvailable);
     }
     
+    /**
+     * Sets up analytic estimate line
+     */
+    private void estimate() {
+        labelEstimate = new JLabel(" ");
+        labelEstimate.setFont(new Font("SansSerif", Font.PLAIN, 13));
+        labelEstimate.setBounds(305, 525, 875, 25);
+        panel.add(labelEstimate);
+    }
+    
+    /**
+     * Shows the given analytic estimate beside the live run
+     * 
+     * @param       text        the estimate to be shown
+     */
+    public void setEstimateText(String text) {
+        labelEstimate.setText(text);
+    }
+    
+    /**
+     * Adds a ChangeListener to every simulation option, notified whenever one changes
+     * 
+     * @param       settingsListener    change listener to be added
+     */
+    public void addSettingsListener(ChangeListener settingsListener) {
+        sliderCustCount.addChangeListener(settingsListener);
+        sliderCallCount.addChangeListener(settingsListener);
+        sliderCallInterval.addChangeListener(settingsListener);
+        sliderCallLength.addChangeListener(settingsListener);
+        comboDay.addActionListener(
+            event -> settingsListener.stateChanged(new ChangeEvent(comboDay)));
+        comboShift.addActionListener(
+            event -> settingsListener.stateChanged(new ChangeEvent(comboShift)));
+    }
+    
     /**
      * Updates all status fields
      * 
@@ -0,0 +1,142 @@
+package com.stevencl.callcentersim;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * The test class for CallTable
+ *
+ * @author      Steven Leighton
+ * @version     2018-12-06
+ */
+public class CallTableTest {
+
+    @Test
+    public void addAndRemoveLast() {
+        CallTable table = new CallTable();
+        Call first = call(0);
+        Call second = call(1);
+        assertTrue(table.isEmpty());
+        table.add(first);
+        table.add(second);
+
+        assertEquals(2, table.size());
+        assertSame(second, table.get(1));
+        assertTrue(table.remove(second));
+        assertEquals(1, table.size());
+        assertEquals(-1, second.getSlot());
+        assertFalse(table.contains(second));
+        assertSame(first, table.get(0));
+        assertEquals(0, first.getSlot());
+        assertFalse(table.remove(second));
+    }
+
+    @Test
+    public void removeMiddleMovesLast() {
+        CallTable table = new CallTable();
+        Call[] calls = new Call[5];
+        for (int i = 0; i < calls.length; i++) {
+            calls[i] = call(i);
+            table.add(calls[i]);
+        }
+
+        assertTrue(table.remove(calls[1]));
+        assertEquals(4, table.size());
+        assertSame(calls[4], table.get(1));
+        assertEquals(1, calls[4].getSlot());
+        assertTrue(table.remove(calls[0]));
+        assertSame(calls[3], table.get(0));
+        assertEquals(0, calls[3].getSlot());
+        assertArrayEquals(new Call[] {calls[3], calls[4], calls[2]}, table.toArray());
+        for (int i = 2; i < calls.length; i++) {
+            assertTrue(table.contains(calls[i]));
+            assertSame(calls[i], table.get(calls[i].getSlot()));
+        }
+    }
+
+    @Test
+    public void reuseSlotsAndHandles() {
+        CallTable table = new CallTable();
+        Call first = call(7);
+        Call second = call(8);
+        table.add(first);
+        table.add(second);
+        table.remove(first);
+
+        // a removed call may be added again, and a new call may share its handles
+        table.add(first);
+        assertEquals(1, first.getSlot());
+        assertSame(second, table.get(0));
+        Call again = call(7);
+        table.add(again);
+        assertEquals(3, table.size());
+        assertTrue(table.contains(first));
+        assertTrue(table.contains(again));
+        assertTrue(table.remove(first));
+        assertTrue(table.contains(again));
+        assertSame(again, table.get(again.getSlot()));
+    }
+
+    @Test (expected = IllegalArgumentException.class)
+    public void addTwice() {
+        CallTable table = new CallTable();
+        Call call = call(0);
+        table.add(call);
+        table.add(call);
+    }
+
+    @Test
+    public void growAndClear() {
+        CallTable table = new CallTable();
+        Call[] calls = new Call[100];
+        for (int i = 0; i < calls.length; i++) {
+            calls[i] = call(i);
+            table.add(calls[i]);
+        }
+        assertEquals(100, table.size());
+        int slot = 0;
+        for (Call call : table) {
+            assertSame(calls[slot], call);
+            assertEquals(slot++, call.getSlot());
+        }
+        assertEquals(100, slot);
+
+        table.clear();
+        assertTrue(table.isEmpty());
+        for (Call call : calls) {
+            assertEquals(-1, call.getSlot());
+            assertFalse(table.contains(call));
+        }
+        table.add(calls[50]);
+        assertEquals(0, calls[50].getSlot());
+    }
+
+    @Test (expected = IndexOutOfBoundsException.class)
+    public void getUnusedSlot() {
+        CallTable table = new CallTable();
+        table.add(call(0));
+        table.get(1);
+    }
+
+    @Test (expected = NoSuchElementException.class)
+    public void iterateTooFar() {
+        CallTable table = new CallTable();
+        table.add(call(0));
+        Iterator<Call> calls = table.iterator();
+        calls.next();
+        calls.next();
+    }
+
+
+    /**
+     * Returns a call for the given customer and tech handle
+     *
+     * @param       handle      customer and tech handle
+     * @return      a call which is not open
+     */
+    private static Call call(int handle) {
+        return new Call(null, null, handle, handle, 1000);
+    }
+}
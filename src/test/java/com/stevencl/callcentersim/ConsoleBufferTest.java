@@ -0,0 +1,48 @@
+package com.stevencl.callcentersim;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ * The test class for ConsoleBuffer
+ *
+ * @author      Steven Leighton
+ * @version     2018-12-06
+ */
+public class ConsoleBufferTest {
+
+    @Test
+    public void keepNewestLines() {
+        ConsoleBuffer buffer = new ConsoleBuffer(3);
+        for (int i = 0; i < 10; i++) {
+            assertEquals(i, buffer.add("line " + i));
+        }
+
+        assertEquals(3, buffer.size());
+        assertEquals(7, buffer.getFirst());
+        assertEquals(10, buffer.getNext());
+        assertEquals("line 7", buffer.get(7));
+        assertEquals("line 9", buffer.get(9));
+    }
+
+    @Test (expected = IndexOutOfBoundsException.class)
+    public void getEvictedLine() {
+        ConsoleBuffer buffer = new ConsoleBuffer(2);
+        buffer.add("a");
+        buffer.add("b");
+        buffer.add("c");
+        buffer.get(0);
+    }
+
+    @Test
+    public void clear() {
+        ConsoleBuffer buffer = new ConsoleBuffer(4);
+        buffer.add("a");
+        buffer.add("b");
+        buffer.clear();
+
+        assertEquals(0, buffer.size());
+        assertEquals(2, buffer.add("c"));
+        assertEquals("c", buffer.get(2));
+    }
+}
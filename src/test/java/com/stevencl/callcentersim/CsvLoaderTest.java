@@ -0,0 +1,81 @@
+package com.stevencl.callcentersim;
+
+import static org.junit.Assert.*;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+
+/**
+ * The test class for CsvLoader
+ *
+ * @author      Steven Leighton
+ * @version     2018-12-06
+ */
+public class CsvLoaderTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void skipsCountAndHeader() throws IOException {
+        File file = write("2\nid,name\n41,Brandtr\n8773,Kissee\n");
+        ArrayList<String> rows = load(new CsvLoader(file.getPath()));
+        assertEquals(2, rows.size());
+        assertEquals("41|Brandtr", rows.get(0));
+        assertEquals("8773|Kissee", rows.get(1));
+    }
+
+    @Test
+    public void headerWithoutCount() throws IOException {
+        File file = write("id,name\r\n41,Brandtr\r\n\r\n-8773,Kissee");
+        ArrayList<String> rows = load(new CsvLoader(file.getPath()));
+        assertEquals(2, rows.size());
+        assertEquals("41|Brandtr", rows.get(0));
+        assertEquals("-8773|Kissee", rows.get(1));
+    }
+
+    @Test
+    public void rowsAcrossMappedChunks() throws IOException {
+        StringBuilder text = new StringBuilder("id,name,email\n");
+        for (int i = 0; i < 1000; i++) {
+            text.append(i).append(",Name").append(i).append(",n").append(i).append("@x.com\n");
+        }
+        File file = write(text.toString());
+
+        // a chunk size which is much smaller than the file, and not a multiple of any row
+        ArrayList<String> rows = load(new CsvLoader(file.getPath(), 37));
+        assertEquals(1000, rows.size());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i + "|Name" + i, rows.get(i));
+        }
+    }
+
+    @Test (expected = IOException.class)
+    public void lineLongerThanChunk() throws IOException {
+        File file = write("id,name\n41,Brandtr\n8773,Kissee\n");
+        load(new CsvLoader(file.getPath(), 8));
+    }
+
+    @Test (expected = NumberFormatException.class)
+    public void invalidNumber() throws IOException {
+        File file = write("id,name\n4x1,Brandtr\n");
+        load(new CsvLoader(file.getPath()));
+    }
+
+    private File write(String text) throws IOException {
+        File file = folder.newFile();
+        Files.write(file.toPath(), text.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    private ArrayList<String> load(CsvLoader loader) throws IOException {
+        ArrayList<String> rows = new ArrayList<>();
+        loader.load(row -> rows.add(row.getInt(0) + "|" + row.getString(1)));
+        assertEquals(rows.size(), loader.getRowCount());
+        return rows;
+    }
+}
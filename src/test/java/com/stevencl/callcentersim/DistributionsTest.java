@@ -0,0 +1,65 @@
+package com.stevencl.callcentersim;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ * The test class for Distributions
+ *
+ * @author      Steven Leighton
+ * @version     2018-12-06
+ */
+public class DistributionsTest {
+    private static final int    SAMPLES = 200000;
+
+    @Test
+    public void sampleMeansMatch() {
+        checkMoments(Distributions.uniform(100, 900));
+        checkMoments(Distributions.exponential(1000));
+        checkMoments(Distributions.logNormal(5000, 2000));
+        checkMoments(Distributions.gamma(3000, 1500));
+        checkMoments(Distributions.gamma(3000, 6000));
+        checkMoments(Distributions.empirical(new double[] {10, 20, 30, 100}));
+    }
+
+    @Test
+    public void sameSeedSameValues() {
+        Distribution exponential = Distributions.exponential(1000);
+        RandomStream a = new RandomStream(7);
+        RandomStream b = new RandomStream(7);
+        for (int i = 0; i < 100; i++) {
+            assertEquals(exponential.sample(a), exponential.sample(b), 0);
+        }
+    }
+
+    @Test
+    public void parse() throws Exception {
+        assertEquals(2000, Distributions.parse("exponential:2000").getMean(), 0);
+        assertEquals(500, Distributions.parse("uniform:0:1000").getMean(), 0);
+        assertEquals(0, Distributions.parse("constant:30").getVariance(), 0);
+    }
+
+    @Test (expected = IllegalArgumentException.class)
+    public void parseInvalid() throws Exception {
+        Distributions.parse("gamma:1000");
+    }
+
+    /**
+     * Checks that the sample mean and variance are close to those of the distribution
+     */
+    private void checkMoments(Distribution distribution) {
+        RandomStream random = new RandomStream(1);
+        double sum = 0;
+        double squares = 0;
+        for (int i = 0; i < SAMPLES; i++) {
+            double value = distribution.sample(random);
+            assertTrue(value >= 0);
+            sum += value;
+            squares += value * value;
+        }
+        double mean = sum / SAMPLES;
+        double variance = squares / SAMPLES - mean * mean;
+        assertEquals(distribution.getMean(), mean, 0.02 * distribution.getMean());
+        assertEquals(distribution.getVariance(), variance, 0.1 * distribution.getVariance());
+    }
+}
@@ -0,0 +1,75 @@
+package com.stevencl.callcentersim;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ * The test class for ErlangC
+ *
+ * @author      Steven Leighton
+ * @version     2018-12-06
+ */
+public class ErlangCTest {
+
+    @Test
+    public void singleTechIsMM1() {
+        // M/M/1 with load 0.5: P(wait) = 0.5, Wq = rho / (mu - lambda) = 1000 ms
+        ErlangC estimate = new ErlangC(1, Distributions.exponential(2000),
+                                       Distributions.exponential(1000));
+
+        assertEquals(0.5, estimate.getOccupancy(), 1e-9);
+        assertEquals(0.5, estimate.getProbabilityOfWait(), 1e-9);
+        assertEquals(1000, estimate.getMeanWait(), 1e-6);
+        assertEquals(1 - 0.5 * Math.exp(-0.5), estimate.getServiceLevel(1000), 1e-9);
+    }
+
+    @Test
+    public void knownErlangC() {
+        // 10 techs, 8 Erlangs: P(wait) is about 0.409
+        ErlangC estimate = new ErlangC(10, Distributions.exponential(1000),
+                                       Distributions.exponential(8000));
+
+        assertEquals(0.4092, estimate.getProbabilityOfWait(), 1e-3);
+        assertEquals(0.4092 * 8000 / 2, estimate.getMeanWait(), 5);
+    }
+
+    @Test
+    public void allenCunneenCorrection() {
+        ErlangC poisson = new ErlangC(5, Distributions.exponential(1000),
+                                      Distributions.exponential(4000));
+        ErlangC even = new ErlangC(5, Distributions.constant(1000),
+                                   Distributions.constant(4000));
+
+        assertEquals(poisson.getProbabilityOfWait(), even.getProbabilityOfWait(), 1e-12);
+        assertEquals(poisson.getMeanWait() * 1e-9, even.getMeanWait(), 1e-9);
+        assertTrue(even.getServiceLevel(1) > poisson.getServiceLevel(1));
+    }
+
+    @Test
+    public void closeToSimulation() throws Exception {
+        Scenario scenario = new Scenario(0, 100000, 1, 5, Day.MON, 1);
+        scenario.setArrivalTimes(Distributions.exponential(500));
+        scenario.setCallLengths(Distributions.exponential(5000));
+        scenario.setTechCount(12);
+        SimulationData data = new SimulationData(false, 0);
+        Simulation simulation = new Simulation(data);
+        simulation.setSeed(1);
+        RunStats stats = scenario.runOn(simulation);
+        ErlangC estimate = ErlangC.forScenario(scenario, data);
+
+        assertEquals(estimate.getOccupancy(), stats.getTechUtilization(), 0.02);
+        assertEquals(estimate.getMeanWait(), stats.getMeanWait(), 0.15 * estimate.getMeanWait());
+    }
+
+    @Test
+    public void unstable() {
+        ErlangC estimate = new ErlangC(4, Distributions.constant(1000),
+                                       Distributions.constant(5000));
+
+        assertFalse(estimate.isStable());
+        assertEquals(1, estimate.getOccupancy(), 0);
+        assertEquals(Double.POSITIVE_INFINITY, estimate.getMeanWait(), 0);
+        assertEquals(0, estimate.getServiceLevel(20000), 0);
+        assertTrue(estimate.toString().contains("keeps growing"));
+    }
+}
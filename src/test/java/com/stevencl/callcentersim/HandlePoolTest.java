@@ -0,0 +1,75 @@
+package com.stevencl.callcentersim;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+import java.util.NoSuchElementException;
+
+/**
+ * The test class for HandlePool
+ *
+ * @author      Steven Leighton
+ * @version     2018-12-06
+ */
+public class HandlePoolTest {
+
+    @Test
+    public void takeEveryHandleOnce() {
+        HandlePool pool = new HandlePool(new int[] {4, 0, 7, 2, 9});
+        RandomStream random = new RandomStream(3);
+        boolean[] taken = new boolean[10];
+        for (int i = 0; i < 5; i++) {
+            int handle = pool.take(random);
+            assertFalse(taken[handle]);
+            assertFalse(pool.isAvailable(handle));
+            taken[handle] = true;
+        }
+        assertEquals(0, pool.available());
+        assertTrue(taken[4] && taken[0] && taken[7] && taken[2] && taken[9]);
+    }
+
+    @Test
+    public void releaseAndTakeAgain() {
+        HandlePool pool = new HandlePool(new int[] {1, 2, 3});
+        RandomStream random = new RandomStream(5);
+        int first = pool.take(random);
+        assertFalse(pool.release(99));
+        assertFalse(pool.release(pool.isAvailable(1) ? 1 : first == 2 ? 3 : 2));
+        assertTrue(pool.release(first));
+        assertFalse(pool.release(first));
+        assertEquals(3, pool.available());
+
+        pool.take(random);
+        pool.take(random);
+        pool.take(random);
+        assertEquals(0, pool.available());
+        assertTrue(pool.release(2));
+        assertEquals(2, pool.take(random));
+    }
+
+    @Test
+    public void restoreFromArray() {
+        HandlePool pool = new HandlePool(new int[] {5, 6, 7, 8, 9});
+        RandomStream random = new RandomStream(8);
+        pool.take(random);
+        pool.take(random);
+        HandlePool copy = new HandlePool(pool.toArray(), pool.available());
+        RandomStream copyRandom = new RandomStream(8, random.getDraws());
+        assertEquals(3, copy.available());
+        for (int i = 0; i < 3; i++) {
+            assertEquals(pool.take(random), copy.take(copyRandom));
+        }
+    }
+
+    @Test (expected = NoSuchElementException.class)
+    public void takeFromEmpty() {
+        HandlePool pool = new HandlePool(new int[] {0});
+        RandomStream random = new RandomStream(1);
+        pool.take(random);
+        pool.take(random);
+    }
+
+    @Test (expected = IllegalArgumentException.class)
+    public void repeatedHandle() {
+        new HandlePool(new int[] {1, 2, 1});
+    }
+}
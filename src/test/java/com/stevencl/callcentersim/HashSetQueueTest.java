@@ -104,6 +104,28 @@ public class HashSetQueueTest {
         assertTrue(days.isEmpty());
     }
     
+    @Test
+    public void wrapAroundAndGrow() {
+        HashSetQueue<Integer> numbers = new HashSetQueue<>();
+        int next = 0;
+        int expected = 0;
+        for (int round = 0; round < 100; round++) {
+            for (int i = 0; i < 7; i++) {
+                assertTrue(numbers.add(next++));
+            }
+            for (int i = 0; i < 5; i++) {
+                assertEquals(Integer.valueOf(expected++), numbers.remove());
+            }
+        }
+        assertEquals(200, numbers.size());
+        assertTrue(numbers.contains(expected));
+        assertFalse(numbers.add(expected));
+        while (!numbers.isEmpty()) {
+            assertEquals(Integer.valueOf(expected++), numbers.remove());
+        }
+        assertEquals(next, expected);
+    }
+    
     @Test (expected = NoSuchElementException.class)
     public void peekEmpty() {
         HashSetQueue<String> names = new HashSetQueue<>();
@@ -0,0 +1,95 @@
+package com.stevencl.callcentersim;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+import java.util.Random;
+
+/**
+ * The test class for HashSet
+ *
+ * @author      Steven Leighton
+ * @version     2018-12-06
+ */
+public class HashSetTest {
+
+    @Test
+    public void emptySet() {
+        HashSet<String> set = new HashSet<>();
+        assertEquals(0, set.size());
+        assertTrue(set.isEmpty());
+        assertFalse(set.contains("Sarah"));
+        assertEquals("[]", set.toString());
+    }
+
+    @Test
+    public void addAndRemove() {
+        HashSet<String> names = new HashSet<>();
+        assertTrue(names.add("Sarah"));
+        assertTrue(names.add("Brian"));
+        assertFalse(names.add("Sarah"));
+        assertEquals(2, names.size());
+        assertTrue(names.contains("Brian"));
+
+        names.remove("Brian");
+        assertFalse(names.contains("Brian"));
+        assertTrue(names.contains("Sarah"));
+        assertEquals(1, names.size());
+
+        names.remove("Brian");
+        assertEquals(1, names.size());
+    }
+
+    @Test
+    public void rehashKeepsElements() {
+        HashSet<Integer> numbers = new HashSet<>();
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(numbers.add(i * 31));
+        }
+        assertEquals(1000, numbers.size());
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(numbers.contains(i * 31));
+            assertFalse(numbers.contains(i * 31 + 1));
+        }
+    }
+
+    @Test
+    public void matchesJavaHashSet() {
+        // random adds and removes over a small range produce long, overlapping probe runs
+        HashSet<Integer> numbers = new HashSet<>();
+        java.util.HashSet<Integer> expected = new java.util.HashSet<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 100000; i++) {
+            int value = random.nextInt(500) - 250;
+            if (random.nextBoolean()) {
+                assertEquals(expected.add(value), numbers.add(value));
+            } else {
+                expected.remove(value);
+                numbers.remove(value);
+            }
+        }
+        assertEquals(expected.size(), numbers.size());
+        for (int value = -250; value < 250; value++) {
+            assertEquals(expected.contains(value), numbers.contains(value));
+        }
+    }
+
+    @Test
+    public void minValueHashCode() {
+        HashSet<Integer> numbers = new HashSet<>();
+        assertTrue(numbers.add(Integer.MIN_VALUE));
+        assertTrue(numbers.contains(Integer.MIN_VALUE));
+        numbers.remove(Integer.MIN_VALUE);
+        assertTrue(numbers.isEmpty());
+    }
+
+    @Test
+    public void clear() {
+        HashSet<String> names = new HashSet<>();
+        names.add("Sarah");
+        names.add("Brian");
+        names.clear();
+        assertTrue(names.isEmpty());
+        assertFalse(names.contains("Sarah"));
+        assertTrue(names.add("Sarah"));
+    }
+}
@@ -0,0 +1,148 @@
+package com.stevencl.callcentersim;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.Properties;
+
+/**
+ * The test class for HeadlessRunner
+ *
+ * @author      Steven Leighton
+ * @version     2018-12-06
+ */
+public class HeadlessRunnerTest {
+
+    @Test
+    public void runFromArgs() throws Exception {
+        Properties options = HeadlessRunner.parseArgs(new String[] {
+            "--custCount=10", "--callCount=40", "--interval", "2", "--day=wed",
+            "--shift=2", "--seed=9"});
+        StringWriter out = new StringWriter();
+        RunStats stats = new HeadlessRunner(options).run(new PrintWriter(out));
+
+        assertEquals(40, stats.getCallsStarted());
+        assertEquals(40, stats.getCallsCompleted());
+        assertTrue(stats.getTechUtilization() > 0);
+        assertTrue(out.toString().contains("day=WED"));
+        assertTrue(out.toString().contains("seed=9"));
+        assertTrue(out.toString().contains("callsCompleted=40"));
+        assertTrue(out.toString().contains("waitMillisP99="));
+        for (String line : out.toString().split("\\R")) {
+            assertTrue(line, line.matches("\\w+=[^=]*"));
+        }
+    }
+
+    @Test
+    public void sameSeedSameSummary() throws Exception {
+        Properties options = HeadlessRunner.parseArgs(new String[] {
+            "--callCount=200", "--seed=3", "--arrivals=exponential:500"});
+        RunStats first = new HeadlessRunner(options).run(new PrintWriter(new StringWriter()));
+        RunStats second = new HeadlessRunner(options).run(new PrintWriter(new StringWriter()));
+
+        assertEquals(first.toString(), second.toString());
+    }
+
+    @Test
+    public void runReplications() throws Exception {
+        Properties options = HeadlessRunner.parseArgs(new String[] {
+            "--callCount=100", "--seed=4", "--replications=4"});
+        StringWriter out = new StringWriter();
+        ReplicationRunner.Result result = new HeadlessRunner(options)
+                                              .runReplications(new PrintWriter(out));
+
+        assertEquals(4, result.getStats().length);
+        assertTrue(out.toString().contains("replications=4"));
+        assertTrue(out.toString().contains("meanWaitMillisCi95="));
+    }
+
+    @Test (expected = IllegalArgumentException.class)
+    public void invalidArgument() throws Exception {
+        HeadlessRunner.parseArgs(new String[] {"custCount=10"});
+    }
+
+    @Test (expected = IllegalArgumentException.class)
+    public void invalidShift() throws Exception {
+        Properties options = HeadlessRunner.parseArgs(new String[] {"--shift=3"});
+        new HeadlessRunner(options).run(new PrintWriter(new StringWriter()));
+    }
+
+    @Test (expected = IllegalArgumentException.class, timeout = 5000)
+    public void zeroInterval() throws Exception {
+        runWith("--interval=0", "--callCount=50");
+    }
+
+    @Test (expected = IllegalArgumentException.class, timeout = 5000)
+    public void zeroArrivals() throws Exception {
+        runWith("--arrivals=constant:0");
+    }
+
+    @Test (expected = IllegalArgumentException.class, timeout = 5000)
+    public void subMillisecondArrivals() throws Exception {
+        runWith("--arrivals=constant:0.4");
+    }
+
+    @Test (expected = IllegalArgumentException.class, timeout = 5000)
+    public void zeroLength() throws Exception {
+        runWith("--length=0");
+    }
+
+    @Test (expected = IllegalArgumentException.class, timeout = 5000)
+    public void zeroTechCount() throws Exception {
+        runWith("--techCount=0");
+    }
+
+    @Test (expected = IllegalArgumentException.class, timeout = 5000)
+    public void negativeCustCount() throws Exception {
+        runWith("--custCount=-1");
+    }
+
+    @Test (expected = IllegalArgumentException.class, timeout = 5000)
+    public void negativeCallCount() throws Exception {
+        runWith("--callCount=-5");
+    }
+
+    @Test (expected = IllegalArgumentException.class, timeout = 5000)
+    public void zeroReplications() throws Exception {
+        runWith("--replications=0");
+    }
+
+    @Test (expected = IllegalArgumentException.class, timeout = 5000)
+    public void realTimeReplications() throws Exception {
+        runWith("--replications=2", "--realTime=true");
+    }
+
+    @Test (expected = IllegalArgumentException.class, timeout = 5000)
+    public void verboseReplications() throws Exception {
+        runWith("--replications=2", "--verbose=true");
+    }
+
+    @Test (expected = IllegalArgumentException.class, timeout = 5000)
+    public void journalReplications() throws Exception {
+        runWith("--replications=2", "--journal=run.journal");
+    }
+
+    @Test
+    public void verboseRun() throws Exception {
+        Properties options = HeadlessRunner.parseArgs(new String[] {
+            "--callCount=20", "--seed=5", "--verbose=true"});
+        StringWriter out = new StringWriter();
+        new HeadlessRunner(options).run(new PrintWriter(out));
+
+        assertTrue(out.toString().contains("Cust: "));
+        assertTrue(out.toString().contains("Simulation complete"));
+        assertTrue(out.toString().contains("callsCompleted=20"));
+    }
+
+
+    /**
+     * Runs the simulation, or its replications, with the given arguments
+     *
+     * @param       args        arguments of the form --name=value
+     */
+    private static void runWith(String... args) throws Exception {
+        Properties options = HeadlessRunner.parseArgs(args);
+        new HeadlessRunner(options).runAll(new PrintWriter(new StringWriter()));
+    }
+}
@@ -0,0 +1,81 @@
+package com.stevencl.callcentersim;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ * The test class for Histogram
+ *
+ * @author      Steven Leighton
+ * @version     2018-12-06
+ */
+public class HistogramTest {
+
+    @Test
+    public void emptyHistogram() {
+        Histogram histogram = new Histogram();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getMin());
+        assertEquals(0, histogram.getMax());
+        assertEquals(0, histogram.getValueAtPercentile(99));
+        assertEquals("p50=0 p90=0 p99=0 max=0", histogram.toString());
+    }
+
+    @Test
+    public void smallValuesExact() {
+        Histogram histogram = new Histogram();
+        for (int i = 1; i <= 50; i++) {
+            histogram.record(i);
+        }
+        assertEquals(25, histogram.getValueAtPercentile(50));
+        assertEquals(45, histogram.getValueAtPercentile(90));
+        assertEquals(50, histogram.getValueAtPercentile(99));
+        assertEquals(1, histogram.getMin());
+        assertEquals(25.5, histogram.getMean(), 1e-9);
+    }
+
+    @Test
+    public void largeValuesWithinPrecision() {
+        Histogram histogram = new Histogram();
+        for (int i = 1; i <= 100000; i++) {
+            histogram.record(i * 37L);
+        }
+        assertEquals(37L * 50000, histogram.getValueAtPercentile(50), 37 * 50000 * 0.035);
+        assertEquals(37L * 90000, histogram.getValueAtPercentile(90), 37 * 90000 * 0.035);
+        assertEquals(37L * 99000, histogram.getValueAtPercentile(99), 37 * 99000 * 0.035);
+        assertEquals(3700000, histogram.getMax());
+        assertEquals(3700000, histogram.getValueAtPercentile(100));
+    }
+
+    @Test
+    public void extremeValues() {
+        Histogram histogram = new Histogram();
+        histogram.record(-5);
+        histogram.record(Long.MAX_VALUE);
+        assertEquals(0, histogram.getMin());
+        assertEquals(0, histogram.getValueAtPercentile(50));
+        assertEquals(Long.MAX_VALUE, histogram.getValueAtPercentile(100));
+    }
+
+    @Test
+    public void addAndReset() {
+        Histogram first = new Histogram();
+        Histogram second = new Histogram();
+        first.record(10);
+        second.record(1000);
+        second.record(3);
+        first.add(second);
+        assertEquals(3, first.getCount());
+        assertEquals(3, first.getMin());
+        assertEquals(1000, first.getMax());
+
+        first.reset();
+        assertEquals(0, first.getCount());
+        assertEquals(0, first.getMax());
+    }
+
+    @Test (expected = IllegalArgumentException.class)
+    public void invalidPercentile() {
+        new Histogram().getValueAtPercentile(101);
+    }
+}
@@ -0,0 +1,74 @@
+package com.stevencl.callcentersim;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+import java.util.NoSuchElementException;
+
+/**
+ * The test class for IntHashSetQueue
+ *
+ * @author      Steven Leighton
+ * @version     2018-12-06
+ */
+public class IntHashSetQueueTest {
+
+    @Test
+    public void addAndRemove() {
+        IntHashSetQueue ids = new IntHashSetQueue();
+        assertTrue(ids.isEmpty());
+        assertTrue(ids.add(278134));
+        assertTrue(ids.add(751652));
+        assertFalse(ids.add(278134));
+        assertTrue(ids.add(-5));
+        assertTrue(ids.add(Integer.MIN_VALUE));
+        assertFalse(ids.add(Integer.MIN_VALUE));
+
+        assertEquals(4, ids.size());
+        assertEquals("[278134, 751652, -5, -2147483648]", ids.toString());
+        assertEquals(278134, ids.peek());
+        assertEquals(278134, ids.remove());
+        assertTrue(ids.add(278134));
+        assertEquals(751652, ids.remove());
+        assertEquals(-5, ids.remove());
+        assertEquals(Integer.MIN_VALUE, ids.remove());
+        assertFalse(ids.contains(Integer.MIN_VALUE));
+        assertEquals(278134, ids.remove());
+        assertTrue(ids.isEmpty());
+    }
+
+    @Test
+    public void wrapAroundAndGrow() {
+        IntHashSetQueue numbers = new IntHashSetQueue();
+        int next = 0;
+        int expected = 0;
+        for (int round = 0; round < 100; round++) {
+            for (int i = 0; i < 7; i++) {
+                assertTrue(numbers.add(next++));
+            }
+            for (int i = 0; i < 5; i++) {
+                assertEquals(expected++, numbers.remove());
+            }
+        }
+        while (!numbers.isEmpty()) {
+            assertEquals(expected++, numbers.remove());
+        }
+        assertEquals(next, expected);
+    }
+
+    @Test
+    public void idIndex() {
+        IdIndex index = new IdIndex();
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i, index.putIfAbsent(i * 7919, i));
+        }
+        assertEquals(5, index.putIfAbsent(5 * 7919, 999));
+        assertEquals(1000, index.size());
+        assertEquals(42, index.get(42 * 7919));
+        assertEquals(IdIndex.NO_HANDLE, index.get(1));
+    }
+
+    @Test (expected = NoSuchElementException.class)
+    public void removeEmpty() {
+        new IntHashSetQueue().remove();
+    }
+}
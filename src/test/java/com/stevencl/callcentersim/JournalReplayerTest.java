@@ -0,0 +1,223 @@
+package com.stevencl.callcentersim;
+
+import static org.junit.Assert.*;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.ArrayList;
+
+/**
+ * The test class for EventJournal and JournalReplayer
+ *
+ * @author      Steven Leighton
+ * @version     2018-12-06
+ */
+public class JournalReplayerTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private SimulationData      data;
+    private String              journalFile;
+
+    /**
+     * Sets up the test fixture.
+     *
+     * Called before every test case method.
+     */
+    @Before
+    public void setUp() throws IOException {
+        data = new SimulationData(false, 0);
+        journalFile = new File(folder.getRoot(), "run.journal").getPath();
+    }
+
+    @Test
+    public void replayMatchesRun() throws IOException {
+        Simulation sim = new Simulation(data);
+        ConsoleRecorder recorded = new ConsoleRecorder();
+        sim.addObserver(recorded);
+        sim.setSeed(7);
+        sim.setArrivalTimes(Distributions.exponential(400));
+        sim.setJournalFile(journalFile);
+        sim.run(30, 2000, 1, 2, Day.MON, 1);
+
+        JournalReplayer replayer = new JournalReplayer(journalFile, data);
+        ConsoleRecorder replayed = new ConsoleRecorder();
+        replayer.addObserver(replayed);
+        replayer.replay();
+
+        assertEquals(7, replayer.getSeed());
+        assertEquals(2000, replayer.getCallCount());
+        assertEquals(Day.MON, replayer.getDay());
+        assertEquals(sim.getStats().toString(), replayer.getStats().toString());
+        assertEquals(recorded.lines, replayed.lines);
+        assertEquals(0, replayer.getCallsRemaining());
+        assertTrue(replayer.getOpenCalls().isEmpty());
+        assertFalse(replayed.isRunning);
+    }
+
+    @Test
+    public void replayWeekRun() throws IOException {
+        Simulation sim = new Simulation(data);
+        ConsoleRecorder recorded = new ConsoleRecorder();
+        sim.addObserver(recorded);
+        sim.setSeed(9);
+        sim.setShiftLength(15000);
+        sim.setJournalFile(journalFile);
+        sim.run(20, 600, 1, 20, Day.FRI, 2);
+
+        JournalReplayer replayer = new JournalReplayer(journalFile, data);
+        ConsoleRecorder replayed = new ConsoleRecorder();
+        replayer.addObserver(replayed);
+        replayer.replay();
+
+        assertTrue(recorded.lines.contains("Shift change: SAT shift 1, 13 techs on duty\n"));
+        assertEquals(sim.getStats().getStaffedTime(), replayer.getStats().getStaffedTime());
+        assertEquals(sim.getStats().toString(), replayer.getStats().toString());
+        assertEquals(recorded.lines, replayed.lines);
+        assertTrue(replayer.getOpenCalls().isEmpty());
+    }
+
+    @Test
+    public void replayUnclosedJournal() throws IOException {
+        EventJournal journal = new EventJournal(journalFile, 1, 1, 5, Day.MON, 1,
+                                                data.getCustomerCount(), data.getTechCount());
+        journal.write(EventJournal.TECH_READY, 0, -1, 3, -1);
+        journal.write(EventJournal.ARRIVAL, 0, 8, -1, -1);
+        journal.write(EventJournal.START, 0, 8, 3, 5000);
+        journal.write(EventJournal.ARRIVAL, 1000, 9, -1, -1);
+
+        JournalReplayer replayer = new JournalReplayer(journalFile, data);
+        replayer.replay();
+        assertEquals(1000, replayer.getClock());
+        assertEquals(1, replayer.getQueueSize());
+        assertEquals(0, replayer.getAvailableTechs());
+        assertEquals(4, replayer.getCallsRemaining());
+        assertEquals(1, replayer.getOpenCalls().size());
+        assertEquals(5000, replayer.getOpenCalls().get(0).getLength());
+        journal.close();
+    }
+
+    @Test
+    public void largeJournal() throws IOException {
+        int records = EventJournal.CHUNK_RECORDS + 10;
+        try (EventJournal journal = new EventJournal(journalFile, 1, 0, 0, Day.MON, 1,
+                                                     data.getCustomerCount(),
+                                                     data.getTechCount())) {
+            journal.write(EventJournal.TECH_READY, 0, -1, 0, -1);
+            for (int i = 1; i < records; i++) {
+                journal.write(EventJournal.DROP, i, -1, -1, -1);
+            }
+            assertEquals(records, journal.getCount());
+        }
+        assertEquals(EventJournal.HEADER_SIZE + (long)records * EventJournal.RECORD_SIZE,
+                     new File(journalFile).length());
+
+        JournalReplayer replayer = new JournalReplayer(journalFile, data);
+        replayer.replay();
+        assertEquals(records - 1, replayer.getStats().getDroppedCalls());
+        assertEquals(records - 1, replayer.getClock());
+    }
+
+    @Test
+    public void replayUntrimmedJournal() throws IOException {
+        try (EventJournal journal = new EventJournal(journalFile, 1, 1, 5, Day.MON, 1,
+                                                     data.getCustomerCount(),
+                                                     data.getTechCount())) {
+            journal.write(EventJournal.TECH_READY, 0, -1, 3, -1);
+            journal.write(EventJournal.ARRIVAL, 0, 8, -1, -1);
+            journal.write(EventJournal.START, 0, 8, 3, 5000);
+            journal.write(EventJournal.ARRIVAL, 1000, 9, -1, -1);
+        }
+        // as left where the file cannot be truncated while mapped
+        try (RandomAccessFile file = new RandomAccessFile(journalFile, "rw")) {
+            file.setLength(file.length() + 100L * EventJournal.RECORD_SIZE);
+        }
+
+        JournalReplayer replayer = new JournalReplayer(journalFile, data);
+        replayer.replay();
+        assertEquals(1000, replayer.getClock());
+        assertEquals(1, replayer.getQueueSize());
+        assertEquals(4, replayer.getCallsRemaining());
+    }
+
+    @Test (expected = IOException.class)
+    public void outOfOrderStart() throws IOException {
+        try (EventJournal journal = new EventJournal(journalFile, 1, 2, 5, Day.MON, 1,
+                                                     data.getCustomerCount(),
+                                                     data.getTechCount())) {
+            journal.write(EventJournal.TECH_READY, 0, -1, 3, -1);
+            journal.write(EventJournal.ARRIVAL, 0, 8, -1, -1);
+            journal.write(EventJournal.ARRIVAL, 0, 9, -1, -1);
+            journal.write(EventJournal.START, 0, 9, 3, 5000);
+        }
+        new JournalReplayer(journalFile, data).replay();
+    }
+
+    @Test
+    public void techsLeaveTogether() throws IOException {
+        try (EventJournal journal = new EventJournal(journalFile, 1, 0, 1, Day.MON, 1,
+                                                     data.getCustomerCount(),
+                                                     data.getTechCount())) {
+            for (int tech = 1; tech <= 4; tech++) {
+                journal.write(EventJournal.TECH_READY, 0, -1, tech, -1);
+            }
+            journal.write(EventJournal.SHIFT, 1000, -1, 2, RosterIndex.slot(Day.MON, 2));
+            journal.write(EventJournal.TECH_LEAVE, 1000, -1, 1, -1);
+            journal.write(EventJournal.TECH_LEAVE, 1000, -1, 3, -1);
+            journal.write(EventJournal.ARRIVAL, 1500, 8, -1, -1);
+            journal.write(EventJournal.START, 1500, 8, 2, 5000);
+            journal.write(EventJournal.TECH_LEAVE, 1500, -1, 4, -1);
+        }
+
+        // the remaining techs keep their order, and the last departure is not lost
+        JournalReplayer replayer = new JournalReplayer(journalFile, data);
+        replayer.replay();
+        assertEquals(1500, replayer.getClock());
+        assertEquals(0, replayer.getAvailableTechs());
+        assertEquals(1, replayer.getOpenCalls().size());
+    }
+
+    @Test (expected = IOException.class)
+    public void techLeavesTwice() throws IOException {
+        try (EventJournal journal = new EventJournal(journalFile, 1, 0, 1, Day.MON, 1,
+                                                     data.getCustomerCount(),
+                                                     data.getTechCount())) {
+            journal.write(EventJournal.TECH_READY, 0, -1, 3, -1);
+            journal.write(EventJournal.TECH_LEAVE, 1000, -1, 3, -1);
+            journal.write(EventJournal.TECH_LEAVE, 1000, -1, 3, -1);
+        }
+        new JournalReplayer(journalFile, data).replay();
+    }
+
+    @Test (expected = IOException.class)
+    public void notAJournal() throws IOException {
+        Files.write(new File(journalFile).toPath(), "id,name\n".getBytes("UTF-8"));
+        new JournalReplayer(journalFile, data);
+    }
+
+
+    /**
+     * Records the console text and run-status sent to observers
+     */
+    private static class ConsoleRecorder implements Observer {
+        private ArrayList<String>   lines = new ArrayList<>();
+        private boolean             isRunning;
+
+        public void update(int callsRemaining, int queueSize, int openCalls,
+                           int availableTechs) {
+        }
+
+        public void update(String consoleText) {
+            lines.add(consoleText);
+        }
+
+        public void update(boolean isRunning) {
+            this.isRunning = isRunning;
+        }
+    }
+}
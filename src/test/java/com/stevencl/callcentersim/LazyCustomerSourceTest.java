@@ -0,0 +1,76 @@
+package com.stevencl.callcentersim;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * The test class for LazyCustomerSource
+ *
+ * @author      Steven Leighton
+ * @version     2018-12-06
+ */
+public class LazyCustomerSourceTest {
+
+    @Test
+    public void matchesEagerCustomers() throws IOException {
+        SimulationData eager = new SimulationData(false, 0);
+        try (SimulationData lazy = new SimulationData(true, 0)) {
+            CustomerSource expected = eager.getCustomers();
+            CustomerSource actual = lazy.getCustomers();
+            assertTrue(actual instanceof LazyCustomerSource);
+            assertArrayEquals(eager.getCustHandles(), lazy.getCustHandles());
+            for (int handle : eager.getCustHandles()) {
+                Customer customer = actual.get(handle);
+                assertEquals(expected.getId(handle), actual.getId(handle));
+                assertEquals(expected.get(handle), customer);
+                assertEquals(expected.get(handle).toString(), customer.toString());
+            }
+        }
+    }
+
+    @Test
+    public void cacheStaysWithinBound() throws IOException {
+        try (LazyCustomerSource source = new LazyCustomerSource(SimulationData.CUSTOMER_FILE,
+                                                                  3)) {
+            Customer first = source.get(0);
+            assertSame(first, source.get(0));
+            Customer second = source.get(1);
+            source.get(2);
+            assertEquals(3, source.getCachedCount());
+
+            // using the first customer keeps it, so the second is the one evicted
+            assertSame(first, source.get(0));
+            source.get(3);
+            assertEquals(3, source.getCachedCount());
+            assertSame(first, source.get(0));
+            assertNotSame(second, source.get(1));
+            assertEquals(second.toString(), source.get(1).toString());
+            for (int handle = 5; handle < 50; handle++) {
+                source.get(handle);
+                assertTrue(source.getCachedCount() <= 3);
+            }
+            assertNotSame(first, source.get(0));
+        }
+    }
+
+    @Test
+    public void noCache() throws IOException {
+        try (LazyCustomerSource source = new LazyCustomerSource(SimulationData.CUSTOMER_FILE,
+                                                                  0)) {
+            Customer first = source.get(0);
+            assertNotSame(first, source.get(0));
+            assertEquals(first.toString(), source.get(0).toString());
+            assertEquals(0, source.getCachedCount());
+        }
+    }
+
+    @Test (expected = UncheckedIOException.class)
+    public void closedWithData() throws IOException {
+        SimulationData data = new SimulationData(true, 0);
+        data.getCustomers().get(0);
+        data.close();
+        data.getCustomers().get(0);
+    }
+}
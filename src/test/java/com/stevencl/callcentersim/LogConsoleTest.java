@@ -0,0 +1,58 @@
+package com.stevencl.callcentersim;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+import javax.swing.SwingUtilities;
+
+/**
+ * The test class for LogConsole
+ *
+ * @author      Steven Leighton
+ * @version     2018-12-06
+ */
+public class LogConsoleTest {
+
+    @Test
+    public void boundedLines() throws Exception {
+        LogConsole console = new LogConsole(100);
+        for (int i = 0; i < 10000; i++) {
+            console.append("Cust: " + i + "\n");
+        }
+        SwingUtilities.invokeAndWait(() -> { });
+
+        assertEquals(100, console.getLineCount());
+        assertEquals("Cust: 9900", console.getLine(0));
+        assertEquals("Cust: 9999", console.getLine(99));
+    }
+
+    @Test
+    public void filterLines() throws Exception {
+        LogConsole console = new LogConsole(100);
+        console.append("Cust: 1, Tech: Ann\nCust: 2, Tech: Bob\nSimulation complete");
+        SwingUtilities.invokeAndWait(() -> console.setFilter("tech: ann"));
+
+        assertEquals(1, console.getLineCount());
+        assertEquals("Cust: 1, Tech: Ann", console.getLine(0));
+
+        console.append("Cust: 3, Tech: ANN\n");
+        SwingUtilities.invokeAndWait(() -> { });
+        assertEquals(2, console.getLineCount());
+
+        SwingUtilities.invokeAndWait(() -> console.setFilter(""));
+        assertEquals(4, console.getLineCount());
+    }
+
+    @Test
+    public void clearPending() throws Exception {
+        LogConsole console = new LogConsole(10);
+        SwingUtilities.invokeAndWait(() -> {
+            console.append("old line");
+            console.clear();
+            console.append("new line");
+        });
+        SwingUtilities.invokeAndWait(() -> { });
+
+        assertEquals(1, console.getLineCount());
+        assertEquals("new line", console.getLine(0));
+    }
+}
@@ -0,0 +1,56 @@
+package com.stevencl.callcentersim;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+import java.util.SplittableRandom;
+
+/**
+ * The test class for RandomStream
+ *
+ * @author      Steven Leighton
+ * @version     2018-12-06
+ */
+public class RandomStreamTest {
+
+    @Test
+    public void matchesSplittableRandom() {
+        RandomStream stream = new RandomStream(17);
+        SplittableRandom random = new SplittableRandom(17);
+        for (int i = 0; i < 100; i++) {
+            assertEquals(random.nextDouble(), stream.nextDouble(), 0);
+        }
+        assertEquals(100, stream.getDraws());
+    }
+
+    @Test
+    public void restoreAfterDraws() {
+        RandomStream stream = new RandomStream(-5);
+        for (int i = 0; i < 1000; i++) {
+            stream.nextInt(7);
+            stream.nextGaussian();
+        }
+        RandomStream restored = new RandomStream(-5, stream.getDraws());
+        assertEquals(stream.getDraws(), restored.getDraws());
+        for (int i = 0; i < 100; i++) {
+            assertEquals(stream.nextLong(), restored.nextLong());
+        }
+    }
+
+    @Test
+    public void nextIntInRange() {
+        RandomStream stream = new RandomStream(3);
+        int[] counts = new int[5];
+        for (int i = 0; i < 10000; i++) {
+            counts[stream.nextInt(5)]++;
+        }
+        for (int count : counts) {
+            assertTrue(count > 1800 && count < 2200);
+        }
+        assertEquals(0, stream.nextInt(1));
+    }
+
+    @Test (expected = IllegalArgumentException.class)
+    public void invalidBound() {
+        new RandomStream(3).nextInt(0);
+    }
+}
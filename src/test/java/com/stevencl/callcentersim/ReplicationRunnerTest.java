@@ -0,0 +1,64 @@
+package com.stevencl.callcentersim;
+
+import static org.junit.Assert.*;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * The test class for ReplicationRunner
+ *
+ * @author      Steven Leighton
+ * @version     2018-12-06
+ */
+public class ReplicationRunnerTest {
+    private static SimulationData   data;
+
+    @BeforeClass
+    public static void loadData() throws Exception {
+        data = new SimulationData(false, 0);
+    }
+
+    @Test
+    public void runReplications() {
+        Scenario scenario = new Scenario(20, 300, 1, 5, Day.MON, 1);
+        scenario.setArrivalTimes(Distributions.exponential(500));
+        ReplicationRunner runner = new ReplicationRunner(data, new ForkJoinPool(4));
+        ReplicationRunner.Result result = runner.run(scenario, 16, 11);
+
+        assertEquals(16, result.getStats().length);
+        for (RunStats stats : result.getStats()) {
+            assertEquals(300, stats.getCallsCompleted());
+        }
+        Estimate utilization = result.getTechUtilization();
+        assertTrue(utilization.getMean() > 0 && utilization.getMean() <= 1);
+        assertTrue(utilization.getLower() <= utilization.getMean());
+        assertTrue(result.getMeanWait().getStdDev() > 0);
+    }
+
+    @Test
+    public void sameSeedSameResults() {
+        Scenario scenario = new Scenario(10, 200, 1, 5, Day.TUE, 2);
+        scenario.setCallLengths(Distributions.gamma(5000, 3000));
+        ReplicationRunner runner = new ReplicationRunner(data);
+        String first = runner.run(scenario, 8, 5).toString();
+        String second = runner.run(scenario, 8, 5).toString();
+
+        assertEquals(first, second);
+    }
+
+    @Test
+    public void estimate() {
+        Estimate estimate = new Estimate(new double[] {1, 2, 3, 4, 5});
+
+        assertEquals(3, estimate.getMean(), 1e-9);
+        assertEquals(Math.sqrt(2.5), estimate.getStdDev(), 1e-9);
+        assertEquals(2.776 * Math.sqrt(2.5) / Math.sqrt(5), estimate.getHalfWidth(), 1e-9);
+        assertTrue(Double.isNaN(new Estimate(new double[] {7}).getHalfWidth()));
+    }
+
+    @Test (expected = IllegalArgumentException.class)
+    public void noReplications() {
+        new ReplicationRunner(data).run(new Scenario(10, 10, 1, 1, Day.MON, 1), 0, 1);
+    }
+}
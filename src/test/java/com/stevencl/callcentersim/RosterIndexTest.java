@@ -0,0 +1,67 @@
+package com.stevencl.callcentersim;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+import java.io.IOException;
+
+/**
+ * The test class for RosterIndex
+ *
+ * @author      Steven Leighton
+ * @version     2018-12-06
+ */
+public class RosterIndexTest {
+
+    @Test
+    public void schedulesAsBitmasks() {
+        Tech early = new Tech("1", "A", "B", "ab", "SMTWT1");
+        Tech late = new Tech("2", "C", "D", "cd", "TWTFS2");
+        assertTrue(early.isWorking(Day.SUN, 1));
+        assertTrue(early.isWorking(Day.THU, 1));
+        assertFalse(early.isWorking(Day.FRI, 1));
+        assertFalse(early.isWorking(Day.MON, 2));
+        assertTrue(late.isWorking(Day.SAT, 2));
+        assertFalse(late.isWorking(Day.MON, 2));
+        assertFalse(late.isWorking(Day.SAT, 3));
+        assertEquals(5, Integer.bitCount(early.getSchedule()));
+    }
+
+    @Test
+    public void rosterInHandleOrder() {
+        Tech[] techs = {
+            new Tech("1", "A", "B", "ab", "SMTWT1"),
+            new Tech("2", "C", "D", "cd", "TWTFS1"),
+            new Tech("3", "E", "F", "ef", "SMTWT1"),
+            new Tech("4", "G", "H", "gh", "SMTWT2")
+        };
+        RosterIndex roster = new RosterIndex(techs, new int[] {3, 2, 1, 0});
+        assertArrayEquals(new int[] {2, 0}, roster.getHandles(Day.MON, 1));
+        assertArrayEquals(new int[] {2, 1, 0}, roster.getHandles(Day.WED, 1));
+        assertArrayEquals(new int[] {1}, roster.getHandles(Day.SAT, 1));
+        assertArrayEquals(new int[] {3}, roster.getHandles(Day.SUN, 2));
+        assertEquals(0, roster.getCount(Day.FRI, 2));
+        assertEquals(0, roster.getCount(Day.MON, 0));
+    }
+
+    @Test
+    public void matchesScheduleScan() throws IOException {
+        SimulationData data = new SimulationData(false, 0);
+        RosterIndex roster = data.getRoster();
+        for (Day day : Day.values()) {
+            for (int shift = 1; shift <= RosterIndex.SHIFTS; shift++) {
+                int count = 0;
+                for (int handle : data.getTechHandles()) {
+                    if (data.getTechs()[handle].isWorking(day, shift)) {
+                        assertEquals(handle, roster.getHandles(day, shift)[count++]);
+                    }
+                }
+                assertEquals(count, roster.getCount(day, shift));
+            }
+        }
+    }
+
+    @Test (expected = IllegalArgumentException.class)
+    public void invalidSchedule() {
+        new Tech("1", "A", "B", "ab", "SMTWT3");
+    }
+}
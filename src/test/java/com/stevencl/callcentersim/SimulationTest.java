@@ -0,0 +1,429 @@
+package com.stevencl.callcentersim;
+
+import static org.junit.Assert.*;
+import org.junit.Before;
+import org.junit.Test;
+import java.util.ArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The test class for Simulation
+ *
+ * @author      Steven Leighton
+ * @version     2018-12-06
+ */
+public class SimulationTest {
+    private Simulation          sim;
+    private RecordingObserver   observer;
+
+    /**
+     * Sets up the test fixture.
+     *
+     * Called before every test case method.
+     */
+    @Before
+    public void setUp() {
+        sim = new Simulation();
+        observer = new RecordingObserver(sim);
+        sim.addObserver(observer);
+    }
+
+    @Test
+    public void runToCompletion() {
+        sim.run(20, 30, 1, 2, Day.MON, 1);
+
+        assertFalse(sim.getIsRunning());
+        assertEquals(30, observer.callsStarted);
+        assertEquals(0, observer.callsRemaining);
+        assertEquals(0, observer.openCalls);
+        assertTrue(observer.messages.contains("Simulation complete"));
+        assertTrue(sim.getClock() > 0);
+    }
+
+    @Test
+    public void eventsInTimeOrder() {
+        sim.run(10, 100, 1, 5, Day.WED, 2);
+
+        long previous = 0;
+        for (long time : observer.times) {
+            assertTrue(time >= previous);
+            previous = time;
+        }
+    }
+
+    @Test
+    public void runTwice() {
+        sim.run(20, 30, 1, 2, Day.MON, 1);
+        observer.callsStarted = 0;
+        sim.run(20, 30, 1, 2, Day.SAT, 2);
+
+        assertFalse(sim.getIsRunning());
+        assertEquals(30, observer.callsStarted);
+    }
+
+    @Test
+    public void openCallsMatchStatus() {
+        sim.run(30, 200, 1, 10, Day.TUE, 1);
+
+        assertFalse(observer.openCallMismatch);
+        assertEquals(0, sim.getOpenCalls().length);
+    }
+
+    @Test
+    public void lazyCustomers() {
+        Simulation lazy = new Simulation(true, 10);
+        RecordingObserver lazyObserver = new RecordingObserver(lazy);
+        lazy.addObserver(lazyObserver);
+        lazy.run(20, 30, 1, 2, Day.MON, 1);
+
+        assertEquals(30, lazyObserver.callsStarted);
+        assertTrue(lazyObserver.messages.get(0).contains("email="));
+    }
+
+    @Test
+    public void sameSeedRepeats() {
+        sim.setSeed(42);
+        sim.setArrivalTimes(Distributions.exponential(1000));
+        sim.setCallLengths(Distributions.logNormal(5000, 2000));
+        sim.run(10, 50, 1, 5, Day.MON, 1);
+        ArrayList<String> first = new ArrayList<>(observer.messages);
+        ArrayList<Long> firstTimes = new ArrayList<>(observer.times);
+
+        observer.messages.clear();
+        observer.times.clear();
+        sim.run(10, 50, 1, 5, Day.MON, 1);
+
+        assertEquals(42, sim.getSeed());
+        assertEquals(first, observer.messages);
+        assertEquals(firstTimes, observer.times);
+    }
+
+    @Test
+    public void everyCustomerWaiting() {
+        sim.run(1000, 1100, 1, 1, Day.MON, 1);
+
+        assertFalse(sim.getIsRunning());
+        assertEquals(1100, observer.callsStarted);
+    }
+
+    @Test
+    public void histogramsMatchStats() {
+        sim.run(50, 200, 1, 3, Day.MON, 1);
+        RunStats stats = sim.getStats();
+
+        assertEquals(stats.getCallsStarted(), stats.getWaitTimes().getCount());
+        assertEquals(stats.getCallsCompleted(), stats.getHandleTimes().getCount());
+        assertEquals(stats.getCallsStarted(), stats.getIdleTimes().getCount());
+        assertEquals(stats.getMaxWait(), stats.getWaitTimes().getMax());
+        assertEquals(stats.getMeanWait(), stats.getWaitTimes().getMean(), 1e-6);
+        assertEquals(stats.getBusyTime(), stats.getHandleTimes().getMean()
+                                          * stats.getCallsCompleted(), 1e-3);
+        assertTrue(stats.getHandleTimes().getMax() <= 6000);
+    }
+
+    @Test
+    public void countAndTimeEvents() {
+        sim.run(20, 100, 1, 3, Day.MON, 1);
+        RunStats stats = sim.getStats();
+        assertTrue(stats.getEventCount() >= stats.getCallsStarted()
+                                            + stats.getCallsCompleted());
+        assertEquals(0, stats.getEventLatencies().getCount());
+
+        sim.setTimingEvents(true);
+        sim.run(20, 100, 1, 3, Day.MON, 1);
+        stats = sim.getStats();
+        assertEquals(stats.getEventCount(), stats.getEventLatencies().getCount());
+    }
+
+    @Test
+    public void pauseAndResume() {
+        sim.setSeed(9);
+        sim.setArrivalTimes(Distributions.exponential(500));
+        sim.setCallLengths(Distributions.gamma(3000, 2000));
+        sim.run(10, 400, 1, 3, Day.MON, 1);
+        String uninterrupted = sim.getStats().toString();
+        ArrayList<String> messages = new ArrayList<>(observer.messages);
+
+        observer.messages.clear();
+        sim.runUntil(10, 400, 1, 3, Day.MON, 1, 60000);
+        assertTrue(sim.isPaused());
+        assertTrue(sim.getIsRunning());
+        assertEquals(60000, sim.getClock());
+        sim.resume(120000);
+        assertTrue(sim.isPaused());
+        sim.resume();
+
+        assertFalse(sim.isPaused());
+        assertEquals(uninterrupted, sim.getStats().toString());
+        assertEquals(messages, observer.messages);
+    }
+
+    @Test
+    public void snapshotAndRestore() {
+        sim.setSeed(11);
+        sim.setArrivalTimes(Distributions.exponential(500));
+        sim.run(10, 400, 1, 3, Day.MON, 1);
+        String uninterrupted = sim.getStats().toString();
+        ArrayList<String> messages = new ArrayList<>(observer.messages);
+
+        observer.messages.clear();
+        sim.runUntil(10, 400, 1, 3, Day.MON, 1, 90000);
+        byte[] snapshot = sim.snapshot();
+        ArrayList<String> before = new ArrayList<>(observer.messages);
+        sim.end();
+
+        // two forks of the same snapshot finish the same way as the run it was saved from
+        for (int i = 0; i < 2; i++) {
+            Simulation fork = new Simulation(sim.getData());
+            fork.setArrivalTimes(Distributions.exponential(500));
+            RecordingObserver forkObserver = new RecordingObserver(fork);
+            fork.addObserver(forkObserver);
+            fork.restore(snapshot);
+            assertTrue(fork.isPaused());
+            assertEquals(11, fork.getSeed());
+            fork.resume();
+
+            ArrayList<String> combined = new ArrayList<>(before);
+            combined.addAll(forkObserver.messages);
+            assertEquals(uninterrupted, fork.getStats().toString());
+            assertEquals(messages, combined);
+            assertFalse(forkObserver.openCallMismatch);
+        }
+    }
+
+    @Test (expected = IllegalStateException.class)
+    public void snapshotWhileStopped() {
+        sim.run(10, 20, 1, 3, Day.MON, 1);
+        sim.snapshot();
+    }
+
+    @Test (expected = IllegalArgumentException.class)
+    public void restoreInvalidSnapshot() {
+        sim.restore(new byte[] {1, 2, 3});
+    }
+
+    @Test
+    public void weekRunChangesShifts() {
+        sim.setSeed(3);
+        sim.setShiftLength(60000);
+        sim.run(10, 1500, 1, 4, Day.SAT, 1);
+
+        assertFalse(sim.getIsRunning());
+        assertEquals(1500, observer.callsStarted);
+        assertTrue(observer.messages.contains("Shift change: SAT shift 2, 13 techs on duty\n"));
+        assertTrue(observer.messages.contains("Shift change: SUN shift 2, 12 techs on duty\n"));
+        assertTrue(observer.messages.contains("Shift change: MON shift 1, 12 techs on duty\n"));
+        assertTrue(observer.messages.contains("Shift change: TUE shift 1, 25 techs on duty\n"));
+        assertTrue(observer.messages.contains("Simulation complete"));
+        assertFalse(observer.openCallMismatch);
+
+        RunStats stats = sim.getStats();
+        assertTrue(stats.getStaffedTime() > 0);
+        assertTrue(stats.getTechUtilization() > 0 && stats.getTechUtilization() <= 1);
+    }
+
+    @Test
+    public void weekRunHandsOverCalls() {
+        DutyObserver duty = new DutyObserver(sim);
+        sim.addObserver(duty);
+        sim.setSeed(5);
+        sim.setShiftLength(10000);
+        sim.run(20, 300, 1, 30, Day.SUN, 2);
+
+        // calls spanning shift changes are finished, and only techs on duty take new calls
+        assertFalse(sim.getIsRunning());
+        assertEquals(300, observer.callsStarted);
+        assertEquals(300, duty.started);
+        assertEquals(0, duty.offDuty);
+        assertFalse(observer.openCallMismatch);
+        assertTrue(sim.getClock() > 10 * 10000);
+    }
+
+    @Test
+    public void weekSnapshotAndRestore() {
+        sim.setSeed(13);
+        sim.setShiftLength(20000);
+        sim.run(10, 400, 1, 6, Day.MON, 1);
+        String uninterrupted = sim.getStats().toString();
+        ArrayList<String> messages = new ArrayList<>(observer.messages);
+
+        observer.messages.clear();
+        sim.runUntil(10, 400, 1, 6, Day.MON, 1, 90000);
+        byte[] snapshot = sim.snapshot();
+        ArrayList<String> before = new ArrayList<>(observer.messages);
+        sim.end();
+
+        Simulation fork = new Simulation(sim.getData());
+        RecordingObserver forkObserver = new RecordingObserver(fork);
+        fork.addObserver(forkObserver);
+        fork.restore(snapshot);
+        assertEquals(20000, fork.getShiftLength());
+        assertEquals(Day.WED, fork.getDay());
+        assertEquals(1, fork.getShift());
+        fork.resume();
+
+        before.addAll(forkObserver.messages);
+        assertEquals(uninterrupted, fork.getStats().toString());
+        assertEquals(messages, before);
+    }
+
+    @Test (expected = IllegalStateException.class)
+    public void weekRunNeedsVirtualClock() {
+        sim.setShiftLength(60000);
+        sim.start(10, 20, 1, 3, Day.MON, 1);
+    }
+
+    @Test (timeout = 5000)
+    public void runWithNoTechs() {
+        sim.setTechCount(0);
+        sim.run(5, 10, 1, 2, Day.MON, 1);
+
+        assertFalse(sim.getIsRunning());
+        assertEquals(0, observer.callsStarted);
+        assertEquals(10, observer.callsRemaining);
+        assertTrue(observer.messages.contains("Simulation stopped: no techs are on duty"));
+    }
+
+    @Test (timeout = 5000)
+    public void weekRunWithNoTechs() {
+        sim.setTechCount(0);
+        sim.setShiftLength(60000);
+        sim.run(5, 10, 1, 2, Day.MON, 1);
+
+        assertFalse(sim.getIsRunning());
+        assertEquals(0, observer.callsStarted);
+        assertTrue(observer.messages.contains("Simulation stopped: no techs are on duty"));
+    }
+
+    @Test (expected = IllegalArgumentException.class, timeout = 5000)
+    public void zeroInterval() {
+        sim.run(5, 10, 0, 2, Day.MON, 1);
+    }
+
+    @Test (expected = IllegalArgumentException.class)
+    public void zeroArrivalTimes() {
+        sim.setArrivalTimes(Distributions.constant(0));
+    }
+
+    @Test (expected = IllegalArgumentException.class, timeout = 5000)
+    public void subMillisecondArrivalTimes() {
+        sim.setArrivalTimes(Distributions.constant(0.4));
+        sim.run(5, 100, 1, 2, Day.MON, 1);
+    }
+
+    @Test (timeout = 5000)
+    public void millisecondArrivalTimes() {
+        sim.setArrivalTimes(Distributions.uniform(0, 2));
+        sim.run(5, 100, 1, 2, Day.MON, 1);
+
+        assertFalse(sim.getIsRunning());
+        assertEquals(100, observer.callsStarted);
+    }
+
+    @Test (timeout = 20000)
+    public void realTimeRunKeepsInvariants() throws InterruptedException {
+        sim.setArrivalTimes(Distributions.constant(5));
+        sim.setCallLengths(Distributions.uniform(1, 10));
+        sim.start(5, 20, 1, 1, Day.MON, 1);
+        assertTrue(observer.ended.await(15, TimeUnit.SECONDS));
+
+        // every call is counted, every tech is back in the queue once, and none is open
+        assertFalse(sim.getIsRunning());
+        assertEquals(20, observer.callsStarted);
+        assertEquals(20, sim.getStats().getCallsStarted());
+        assertEquals(20, sim.getStats().getCallsCompleted());
+        assertEquals(0, observer.callsRemaining);
+        assertEquals(sim.getData().getScheduledTechCount(Day.MON, 1), observer.availableTechs);
+        assertEquals(0, sim.getOpenCalls().length);
+        assertFalse(observer.openCallMismatch);
+    }
+
+    @Test (expected = IllegalArgumentException.class)
+    public void tooManyCustomers() {
+        sim.run(5000, 30, 1, 2, Day.MON, 1);
+    }
+
+
+    /**
+     * Records the notifications sent by a simulation
+     */
+    private static class RecordingObserver implements Observer {
+        private Simulation          sim;
+        private ArrayList<Long>     times = new ArrayList<>();
+        private ArrayList<String>   messages = new ArrayList<>();
+        private int                 callsStarted;
+        private int                 callsRemaining;
+        private int                 openCalls;
+        private int                 availableTechs;
+        private boolean             openCallMismatch;
+        private CountDownLatch      ended = new CountDownLatch(1);
+
+        public RecordingObserver(Simulation sim) {
+            this.sim = sim;
+        }
+
+        public void update(int callsRemaining, int queueSize, int openCalls,
+                           int availableTechs) {
+            this.callsRemaining = callsRemaining;
+            this.openCalls = openCalls;
+            this.availableTechs = availableTechs;
+            if (sim.getOpenCalls().length != openCalls) {
+                openCallMismatch = true;
+            }
+            times.add(sim.getClock());
+        }
+
+        public void update(String consoleText) {
+            if (consoleText.startsWith("Cust: ")) {
+                callsStarted++;
+            }
+            messages.add(consoleText);
+        }
+
+        public void update(boolean isRunning) {
+            if (!isRunning) {
+                ended.countDown();
+            }
+        }
+    }
+
+    /**
+     * Checks that each call is started by a tech who works the shift being simulated
+     */
+    private static class DutyObserver implements Observer {
+        private Simulation          sim;
+        private ArrayList<Call>     seen = new ArrayList<>();
+        private boolean             isStarting;
+        private int                 started;
+        private int                 offDuty;
+
+        public DutyObserver(Simulation sim) {
+            this.sim = sim;
+        }
+
+        public void update(int callsRemaining, int queueSize, int openCalls,
+                           int availableTechs) {
+            if (!isStarting) {
+                return;
+            }
+            isStarting = false;
+            for (Call call : sim.getOpenCalls()) {
+                if (!seen.contains(call)) {
+                    seen.add(call);
+                    started++;
+                    if (!call.getTech().isWorking(sim.getDay(), sim.getShift())) {
+                        offDuty++;
+                    }
+                }
+            }
+        }
+
+        public void update(String consoleText) {
+            isStarting = consoleText.startsWith("Cust: ");
+        }
+
+        public void update(boolean isRunning) {
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.stevencl.callcentersim;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+import javax.swing.SwingUtilities;
+
+/**
+ * The test class for StatusPublisher
+ *
+ * @author      Steven Leighton
+ * @version     2018-12-06
+ */
+public class StatusPublisherTest {
+
+    @Test
+    public void coalesceStatusUpdates() throws Exception {
+        CountingObserver target = new CountingObserver();
+        StatusPublisher publisher = new StatusPublisher(target, 30);
+        publisher.update(true);
+        for (int i = 100000; i >= 0; i--) {
+            publisher.update(i, i % 7, i % 5, i % 3);
+        }
+        publisher.update(false);
+        SwingUtilities.invokeAndWait(() -> { });
+
+        assertTrue(target.statusUpdates >= 1);
+        assertTrue(target.statusUpdates < 1000);
+        assertEquals(0, target.callsRemaining);
+        assertFalse(target.isRunning);
+        assertTrue(target.finalStatusFirst);
+    }
+
+    @Test
+    public void passConsoleText() {
+        CountingObserver target = new CountingObserver();
+        StatusPublisher publisher = new StatusPublisher(target, 30);
+        publisher.update("Cust: 1");
+
+        assertEquals("Cust: 1", target.consoleText);
+    }
+
+    @Test (expected = IllegalArgumentException.class)
+    public void invalidRate() {
+        new StatusPublisher(new CountingObserver(), 0);
+    }
+
+
+    /**
+     * Counts the updates received from a publisher
+     */
+    private static class CountingObserver implements Observer {
+        private int         statusUpdates;
+        private int         callsRemaining = -1;
+        private String      consoleText;
+        private boolean     isRunning;
+        private boolean     finalStatusFirst;
+
+        public void update(int callsRemaining, int queueSize, int openCalls,
+                           int availableTechs) {
+            statusUpdates++;
+            this.callsRemaining = callsRemaining;
+        }
+
+        public void update(String consoleText) {
+            this.consoleText = consoleText;
+        }
+
+        public void update(boolean isRunning) {
+            this.isRunning = isRunning;
+            if (!isRunning) {
+                finalStatusFirst = callsRemaining == 0;
+            }
+        }
+    }
+}
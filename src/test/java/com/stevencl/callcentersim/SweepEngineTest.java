@@ -0,0 +1,127 @@
+package com.stevencl.callcentersim;
+
+import static org.junit.Assert.*;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.Arrays;
+
+/**
+ * The test class for SweepEngine and SweepGrid
+ *
+ * @author      Steven Leighton
+ * @version     2018-12-06
+ */
+public class SweepEngineTest {
+    private static SimulationData   data;
+
+    @BeforeClass
+    public static void loadData() throws Exception {
+        data = new SimulationData(false, 0);
+    }
+
+    @Test
+    public void parseValues() {
+        assertArrayEquals(new int[] {1, 2, 5}, SweepGrid.parseValues("1,2,5"));
+        assertArrayEquals(new int[] {10, 20, 30}, SweepGrid.parseValues("10:30:10"));
+        assertArrayEquals(new int[] {1, 2, 3, 7}, SweepGrid.parseValues("1:3, 7"));
+        assertEquals(7, SweepGrid.parseDays("ALL").length);
+    }
+
+    @Test
+    public void gridPoints() {
+        SweepGrid grid = new SweepGrid();
+        grid.setIntervals(1, 2);
+        grid.setLengths(3, 4, 5);
+        grid.setDays(Day.MON, Day.SAT);
+        grid.setTechCounts(5, 10);
+
+        assertEquals(24, grid.size());
+        Scenario last = grid.get(23);
+        assertEquals(2, last.getInterval());
+        assertEquals(5, last.getLength());
+        assertEquals(Day.SAT, last.getDay());
+        assertEquals(10, last.getTechCount());
+        assertEquals(5, grid.get(0).getTechCount());
+        assertEquals(Day.SAT, grid.get(2).getDay());
+    }
+
+    @Test
+    public void streamRows() {
+        SweepGrid grid = new SweepGrid();
+        grid.setIntervals(1, 2);
+        grid.setLengths(2, 6);
+        grid.setShifts(1, 2);
+        grid.setTechCounts(Simulation.SCHEDULED_TECHS, 3, 500);
+        grid.setCallCount(50);
+        StringWriter out = new StringWriter();
+        int completed = new SweepEngine(data, 3).run(grid, 7, new PrintWriter(out));
+
+        String[] lines = out.toString().split("\\R");
+        assertEquals(SweepEngine.HEADER, lines[0]);
+        assertEquals(25, lines.length);
+        assertEquals(16, completed);
+
+        String[] rows = Arrays.copyOfRange(lines, 1, lines.length);
+        Arrays.sort(rows, (a, b) -> Integer.parseInt(a.split(",")[0])
+                                    - Integer.parseInt(b.split(",")[0]));
+        String[] fields = rows[1].split(",", -1);
+        assertEquals("3", fields[7]);
+        assertEquals("3", fields[11]);
+        assertEquals("50", fields[12]);
+        assertFalse(fields[9].isEmpty());
+        assertTrue(rows[2].endsWith("Invalid tech count: 500"));
+    }
+
+    @Test (expected = IllegalArgumentException.class)
+    public void noTechs() {
+        new SweepGrid().setTechCounts(Simulation.SCHEDULED_TECHS, 0);
+    }
+
+    @Test (timeout = 10000)
+    public void skipPointsWithoutEstimate() {
+        SweepGrid grid = new SweepGrid();
+        grid.setLengths(2);
+        grid.setTechCounts(3);
+        grid.setCallLengths(Distributions.constant(0));
+        grid.setCallCount(20);
+        StringWriter out = new StringWriter();
+
+        assertEquals(0, new SweepEngine(data, 1).run(grid, 1, new PrintWriter(out)));
+        String[] fields = out.toString().split("\\R")[1].split(",", -1);
+        assertEquals(SweepEngine.HEADER.split(",").length, fields.length);
+        assertEquals("Means must be positive", fields[fields.length - 1]);
+    }
+
+    @Test
+    public void pruneOverloadedPoints() {
+        SweepGrid grid = new SweepGrid();
+        grid.setLengths(5);
+        grid.setTechCounts(2, 8);
+        grid.setCallCount(50);
+        SweepEngine engine = new SweepEngine(data, 2);
+        engine.setMaxOccupancy(1);
+        StringWriter out = new StringWriter();
+
+        assertEquals(1, engine.run(grid, 1, new PrintWriter(out)));
+        assertTrue(out.toString().contains("pruned: load 5.05 Erlangs for 2 techs"));
+    }
+
+    @Test
+    public void sameSeedSameRows() {
+        SweepGrid grid = new SweepGrid();
+        grid.setLengths(SweepGrid.parseValues("2:8:2"));
+        grid.setCallLengths(Distributions.exponential(4000));
+        StringWriter first = new StringWriter();
+        StringWriter second = new StringWriter();
+        new SweepEngine(data, 4).run(grid, 3, new PrintWriter(first));
+        new SweepEngine(data, 1).run(grid, 3, new PrintWriter(second));
+
+        String[] a = first.toString().split("\\R");
+        String[] b = second.toString().split("\\R");
+        Arrays.sort(a);
+        Arrays.sort(b);
+        assertArrayEquals(a, b);
+    }
+}
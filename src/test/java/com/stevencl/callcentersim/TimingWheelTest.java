@@ -0,0 +1,94 @@
+package com.stevencl.callcentersim;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+import java.util.ArrayList;
+import java.util.Random;
+
+/**
+ * The test class for TimingWheel
+ *
+ * @author      Steven Leighton
+ * @version     2018-12-06
+ */
+public class TimingWheelTest {
+
+    @Test
+    public void expiresInDueTick() {
+        TimingWheel<Long> wheel = new TimingWheel<>(10, 0);
+        ArrayList<Long> expired = new ArrayList<>();
+        Random random = new Random(42);
+        long[] times = new long[5000];
+        for (int i = 0; i < times.length; i++) {
+            // spread over every level, including beyond the span of the top level
+            times[i] = 1 + (long)Math.pow(10, random.nextDouble() * 9);
+            wheel.schedule(times[i], times[i]);
+        }
+        assertEquals(times.length, wheel.size());
+
+        long now = 0;
+        while (!wheel.isEmpty()) {
+            now += 1 + random.nextInt(50000);
+            long tickEnd = now;
+            wheel.advance(now, time -> {
+                assertTrue("expired early", time <= tickEnd);
+                expired.add(time);
+            });
+        }
+        assertEquals(times.length, expired.size());
+    }
+
+    @Test
+    public void neverLateByMoreThanOneTick() {
+        TimingWheel<Long> wheel = new TimingWheel<>(10, 0);
+        Random random = new Random(7);
+        for (int i = 0; i < 2000; i++) {
+            long time = random.nextInt(5000000);
+            wheel.schedule(time, time);
+        }
+
+        for (long now = 0; !wheel.isEmpty(); now += 10) {
+            long tickEnd = now;
+            wheel.advance(now, time -> {
+                assertTrue(time <= tickEnd);
+                assertTrue(time > tickEnd - 20);
+            });
+        }
+    }
+
+    @Test
+    public void cancel() {
+        TimingWheel<String> wheel = new TimingWheel<>(10, 0);
+        ArrayList<String> expired = new ArrayList<>();
+        int first = wheel.schedule("first", 100);
+        int second = wheel.schedule("second", 100000);
+        wheel.schedule("third", 200);
+
+        assertTrue(wheel.cancel(first));
+        assertFalse(wheel.cancel(first));
+        assertTrue(wheel.cancel(second));
+        assertEquals(1, wheel.size());
+
+        wheel.advance(1000000, expired::add);
+        assertEquals(1, expired.size());
+        assertEquals("third", expired.get(0));
+        assertTrue(wheel.isEmpty());
+    }
+
+    @Test
+    public void scheduleFromHandler() {
+        TimingWheel<Integer> wheel = new TimingWheel<>(10, 0);
+        ArrayList<Integer> expired = new ArrayList<>();
+        wheel.schedule(0, 50);
+        for (long now = 0; now <= 1000; now += 10) {
+            long current = now;
+            wheel.advance(now, count -> {
+                expired.add(count);
+                if (count < 5) {
+                    wheel.schedule(count + 1, current + 100);
+                }
+            });
+        }
+        assertEquals(6, expired.size());
+    }
+}